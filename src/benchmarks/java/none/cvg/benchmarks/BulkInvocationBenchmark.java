@@ -0,0 +1,88 @@
+package none.cvg.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import none.cvg.DemoClass;
+import none.cvg.bulk.BulkInvoker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Invokes DemoClass.printStuff(String) on every element of a large receiver array.
+ * Compares a single-threaded Method.invoke loop, a single-threaded invokeExact loop and the
+ * fork/join BulkInvoker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkInvocationBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    private DemoClass[] receivers;
+
+    private Object[] results;
+
+    private Method printStuffMethod;
+
+    private MethodHandle printStuffHandle;
+
+    private BulkInvoker bulkInvoker;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+
+        receivers = new DemoClass[size];
+        for (int i = 0; i < size; i++) {
+            receivers[i] = new DemoClass("demo-" + i);
+        }
+        results = new Object[size];
+
+        printStuffMethod = DemoClass.class.getMethod("printStuff", String.class);
+
+        printStuffHandle = MethodHandles.insertArguments(
+                MethodHandles.publicLookup().findVirtual(DemoClass.class, "printStuff",
+                        MethodType.methodType(String.class, String.class)),
+                1, "bulk");
+
+        bulkInvoker = BulkInvoker.of(printStuffHandle);
+    }
+
+    @Benchmark
+    public Object[] reflectiveLoop() throws ReflectiveOperationException {
+        for (int i = 0; i < receivers.length; i++) {
+            results[i] = printStuffMethod.invoke(receivers[i], "bulk");
+        }
+        return results;
+    }
+
+    @Benchmark
+    public Object[] invokeExactLoop() throws Throwable {
+        for (int i = 0; i < receivers.length; i++) {
+            results[i] = (String) printStuffHandle.invokeExact(receivers[i]);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public Object[] bulkInvoker() {
+        return bulkInvoker.invokeAll(receivers, results);
+    }
+}
@@ -0,0 +1,121 @@
+package none.cvg.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import none.cvg.DemoClass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+ * Time to make the first N calls of a DemoClass method in a fresh JVM, for short-lived workers
+ * where warm-up costs more than peak throughput.
+ *
+ * Every combination of technique (benchmark method), access level and call count runs in its
+ * own forks, with no warm-up and a single timed shot. Only the member the running technique
+ * needs is resolved, so no technique starts with infrastructure another one already linked.
+ * Resolution happens in the untimed setup; the timed shot is the N calls, which covers
+ * interpretation, JIT compilation and, for Method.invoke, the inflation from the native
+ * accessor to a generated one after 15 calls (before JDK 18, method handles since).
+ *
+ *   java -jar target/benchmarks.jar ColdStartBenchmark -p accessLevel=private -rf json
+ *   java -cp target/classes none.cvg.perf.RegressionCheck table jmh-result.json calls
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ColdStartBenchmark {
+
+    @Param({"public", "publicStatic", "protected", "packageProtected", "private"})
+    public String accessLevel;
+
+    @Param({"1", "10", "100", "10000", "1000000"})
+    public int calls;
+
+    private final DemoClass demoClass = new DemoClass();
+
+    private final String input = "cold";
+
+    private Method method;
+
+    /*
+     * (DemoClass, String)String, with the receiver dropped for the static method.
+     */
+    private MethodHandle handle;
+
+    @Setup
+    public void setup(BenchmarkParams params) throws ReflectiveOperationException {
+        String benchmark = params.getBenchmark();
+        String technique = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+        String name = accessLevel + "Method";
+
+        switch (technique) {
+            case "reflection":
+                method = DemoClass.class.getDeclaredMethod(name, String.class);
+                method.setAccessible(true);
+                break;
+            case "unreflect":
+                Method resolved = DemoClass.class.getDeclaredMethod(name, String.class);
+                handle = adapt(MethodHandles.privateLookupIn(DemoClass.class,
+                        MethodHandles.lookup()).unreflect(resolved));
+                break;
+            case "findVirtual":
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(DemoClass.class,
+                        MethodHandles.lookup());
+                MethodType type = MethodType.methodType(String.class, String.class);
+                handle = adapt("publicStatic".equals(accessLevel)
+                        ? lookup.findStatic(DemoClass.class, name, type)
+                        : lookup.findVirtual(DemoClass.class, name, type));
+                break;
+            default:
+                throw new IllegalStateException("Unexpected benchmark " + benchmark);
+        }
+    }
+
+    @Benchmark
+    public void reflection(Blackhole blackhole) throws ReflectiveOperationException {
+        for (int i = 0; i < calls; i++) {
+            blackhole.consume(method.invoke(demoClass, input));
+        }
+    }
+
+    @Benchmark
+    public void unreflect(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < calls; i++) {
+            blackhole.consume((String) handle.invokeExact(demoClass, input));
+        }
+    }
+
+    /*
+     * findStatic for the static method, the handle is invoked the same way.
+     */
+    @Benchmark
+    public void findVirtual(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < calls; i++) {
+            blackhole.consume((String) handle.invokeExact(demoClass, input));
+        }
+    }
+
+    private static MethodHandle adapt(MethodHandle resolved) {
+        return resolved.type().parameterCount() == 1
+                ? MethodHandles.dropArguments(resolved, 0, DemoClass.class)
+                : resolved;
+    }
+}
@@ -0,0 +1,84 @@
+package none.cvg.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import none.cvg.DemoClass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Invokes the DemoClass methods of each access level, as the none.cvg.methods tests do, with
+ * Method.invoke, MethodHandle.invoke and MethodHandle.invokeExact.
+ *
+ * The results are the input of the regression check, for instance:
+ *   java -jar target/benchmarks.jar MethodInvocationBenchmark -rf json -rff jmh-result.json
+ *   java -cp target/classes none.cvg.perf.RegressionCheck compare jmh-result.json
+ *   java -cp target/classes none.cvg.perf.RegressionCheck table jmh-result.json accessLevel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MethodInvocationBenchmark {
+
+    @Param({"public", "publicStatic", "protected", "packageProtected", "private"})
+    public String accessLevel;
+
+    private final DemoClass demoClass = new DemoClass();
+
+    private final String input = "benchmark";
+
+    private Method method;
+
+    /*
+     * (DemoClass, String)String, with the receiver dropped for the static method.
+     */
+    private MethodHandle handle;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        String name = accessLevel + "Method";
+        method = DemoClass.class.getDeclaredMethod(name, String.class);
+        method.setAccessible(true);
+
+        MethodHandle resolved = MethodHandles.privateLookupIn(DemoClass.class,
+                MethodHandles.lookup()).unreflect(method);
+        handle = resolved.type().parameterCount() == 1
+                ? MethodHandles.dropArguments(resolved, 0, DemoClass.class)
+                : resolved;
+        if (!handle.type().equals(
+                MethodType.methodType(String.class, DemoClass.class, String.class))) {
+            throw new IllegalStateException("Unexpected handle type " + handle.type());
+        }
+    }
+
+    @Benchmark
+    public Object reflection() throws ReflectiveOperationException {
+        return method.invoke(demoClass, input);
+    }
+
+    @Benchmark
+    public Object invoke() throws Throwable {
+        return handle.invoke(demoClass, input);
+    }
+
+    @Benchmark
+    public String invokeExact() throws Throwable {
+        return (String) handle.invokeExact(demoClass, input);
+    }
+}
@@ -0,0 +1,139 @@
+package none.cvg.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import none.cvg.DemoClass;
+import none.cvg.registry.HandleRegistry;
+
+/*
+ * Runs millions of virtual threads that each resolve and invoke a DemoClass method, once per
+ * resolution path, and reports throughput along with the jdk.VirtualThreadPinned events
+ * recorded while the path ran.
+ *
+ * Paths:
+ *   reflection      - getDeclaredMethod + setAccessible + Method.invoke per task
+ *   computeIfAbsent - ConcurrentHashMap.computeIfAbsent resolving the handle inside the
+ *                     mapping function (i.e. while holding the bin monitor)
+ *   registry        - HandleRegistry, which resolves outside of any monitor
+ *
+ * Build: mvn -P benchmarks,benchmarks-jdk21 package -DskipTests
+ * Run:   java -cp target/benchmarks.jar none.cvg.benchmarks.VirtualThreadScalability [threads]
+ */
+public class VirtualThreadScalability {
+
+    private static final String[] METHODS = {
+            "publicMethod", "privateMethod", "protectedMethod", "packageProtectedMethod"
+    };
+
+    private static final MethodType STRING_TO_STRING =
+            MethodType.methodType(String.class, String.class);
+
+    public static void main(String[] args) throws Exception {
+
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        run("reflection", threads, VirtualThreadScalability::viaReflection);
+
+        Map<String, MethodHandle> cache = new ConcurrentHashMap<>();
+        run("computeIfAbsent", threads, i -> viaComputeIfAbsent(cache, i));
+
+        HandleRegistry registry = new HandleRegistry();
+        run("registry", threads, i -> viaRegistry(registry, i));
+    }
+
+    private static void run(String path, int threads, Task task) throws Exception {
+
+        AtomicLong pinned = new AtomicLong();
+        Map<String, Long> pinnedFrames = new ConcurrentHashMap<>();
+        AtomicLong failures = new AtomicLong();
+
+        try (RecordingStream recording = new RecordingStream()) {
+
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO)
+                    .withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                pinned.incrementAndGet();
+                if (event.getStackTrace() != null) {
+                    for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                        String type = frame.getMethod().getType().getName();
+                        if (type.startsWith("none.cvg") || type.startsWith("java.lang.invoke")
+                                || type.startsWith("java.util.concurrent.ConcurrentHashMap")) {
+                            pinnedFrames.merge(type + "." + frame.getMethod().getName(),
+                                    1L, Long::sum);
+                            break;
+                        }
+                    }
+                }
+            });
+            recording.startAsync();
+
+            long start = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < threads; i++) {
+                    int index = i;
+                    executor.submit(() -> {
+                        try {
+                            task.run(index);
+                        } catch (Throwable t) {
+                            failures.incrementAndGet();
+                        }
+                    });
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            // Let the stream deliver the events recorded during the run
+            Thread.sleep(1_500);
+
+            System.out.printf("%-16s threads=%,d elapsed=%,d ms throughput=%,.0f ops/s "
+                            + "failures=%,d pinnedEvents=%,d%n",
+                    path, threads, elapsed / 1_000_000,
+                    threads / (elapsed / 1_000_000_000.0), failures.get(), pinned.get());
+            new TreeMap<>(pinnedFrames).forEach((frame, count) ->
+                    System.out.printf("    pinned at %s x %,d%n", frame, count));
+        }
+    }
+
+    private static String viaReflection(int i) throws Exception {
+        Method method = DemoClass.class.getDeclaredMethod(METHODS[i % METHODS.length],
+                String.class);
+        method.setAccessible(true);
+        return (String) method.invoke(new DemoClass(), "virtual");
+    }
+
+    private static String viaComputeIfAbsent(Map<String, MethodHandle> cache, int i)
+            throws Throwable {
+        MethodHandle handle = cache.computeIfAbsent(METHODS[i % METHODS.length], name -> {
+            try {
+                return MethodHandles.privateLookupIn(DemoClass.class, MethodHandles.lookup())
+                        .findVirtual(DemoClass.class, name, STRING_TO_STRING);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return (String) handle.invokeExact(new DemoClass(), "virtual");
+    }
+
+    private static String viaRegistry(HandleRegistry registry, int i) throws Throwable {
+        MethodHandle handle = registry.findVirtual(DemoClass.class,
+                METHODS[i % METHODS.length], STRING_TO_STRING);
+        return (String) handle.invokeExact(new DemoClass(), "virtual");
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        Object run(int index) throws Throwable;
+    }
+}
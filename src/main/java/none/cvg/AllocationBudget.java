@@ -0,0 +1,34 @@
+package none.cvg;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Fails a test that allocates more than the given number of bytes on its own thread.
+ * <p>
+ * On a class, the budget applies to every test method without a budget of its own. Measured
+ * by {@link AllocationBudgetExtension}, which this annotation registers.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@ExtendWith(AllocationBudgetExtension.class)
+public @interface AllocationBudget {
+
+    /**
+     * @return - Most bytes the test body may allocate
+     */
+    long bytes();
+
+    /**
+     * @return - Unmeasured runs of the test body, each on a new instance of the test class,
+     *           before the measured one. They keep one-time costs of a first run, such as
+     *           class loading and handle linkage, out of the budget.
+     */
+    int warmUps() default 0;
+}
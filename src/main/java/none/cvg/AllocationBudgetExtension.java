@@ -0,0 +1,134 @@
+package none.cvg;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.ReflectionSupport;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Measures the bytes allocated by the test thread around each test body, and fails tests
+ * over their {@link AllocationBudget}.
+ * <p>
+ * Uses {@code com.sun.management.ThreadMXBean.getThreadAllocatedBytes}, which counts TLAB and
+ * direct heap allocations of one thread. Allocations made by other threads, such as a
+ * ForkJoinPool, are not counted. The bytes allocated by the measurement itself are subtracted.
+ * <p>
+ * With {@link AllocationBudget#warmUps()}, the test method first runs that many times on new
+ * instances of the test class, created with its no-arg constructor, and only the run JUnit
+ * makes is measured. Lifecycle methods such as {@code @BeforeEach} do not run for warm-ups,
+ * so the test must not depend on them or on static state it changes itself. Budgeted test
+ * methods with warm-ups cannot take parameters.
+ * <p>
+ * On a JVM without the bean, or with allocation measurement disabled, budgets are not
+ * enforced. The allocated bytes are always published as a report entry.
+ */
+public class AllocationBudgetExtension implements BeforeTestExecutionCallback,
+        AfterTestExecutionCallback {
+
+    private static final String START = "allocatedBytesAtStart";
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private static final long OVERHEAD = overhead();
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        if (THREADS == null) {
+            return;
+        }
+        Optional<AllocationBudget> budget = budget(context);
+        if (budget.isPresent()) {
+            warmUp(context, budget.get().warmUps());
+        }
+        // Stored before reading, so that the store's own allocations are not counted
+        long[] start = new long[1];
+        store(context).put(START, start);
+        start[0] = allocatedBytes();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        long end = THREADS != null ? allocatedBytes() : 0;
+        long[] start = store(context).remove(START, long[].class);
+        if (start == null) {
+            return;
+        }
+        long allocated = Math.max(0, end - start[0] - OVERHEAD);
+        context.publishReportEntry("allocatedBytes", Long.toString(allocated));
+
+        Optional<AllocationBudget> budget = budget(context);
+        if (budget.isPresent() && allocated > budget.get().bytes()) {
+            fail(context.getDisplayName() + " allocated " + allocated
+                    + " bytes, over its budget of " + budget.get().bytes() + " bytes");
+        }
+    }
+
+    private static Optional<AllocationBudget> budget(ExtensionContext context) {
+        Optional<AllocationBudget> budget = budget(context.getRequiredTestMethod());
+        return budget.isPresent() ? budget : budget(context.getRequiredTestClass());
+    }
+
+    private static Optional<AllocationBudget> budget(AnnotatedElement element) {
+        return Optional.ofNullable(element.getAnnotation(AllocationBudget.class));
+    }
+
+    private static void warmUp(ExtensionContext context, int runs) {
+        if (runs <= 0) {
+            return;
+        }
+        Method method = context.getRequiredTestMethod();
+        if (method.getParameterCount() > 0) {
+            throw new ExtensionConfigurationException(method.getName()
+                    + " takes parameters, so it cannot be warmed up for its allocation budget");
+        }
+        for (int i = 0; i < runs; i++) {
+            ReflectionSupport.invokeMethod(method,
+                    ReflectionSupport.newInstance(context.getRequiredTestClass()));
+        }
+    }
+
+    private static ExtensionContext.Store store(ExtensionContext context) {
+        return context.getStore(ExtensionContext.Namespace.create(
+                AllocationBudgetExtension.class, context.getUniqueId()));
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        if (!allocations.isThreadAllocatedMemorySupported()
+                || !allocations.isThreadAllocatedMemoryEnabled()) {
+            return null;
+        }
+        return allocations;
+    }
+
+    /*
+     * Bytes allocated between two back-to-back readings, the smallest of a few tries.
+     */
+    private static long overhead() {
+        if (THREADS == null) {
+            return 0;
+        }
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 16; i++) {
+            long start = allocatedBytes();
+            overhead = Math.min(overhead, allocatedBytes() - start);
+        }
+        return overhead;
+    }
+}
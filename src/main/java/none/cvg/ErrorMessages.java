@@ -4,7 +4,9 @@ public enum ErrorMessages {
 
     REFLECTION_FAILURE("Reflection Test Failed. Exception message: "),
     UNSAFE_FAILURE("Unsafe Test Failed. Exception message: "),
-    TEST_FAILURE("Test Failure - Fix all TODOs. Exception message: ");
+    TEST_FAILURE("Test Failure - Fix all TODOs. Exception message: "),
+    HANDLE_RESOLUTION_FAILURE("Handle resolution failed. Exception message: "),
+    HANDLE_INVOCATION_FAILURE("Handle invocation failed. Exception message: ");
 
     private String value;
 
@@ -0,0 +1,60 @@
+package none.cvg.accessors;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * Creates accessors for instance methods and fields, including private ones.
+ * <p>
+ * This Java 11 baseline returns the same handles the kata's solutions use: a
+ * {@code findVirtual} handle for methods and a {@code findGetter} handle for fields, both on a
+ * private lookup of the owner. On Java 17+, the multi-release JAR replaces this class with one
+ * that generates a hidden class holding a direct {@code invokevirtual}/{@code getfield}
+ * accessor per target.
+ */
+public final class DirectAccessors {
+
+    private DirectAccessors() {
+    }
+
+    /**
+     * Returns a handle invoking an instance method.
+     *
+     * @param lookup - Lookup with private access to the owner
+     * @param owner - Class declaring the method
+     * @param name - Method name
+     * @param type - Method type, without the receiver
+     * @return - A handle of type {@code (owner, parameters...)returnType}
+     */
+    public static MethodHandle method(MethodHandles.Lookup lookup, Class<?> owner, String name,
+                                      MethodType type) {
+        try {
+            return MethodHandles.privateLookupIn(owner, lookup).findVirtual(owner, name, type);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns a handle reading an instance field.
+     *
+     * @param lookup - Lookup with private access to the owner
+     * @param owner - Class declaring the field
+     * @param name - Field name
+     * @param type - Field type
+     * @return - A handle of type {@code (owner)type}
+     */
+    public static MethodHandle getter(MethodHandles.Lookup lookup, Class<?> owner, String name,
+                                      Class<?> type) {
+        try {
+            return MethodHandles.privateLookupIn(owner, lookup).findGetter(owner, name, type);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package none.cvg.atomic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.BitSet;
+
+/**
+ * A fixed-size set of bits on a {@code long[]}, set and cleared atomically from any thread.
+ * <p>
+ * Each bit is updated with {@code getAndBitwiseOr} or {@code getAndBitwiseAnd} on the VarHandle
+ * of {@code MethodHandles.arrayElementVarHandle(long[].class)}, so concurrent updates to bits
+ * of the same word never lose one another, and the caller learns whether it was the one that
+ * changed the bit. That makes {@link #set(int)} usable to claim a slot or to deduplicate.
+ */
+public final class AtomicBitSet {
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] words;
+
+    private final int size;
+
+    /**
+     * @param size - Number of bits, all clear
+     */
+    public AtomicBitSet(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must not be negative: " + size);
+        }
+        this.words = new long[(size + 63) >>> 6];
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index - Bit index
+     * @return - Whether the bit is set, read with acquire ordering
+     */
+    public boolean get(int index) {
+        checkIndex(index);
+        return ((long) WORDS.getAcquire(words, index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * @param index - Bit index
+     * @return - Whether this call set the bit, false when it was already set
+     */
+    public boolean set(int index) {
+        checkIndex(index);
+        long mask = 1L << index;
+        return ((long) WORDS.getAndBitwiseOr(words, index >>> 6, mask) & mask) == 0;
+    }
+
+    /**
+     * @param index - Bit index
+     * @return - Whether this call cleared the bit, false when it was already clear
+     */
+    public boolean clear(int index) {
+        checkIndex(index);
+        long mask = 1L << index;
+        return ((long) WORDS.getAndBitwiseAnd(words, index >>> 6, ~mask) & mask) != 0;
+    }
+
+    /**
+     * @param index - Bit index
+     * @return - The new value of the bit
+     */
+    public boolean flip(int index) {
+        checkIndex(index);
+        long mask = 1L << index;
+        return ((long) WORDS.getAndBitwiseXor(words, index >>> 6, mask) & mask) == 0;
+    }
+
+    /**
+     * @param fromIndex - First bit index to look at
+     * @return - The index of the first set bit at or after {@code fromIndex}, -1 if none
+     */
+    public int nextSetBit(int fromIndex) {
+        if (fromIndex < 0) {
+            throw new IndexOutOfBoundsException("Negative index: " + fromIndex);
+        }
+        if (fromIndex >= size) {
+            return -1;
+        }
+        int wordIndex = fromIndex >>> 6;
+        long word = (long) WORDS.getAcquire(words, wordIndex) & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                int index = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                return index < size ? index : -1;
+            }
+            if (++wordIndex == words.length) {
+                return -1;
+            }
+            word = (long) WORDS.getAcquire(words, wordIndex);
+        }
+    }
+
+    /**
+     * @param fromIndex - First bit index to look at
+     * @return - The index of the first clear bit at or after {@code fromIndex}, -1 if none
+     */
+    public int nextClearBit(int fromIndex) {
+        if (fromIndex < 0) {
+            throw new IndexOutOfBoundsException("Negative index: " + fromIndex);
+        }
+        if (fromIndex >= size) {
+            return -1;
+        }
+        int wordIndex = fromIndex >>> 6;
+        long word = ~(long) WORDS.getAcquire(words, wordIndex) & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                int index = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                return index < size ? index : -1;
+            }
+            if (++wordIndex == words.length) {
+                return -1;
+            }
+            word = ~(long) WORDS.getAcquire(words, wordIndex);
+        }
+    }
+
+    /**
+     * @return - The number of set bits, each word read with acquire ordering
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < words.length; i++) {
+            cardinality += Long.bitCount((long) WORDS.getAcquire(words, i));
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return - A copy of the bits, each word read with acquire ordering
+     */
+    public BitSet snapshotAcquire() {
+        long[] copy = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            copy[i] = (long) WORDS.getAcquire(words, i);
+        }
+        return BitSet.valueOf(copy);
+    }
+
+    @Override
+    public String toString() {
+        return snapshotAcquire().toString();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size "
+                    + size);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package none.cvg.atomic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * An {@code int[]} whose elements are updated atomically, through the VarHandle of
+ * {@code MethodHandles.arrayElementVarHandle(int[].class)}.
+ * <p>
+ * Compared with {@code AtomicIntegerArray}, every memory ordering mode is exposed per element
+ * (plain, opaque, acquire/release and volatile), elements can be raised to a maximum or
+ * lowered to a minimum atomically, and the whole array can be read or published in bulk with
+ * acquire/release ordering. A bulk read is not an atomic snapshot: each element is read
+ * atomically, but other threads may update elements while the array is copied.
+ */
+public final class AtomicInts {
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final int[] array;
+
+    public AtomicInts(int length) {
+        this.array = new int[length];
+    }
+
+    /**
+     * @param initial - Initial values, copied
+     */
+    public AtomicInts(int[] initial) {
+        this.array = initial.clone();
+        VarHandle.releaseFence();
+    }
+
+    public int length() {
+        return array.length;
+    }
+
+    public int get(int index) {
+        return (int) INTS.getVolatile(array, index);
+    }
+
+    public int getPlain(int index) {
+        return (int) INTS.get(array, index);
+    }
+
+    public int getOpaque(int index) {
+        return (int) INTS.getOpaque(array, index);
+    }
+
+    public int getAcquire(int index) {
+        return (int) INTS.getAcquire(array, index);
+    }
+
+    public void set(int index, int value) {
+        INTS.setVolatile(array, index, value);
+    }
+
+    public void setPlain(int index, int value) {
+        INTS.set(array, index, value);
+    }
+
+    public void setOpaque(int index, int value) {
+        INTS.setOpaque(array, index, value);
+    }
+
+    public void setRelease(int index, int value) {
+        INTS.setRelease(array, index, value);
+    }
+
+    public int getAndSet(int index, int value) {
+        return (int) INTS.getAndSet(array, index, value);
+    }
+
+    public boolean compareAndSet(int index, int expected, int value) {
+        return INTS.compareAndSet(array, index, expected, value);
+    }
+
+    /**
+     * @return - The witness value, equal to {@code expected} when the exchange happened
+     */
+    public int compareAndExchange(int index, int expected, int value) {
+        return (int) INTS.compareAndExchange(array, index, expected, value);
+    }
+
+    public boolean weakCompareAndSetPlain(int index, int expected, int value) {
+        return INTS.weakCompareAndSetPlain(array, index, expected, value);
+    }
+
+    public int getAndAdd(int index, int delta) {
+        return (int) INTS.getAndAdd(array, index, delta);
+    }
+
+    public int addAndGet(int index, int delta) {
+        return (int) INTS.getAndAdd(array, index, delta) + delta;
+    }
+
+    public int getAndIncrement(int index) {
+        return (int) INTS.getAndAdd(array, index, 1);
+    }
+
+    /**
+     * Raises an element to a value, unless it is already at least that value. Does not write
+     * when the element is already high enough, so a hot maximum costs a read.
+     *
+     * @param index - Element index
+     * @param value - Candidate maximum
+     * @return - The previous value of the element
+     */
+    public int accumulateMax(int index, int value) {
+        int current = (int) INTS.getVolatile(array, index);
+        while (current < value) {
+            int witness = (int) INTS.compareAndExchange(array, index, current, value);
+            if (witness == current) {
+                return current;
+            }
+            current = witness;
+        }
+        return current;
+    }
+
+    /**
+     * Lowers an element to a value, unless it is already at most that value.
+     *
+     * @param index - Element index
+     * @param value - Candidate minimum
+     * @return - The previous value of the element
+     */
+    public int accumulateMin(int index, int value) {
+        int current = (int) INTS.getVolatile(array, index);
+        while (current > value) {
+            int witness = (int) INTS.compareAndExchange(array, index, current, value);
+            if (witness == current) {
+                return current;
+            }
+            current = witness;
+        }
+        return current;
+    }
+
+    /**
+     * @return - A copy of the elements, each read with acquire ordering
+     */
+    public int[] snapshotAcquire() {
+        return snapshotAcquire(new int[array.length]);
+    }
+
+    /**
+     * @param into - Array of at least {@link #length()} elements to copy into
+     * @return - {@code into}
+     */
+    public int[] snapshotAcquire(int[] into) {
+        for (int i = 0; i < array.length; i++) {
+            into[i] = (int) INTS.getAcquire(array, i);
+        }
+        return into;
+    }
+
+    /**
+     * Writes every element with release ordering, so that a reader acquiring one of them also
+     * sees what this thread wrote before.
+     *
+     * @param values - Values of at least {@link #length()} elements
+     */
+    public void setAllRelease(int[] values) {
+        for (int i = 0; i < array.length; i++) {
+            INTS.setRelease(array, i, values[i]);
+        }
+    }
+
+    /**
+     * @return - The sum of the elements, each read with acquire ordering
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < array.length; i++) {
+            sum += (int) INTS.getAcquire(array, i);
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(snapshotAcquire());
+    }
+}
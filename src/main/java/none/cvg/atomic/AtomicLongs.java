@@ -0,0 +1,186 @@
+package none.cvg.atomic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A {@code long[]} whose elements are updated atomically, through the VarHandle of
+ * {@code MethodHandles.arrayElementVarHandle(long[].class)}.
+ * <p>
+ * Compared with {@code AtomicLongArray}, every memory ordering mode is exposed per element
+ * (plain, opaque, acquire/release and volatile), elements can be raised to a maximum or
+ * lowered to a minimum atomically, and the whole array can be read or published in bulk with
+ * acquire/release ordering. A bulk read is not an atomic snapshot: each element is read
+ * atomically, but other threads may update elements while the array is copied.
+ */
+public final class AtomicLongs {
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] array;
+
+    public AtomicLongs(int length) {
+        this.array = new long[length];
+    }
+
+    /**
+     * @param initial - Initial values, copied
+     */
+    public AtomicLongs(long[] initial) {
+        this.array = initial.clone();
+        VarHandle.releaseFence();
+    }
+
+    public int length() {
+        return array.length;
+    }
+
+    public long get(int index) {
+        return (long) LONGS.getVolatile(array, index);
+    }
+
+    public long getPlain(int index) {
+        return (long) LONGS.get(array, index);
+    }
+
+    public long getOpaque(int index) {
+        return (long) LONGS.getOpaque(array, index);
+    }
+
+    public long getAcquire(int index) {
+        return (long) LONGS.getAcquire(array, index);
+    }
+
+    public void set(int index, long value) {
+        LONGS.setVolatile(array, index, value);
+    }
+
+    public void setPlain(int index, long value) {
+        LONGS.set(array, index, value);
+    }
+
+    public void setOpaque(int index, long value) {
+        LONGS.setOpaque(array, index, value);
+    }
+
+    public void setRelease(int index, long value) {
+        LONGS.setRelease(array, index, value);
+    }
+
+    public long getAndSet(int index, long value) {
+        return (long) LONGS.getAndSet(array, index, value);
+    }
+
+    public boolean compareAndSet(int index, long expected, long value) {
+        return LONGS.compareAndSet(array, index, expected, value);
+    }
+
+    /**
+     * @return - The witness value, equal to {@code expected} when the exchange happened
+     */
+    public long compareAndExchange(int index, long expected, long value) {
+        return (long) LONGS.compareAndExchange(array, index, expected, value);
+    }
+
+    public boolean weakCompareAndSetPlain(int index, long expected, long value) {
+        return LONGS.weakCompareAndSetPlain(array, index, expected, value);
+    }
+
+    public long getAndAdd(int index, long delta) {
+        return (long) LONGS.getAndAdd(array, index, delta);
+    }
+
+    public long addAndGet(int index, long delta) {
+        return (long) LONGS.getAndAdd(array, index, delta) + delta;
+    }
+
+    public long getAndIncrement(int index) {
+        return (long) LONGS.getAndAdd(array, index, 1L);
+    }
+
+    /**
+     * Raises an element to a value, unless it is already at least that value. Does not write
+     * when the element is already high enough, so a hot maximum costs a read.
+     *
+     * @param index - Element index
+     * @param value - Candidate maximum
+     * @return - The previous value of the element
+     */
+    public long accumulateMax(int index, long value) {
+        long current = (long) LONGS.getVolatile(array, index);
+        while (current < value) {
+            long witness = (long) LONGS.compareAndExchange(array, index, current, value);
+            if (witness == current) {
+                return current;
+            }
+            current = witness;
+        }
+        return current;
+    }
+
+    /**
+     * Lowers an element to a value, unless it is already at most that value.
+     *
+     * @param index - Element index
+     * @param value - Candidate minimum
+     * @return - The previous value of the element
+     */
+    public long accumulateMin(int index, long value) {
+        long current = (long) LONGS.getVolatile(array, index);
+        while (current > value) {
+            long witness = (long) LONGS.compareAndExchange(array, index, current, value);
+            if (witness == current) {
+                return current;
+            }
+            current = witness;
+        }
+        return current;
+    }
+
+    /**
+     * @return - A copy of the elements, each read with acquire ordering
+     */
+    public long[] snapshotAcquire() {
+        return snapshotAcquire(new long[array.length]);
+    }
+
+    /**
+     * @param into - Array of at least {@link #length()} elements to copy into
+     * @return - {@code into}
+     */
+    public long[] snapshotAcquire(long[] into) {
+        for (int i = 0; i < array.length; i++) {
+            into[i] = (long) LONGS.getAcquire(array, i);
+        }
+        return into;
+    }
+
+    /**
+     * Writes every element with release ordering, so that a reader acquiring one of them also
+     * sees what this thread wrote before.
+     *
+     * @param values - Values of at least {@link #length()} elements
+     */
+    public void setAllRelease(long[] values) {
+        for (int i = 0; i < array.length; i++) {
+            LONGS.setRelease(array, i, values[i]);
+        }
+    }
+
+    /**
+     * @return - The sum of the elements, each read with acquire ordering
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < array.length; i++) {
+            sum += (long) LONGS.getAcquire(array, i);
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(snapshotAcquire());
+    }
+}
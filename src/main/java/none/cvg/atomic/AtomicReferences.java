@@ -0,0 +1,157 @@
+package none.cvg.atomic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+/**
+ * An array of references whose elements are updated atomically, through the VarHandle of
+ * {@code MethodHandles.arrayElementVarHandle(Object[].class)}.
+ * <p>
+ * As {@link AtomicInts}, it exposes the memory ordering modes per element and bulk
+ * acquire/release copies, which are not atomic snapshots of the whole array.
+ *
+ * @param <E> - Type of the elements
+ */
+public final class AtomicReferences<E> {
+
+    private static final VarHandle REFERENCES =
+            MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private final Object[] array;
+
+    public AtomicReferences(int length) {
+        this.array = new Object[length];
+    }
+
+    /**
+     * @param initial - Initial values, copied
+     */
+    public AtomicReferences(List<? extends E> initial) {
+        this.array = initial.toArray(new Object[0]);
+        VarHandle.releaseFence();
+    }
+
+    public int length() {
+        return array.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        return (E) REFERENCES.getVolatile(array, index);
+    }
+
+    @SuppressWarnings("unchecked")
+    public E getAcquire(int index) {
+        return (E) REFERENCES.getAcquire(array, index);
+    }
+
+    @SuppressWarnings("unchecked")
+    public E getOpaque(int index) {
+        return (E) REFERENCES.getOpaque(array, index);
+    }
+
+    public void set(int index, E value) {
+        REFERENCES.setVolatile(array, index, value);
+    }
+
+    public void setRelease(int index, E value) {
+        REFERENCES.setRelease(array, index, value);
+    }
+
+    public void setOpaque(int index, E value) {
+        REFERENCES.setOpaque(array, index, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public E getAndSet(int index, E value) {
+        return (E) REFERENCES.getAndSet(array, index, value);
+    }
+
+    /**
+     * Compares by identity, as every compare-and-set.
+     */
+    public boolean compareAndSet(int index, E expected, E value) {
+        return REFERENCES.compareAndSet(array, index, expected, value);
+    }
+
+    /**
+     * @return - The witness value, the same as {@code expected} when the exchange happened
+     */
+    @SuppressWarnings("unchecked")
+    public E compareAndExchange(int index, E expected, E value) {
+        return (E) REFERENCES.compareAndExchange(array, index, expected, value);
+    }
+
+    /**
+     * Replaces an element with the result of a function of its current value, retrying when
+     * another thread changed it in between. The function may be called more than once.
+     *
+     * @param index - Element index
+     * @param update - Side-effect free function of the current value
+     * @return - The previous value
+     */
+    @SuppressWarnings("unchecked")
+    public E getAndUpdate(int index, UnaryOperator<E> update) {
+        E current = (E) REFERENCES.getVolatile(array, index);
+        while (true) {
+            E witness = (E) REFERENCES.compareAndExchange(array, index, current,
+                    update.apply(current));
+            if (witness == current) {
+                return current;
+            }
+            current = witness;
+        }
+    }
+
+    /**
+     * @param index - Element index
+     * @param value - Value combined with the current one
+     * @param accumulator - Side-effect free function of the current value and {@code value}
+     * @return - The new value
+     */
+    @SuppressWarnings("unchecked")
+    public E accumulateAndGet(int index, E value, BinaryOperator<E> accumulator) {
+        E current = (E) REFERENCES.getVolatile(array, index);
+        while (true) {
+            E next = accumulator.apply(current, value);
+            E witness = (E) REFERENCES.compareAndExchange(array, index, current, next);
+            if (witness == current) {
+                return next;
+            }
+            current = witness;
+        }
+    }
+
+    /**
+     * @return - An unmodifiable copy of the elements, each read with acquire ordering
+     */
+    @SuppressWarnings("unchecked")
+    public List<E> snapshotAcquire() {
+        List<E> snapshot = new ArrayList<>(array.length);
+        for (int i = 0; i < array.length; i++) {
+            snapshot.add((E) REFERENCES.getAcquire(array, i));
+        }
+        return Collections.unmodifiableList(snapshot);
+    }
+
+    /**
+     * Writes every element with release ordering.
+     *
+     * @param values - Values of at least {@link #length()} elements
+     */
+    public void setAllRelease(List<? extends E> values) {
+        for (int i = 0; i < array.length; i++) {
+            REFERENCES.setRelease(array, i, values.get(i));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return snapshotAcquire().toString();
+    }
+}
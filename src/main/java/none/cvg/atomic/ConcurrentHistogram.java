@@ -0,0 +1,206 @@
+package none.cvg.atomic;
+
+/**
+ * A lock-free histogram of non-negative values, recorded from any number of threads.
+ * <p>
+ * Values are counted in log-linear buckets: each power of two is split into
+ * {@code 2^subBucketBits} linear sub-buckets, so a value is known to within a relative error of
+ * {@code 2^-subBucketBits}. Counts live in {@link AtomicLongs}, in one row per stripe, and a
+ * thread always records into the stripe of its id, which spreads hundreds of recording
+ * threads over as many rows as there are processors instead of having them all contend on the
+ * cache line of a hot bucket. Rows and per-stripe maxima are padded to cache lines.
+ * <p>
+ * A {@link #snapshot()} sums the stripes, reading each count with acquire ordering, while
+ * recording goes on. {@link #snapshotAndReset()} swaps every count with zero, so each recorded
+ * value is in exactly one of the successive snapshots, as interval metrics need.
+ */
+public final class ConcurrentHistogram {
+
+    /*
+     * Longs per 64-byte cache line.
+     */
+    private static final int LINE = 8;
+
+    private static final int MAX_STRIPES = 64;
+
+    private final long highestTrackableValue;
+
+    private final int subBucketBits;
+
+    private final int subBucketCount;
+
+    private final int bucketCount;
+
+    private final int rowStride;
+
+    private final int stripeMask;
+
+    private final AtomicLongs counts;
+
+    private final AtomicLongs maxima;
+
+    /**
+     * Creates a histogram tracking values up to 2^62 within 1%.
+     */
+    public ConcurrentHistogram() {
+        this(1L << 62, 7);
+    }
+
+    /**
+     * @param highestTrackableValue - Largest value told apart from the ones above it, from 1
+     *                                to 2^62
+     * @param subBucketBits - Binary digits kept for every value, from 1 to 16
+     */
+    public ConcurrentHistogram(long highestTrackableValue, int subBucketBits) {
+        if (highestTrackableValue < 1 || highestTrackableValue > 1L << 62) {
+            throw new IllegalArgumentException(
+                    "Highest trackable value must be between 1 and 2^62: "
+                            + highestTrackableValue);
+        }
+        if (subBucketBits < 1 || subBucketBits > 16) {
+            throw new IllegalArgumentException(
+                    "Sub-bucket bits must be between 1 and 16: " + subBucketBits);
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.subBucketBits = subBucketBits;
+        this.subBucketCount = 1 << subBucketBits;
+        this.bucketCount = index(highestTrackableValue) + 1;
+        this.rowStride = (bucketCount + LINE - 1) / LINE * LINE;
+
+        int stripes = Integer.highestOneBit(
+                Math.min(MAX_STRIPES, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+        this.stripeMask = stripes - 1;
+        this.counts = new AtomicLongs(stripes * rowStride);
+        this.maxima = new AtomicLongs(stripes * LINE);
+    }
+
+    /**
+     * @param value - Value to count, negative values are counted as 0 and values above the
+     *                highest trackable value in its bucket, the maximum stays exact
+     */
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    /**
+     * @param value - Value to count
+     * @param count - Number of times to count it
+     */
+    public void record(long value, long count) {
+        long bounded = Math.max(value, 0);
+        int stripe = stripe();
+        counts.getAndAdd(stripe * rowStride + index(Math.min(bounded, highestTrackableValue)),
+                count);
+        maxima.accumulateMax(stripe * LINE, bounded);
+    }
+
+    /**
+     * @return - The counts recorded so far, summed over the stripes
+     */
+    public Snapshot snapshot() {
+        long[] merged = new long[bucketCount];
+        long max = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int row = stripe * rowStride;
+            for (int i = 0; i < bucketCount; i++) {
+                merged[i] += counts.getAcquire(row + i);
+            }
+            max = Math.max(max, maxima.getAcquire(stripe * LINE));
+        }
+        return new Snapshot(merged, max);
+    }
+
+    /**
+     * @return - The counts recorded since the previous reset, which are cleared
+     */
+    public Snapshot snapshotAndReset() {
+        long[] merged = new long[bucketCount];
+        long max = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int row = stripe * rowStride;
+            for (int i = 0; i < bucketCount; i++) {
+                if (counts.getPlain(row + i) != 0) {
+                    merged[i] += counts.getAndSet(row + i, 0);
+                }
+            }
+            max = Math.max(max, maxima.getAndSet(stripe * LINE, 0));
+        }
+        return new Snapshot(merged, max);
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & stripeMask;
+    }
+
+    private int index(long value) {
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - subBucketBits;
+        return (shift << subBucketBits) + (int) (value >>> shift);
+    }
+
+    private long highestEquivalentValue(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        int shift = (index >>> subBucketBits) - 1;
+        long top = (index & (subBucketCount - 1)) + subBucketCount;
+        return (top << shift) + (1L << shift) - 1;
+    }
+
+    /**
+     * The counts of a {@link ConcurrentHistogram} at one point in time.
+     */
+    public final class Snapshot {
+
+        private final long[] counts;
+
+        private final long max;
+
+        private final long totalCount;
+
+        Snapshot(long[] counts, long max) {
+            this.counts = counts;
+            this.max = max;
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            this.totalCount = total;
+        }
+
+        public long totalCount() {
+            return totalCount;
+        }
+
+        /**
+         * @return - The largest value recorded, 0 when empty
+         */
+        public long max() {
+            return max;
+        }
+
+        /**
+         * @param percentile - Percentile, from 0 to 100
+         * @return - The highest value of the bucket holding that percentile, no higher than
+         *           the maximum, 0 when empty
+         */
+        public long valueAtPercentile(double percentile) {
+            if (totalCount == 0) {
+                return 0;
+            }
+            double bounded = Math.min(Math.max(percentile, 0), 100);
+            long countAtPercentile = Math.max(1, (long) Math.ceil(bounded / 100 * totalCount));
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                if (cumulative >= countAtPercentile) {
+                    return Math.min(highestEquivalentValue(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
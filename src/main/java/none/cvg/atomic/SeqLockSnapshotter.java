@@ -0,0 +1,152 @@
+package none.cvg.atomic;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * Copies every field of a record guarded by a {@link SeqLock}, as one consistent snapshot.
+ * <p>
+ * The non-final instance fields of the class, up the hierarchy, are resolved once into
+ * VarHandle getters and setters, and folded into a single {@code (Object, Object)void}
+ * MethodHandle copying all of them from a source to a target. {@link #snapshot} runs the copy
+ * between {@link SeqLock#readBegin()} and {@link SeqLock#readValidate(long)} until no write
+ * overlapped it, into a target the reader reuses, so a snapshot allocates nothing.
+ * {@link #publish} runs the same copy inside a write.
+ *
+ * @param <T> - the type of the record
+ */
+public final class SeqLockSnapshotter<T> {
+
+    private static final MethodType COPY_TYPE =
+            MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<T> type;
+
+    private final MethodHandle copy;
+
+    private final int fieldCount;
+
+    private SeqLockSnapshotter(Class<T> type, MethodHandles.Lookup lookup) {
+
+        this.type = type;
+
+        MethodHandle fold = MethodHandles.empty(COPY_TYPE);
+        int count = 0;
+        try {
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                MethodHandles.Lookup declaring = MethodHandles.privateLookupIn(c, lookup);
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)
+                            || field.isSynthetic()) {
+                        continue;
+                    }
+                    VarHandle varHandle = declaring.findVarHandle(c, field.getName(),
+                            field.getType());
+                    MethodHandle getter = varHandle.toMethodHandle(VarHandle.AccessMode.GET)
+                            .asType(MethodType.methodType(field.getType(), Object.class));
+                    MethodHandle setter = varHandle.toMethodHandle(VarHandle.AccessMode.SET)
+                            .asType(MethodType.methodType(void.class, Object.class,
+                                    field.getType()));
+                    fold = MethodHandles.foldArguments(fold,
+                            MethodHandles.filterArguments(setter, 1, getter));
+                    count++;
+                }
+            }
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+        this.copy = fold;
+        this.fieldCount = count;
+    }
+
+    /**
+     * Creates a snapshotter for a class open to this module.
+     *
+     * @param type - Class of the record
+     * @param <T> - the type of the record
+     * @return - A new snapshotter
+     */
+    public static <T> SeqLockSnapshotter<T> of(Class<T> type) {
+        return new SeqLockSnapshotter<>(type, MethodHandles.lookup());
+    }
+
+    /**
+     * Creates a snapshotter using the caller's lookup, for classes that are not open to this
+     * module.
+     *
+     * @param type - Class of the record
+     * @param lookup - Lookup with private access to the class
+     * @param <T> - the type of the record
+     * @return - A new snapshotter
+     */
+    public static <T> SeqLockSnapshotter<T> of(Class<T> type, MethodHandles.Lookup lookup) {
+        return new SeqLockSnapshotter<>(type, lookup);
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * @return - Number of fields copied
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Copies the record into the target, retrying until no write overlapped the copy.
+     *
+     * @param lock - Lock guarding the record
+     * @param record - Record updated by the writer
+     * @param target - Instance owned by the reader, overwritten
+     * @return - The target
+     */
+    public T snapshot(SeqLock lock, T record, T target) {
+        int spins = 0;
+        while (true) {
+            long version = lock.readBegin();
+            copy(record, target);
+            if (lock.readValidate(version)) {
+                return target;
+            }
+            spins = SeqLock.backOff(spins);
+        }
+    }
+
+    /**
+     * Copies new values into the record inside a write. Only the single writer may call it.
+     *
+     * @param lock - Lock guarding the record
+     * @param values - Instance holding the new values
+     * @param record - Record read by the readers
+     */
+    public void publish(SeqLock lock, T values, T record) {
+        lock.beginWrite();
+        try {
+            copy(values, record);
+        } finally {
+            lock.endWrite();
+        }
+    }
+
+    private void copy(T source, T target) {
+        try {
+            copy.invokeExact((Object) target, (Object) source);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package none.cvg.bulk;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+
+/**
+ * Applies a resolved MethodHandle to every receiver of a large array or list, in parallel.
+ * <p>
+ * The handle must take the receiver as its only parameter. Any further arguments are bound
+ * up-front, for instance:
+ * <pre>
+ * MethodHandle printStuff = MethodHandles.insertArguments(
+ *         lookup.findVirtual(DemoClass.class, "printStuff",
+ *                 MethodType.methodType(String.class, String.class)),
+ *         1, "bulk");
+ * BulkInvoker.of(printStuff).invokeAll(receivers, results);
+ * </pre>
+ * The handle is adapted once to {@code (Object)Object} and called with invokeExact for each
+ * receiver. Results are written to the same index of a caller-provided output array.
+ */
+public final class BulkInvoker {
+
+    private static final MethodType ERASED_TYPE =
+            MethodType.methodType(Object.class, Object.class);
+
+    private final MethodHandle handle;
+
+    private final ForkJoinPool pool;
+
+    private final int chunkSize;
+
+    public BulkInvoker(MethodHandle handle, ForkJoinPool pool, int chunkSize) {
+        if (handle.type().parameterCount() != 1) {
+            throw new IllegalArgumentException(
+                    "Handle must take the receiver as its only parameter: " + handle.type());
+        }
+        this.handle = handle.asType(ERASED_TYPE);
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Creates an invoker running on the common pool with the default chunk size.
+     *
+     * @param handle - Handle taking the receiver as its only parameter
+     * @return - A bulk invoker for the handle
+     */
+    public static BulkInvoker of(MethodHandle handle) {
+        return new BulkInvoker(handle, ForkJoinPool.commonPool(),
+                ParallelIndexes.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Invokes the handle on each receiver, writing each result to the matching index.
+     *
+     * @param receivers - Receivers to invoke the handle on
+     * @param results - Preallocated output, at least as long as the receivers
+     * @return - The results array
+     */
+    public Object[] invokeAll(Object[] receivers, Object[] results) {
+        checkCapacity(receivers.length, results);
+        ParallelIndexes.forEach(pool, receivers.length, chunkSize,
+                i -> results[i] = invoke(receivers[i]));
+        return results;
+    }
+
+    /**
+     * Invokes the handle on each receiver, writing each result to the matching index. Lists
+     * without random access are copied into an array first.
+     *
+     * @param receivers - Receivers to invoke the handle on
+     * @param results - Preallocated output, at least as long as the receivers
+     * @return - The results array
+     */
+    public Object[] invokeAll(List<?> receivers, Object[] results) {
+        if (!(receivers instanceof RandomAccess)) {
+            return invokeAll(receivers.toArray(), results);
+        }
+        checkCapacity(receivers.size(), results);
+        ParallelIndexes.forEach(pool, receivers.size(), chunkSize,
+                i -> results[i] = invoke(receivers.get(i)));
+        return results;
+    }
+
+    private Object invoke(Object receiver) {
+        try {
+            return (Object) handle.invokeExact(receiver);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+
+    private static void checkCapacity(int size, Object[] results) {
+        if (results.length < size) {
+            throw new IllegalArgumentException("Results array holds " + results.length
+                    + " elements, but " + size + " are needed");
+        }
+    }
+}
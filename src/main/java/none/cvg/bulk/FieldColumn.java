@@ -0,0 +1,286 @@
+package none.cvg.bulk;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ForkJoinPool;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * Moves one field of many objects into a primitive column, and back again.
+ * <p>
+ * The field is read and written through a VarHandle, adapted once per column type and called
+ * with invokeExact, so no element is boxed. Extraction accepts the widening conversions of
+ * {@code MethodHandle.asType}, so a {@code short} field fills an {@code int[]} column and an
+ * {@code int} field fills a {@code long[]} or {@code double[]} column. Scattering needs a
+ * column whose element type converts to the field type without narrowing. Both directions
+ * run in parallel chunks through {@link ParallelIndexes}.
+ * <pre>
+ * FieldColumn&lt;Trade&gt; notional = FieldColumn.of(Trade.class, "notional");
+ * double[] column = notional.toDoubles(trades, new double[trades.length]);
+ * </pre>
+ *
+ * @param <T> - the type whose field is projected
+ */
+public final class FieldColumn<T> {
+
+    private static final MethodType INT_GETTER =
+            MethodType.methodType(int.class, Object.class);
+
+    private static final MethodType LONG_GETTER =
+            MethodType.methodType(long.class, Object.class);
+
+    private static final MethodType DOUBLE_GETTER =
+            MethodType.methodType(double.class, Object.class);
+
+    private static final MethodType INT_SETTER =
+            MethodType.methodType(void.class, Object.class, int.class);
+
+    private static final MethodType LONG_SETTER =
+            MethodType.methodType(void.class, Object.class, long.class);
+
+    private static final MethodType DOUBLE_SETTER =
+            MethodType.methodType(void.class, Object.class, double.class);
+
+    private final Field field;
+
+    private final MethodHandle getter;
+
+    private final MethodHandle setter;
+
+    private final ForkJoinPool pool;
+
+    private final int chunkSize;
+
+    private FieldColumn(Field field, MethodHandle getter, MethodHandle setter,
+                        ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.field = field;
+        this.getter = getter;
+        this.setter = setter;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Creates a column for a field of a class open to this module, running on the common
+     * pool with the default chunk size.
+     *
+     * @param type - Class declaring the field
+     * @param fieldName - Name of an instance field
+     * @param <T> - the type whose field is projected
+     * @return - A column over the field
+     */
+    public static <T> FieldColumn<T> of(Class<T> type, String fieldName) {
+        return of(type, MethodHandles.lookup(), fieldName);
+    }
+
+    /**
+     * Creates a column using the caller's lookup, running on the common pool with the
+     * default chunk size.
+     *
+     * @param type - Class declaring the field
+     * @param lookup - Lookup with private access to the class
+     * @param fieldName - Name of an instance field
+     * @param <T> - the type whose field is projected
+     * @return - A column over the field
+     */
+    public static <T> FieldColumn<T> of(Class<T> type, MethodHandles.Lookup lookup,
+                                        String fieldName) {
+        try {
+
+            Field field = type.getDeclaredField(fieldName);
+            if (Modifier.isStatic(field.getModifiers())) {
+                throw new IllegalArgumentException(fieldName + " is a static field");
+            }
+            VarHandle handle = MethodHandles.privateLookupIn(type, lookup)
+                    .findVarHandle(type, fieldName, field.getType());
+
+            MethodHandle getter = handle.toMethodHandle(VarHandle.AccessMode.GET);
+            MethodHandle setter = Modifier.isFinal(field.getModifiers())
+                    ? null
+                    : handle.toMethodHandle(VarHandle.AccessMode.SET);
+            return new FieldColumn<>(field, getter, setter, ForkJoinPool.commonPool(),
+                    ParallelIndexes.DEFAULT_CHUNK_SIZE);
+
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param pool - Pool running the chunks
+     * @param chunkSize - Largest number of elements handled sequentially by one task
+     * @return - The same column, running on the given pool
+     */
+    public FieldColumn<T> on(ForkJoinPool pool, int chunkSize) {
+        return new FieldColumn<>(field, getter, setter, pool, chunkSize);
+    }
+
+    public Field field() {
+        return field;
+    }
+
+    /**
+     * Reads the field of every object into the matching index of the column.
+     *
+     * @param objects - Objects to read, none of them null
+     * @param column - Preallocated output, at least as long as the objects
+     * @return - The column
+     */
+    public int[] toInts(T[] objects, int[] column) {
+        checkCapacity(objects.length, column.length);
+        MethodHandle get = adapt(getter, INT_GETTER);
+        ParallelIndexes.forEach(pool, objects.length, chunkSize, i -> {
+            try {
+                column[i] = (int) get.invokeExact((Object) objects[i]);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw invocationFailure(t);
+            }
+        });
+        return column;
+    }
+
+    /**
+     * Reads the field of every object into the matching index of the column.
+     *
+     * @param objects - Objects to read, none of them null
+     * @param column - Preallocated output, at least as long as the objects
+     * @return - The column
+     */
+    public long[] toLongs(T[] objects, long[] column) {
+        checkCapacity(objects.length, column.length);
+        MethodHandle get = adapt(getter, LONG_GETTER);
+        ParallelIndexes.forEach(pool, objects.length, chunkSize, i -> {
+            try {
+                column[i] = (long) get.invokeExact((Object) objects[i]);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw invocationFailure(t);
+            }
+        });
+        return column;
+    }
+
+    /**
+     * Reads the field of every object into the matching index of the column.
+     *
+     * @param objects - Objects to read, none of them null
+     * @param column - Preallocated output, at least as long as the objects
+     * @return - The column
+     */
+    public double[] toDoubles(T[] objects, double[] column) {
+        checkCapacity(objects.length, column.length);
+        MethodHandle get = adapt(getter, DOUBLE_GETTER);
+        ParallelIndexes.forEach(pool, objects.length, chunkSize, i -> {
+            try {
+                column[i] = (double) get.invokeExact((Object) objects[i]);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw invocationFailure(t);
+            }
+        });
+        return column;
+    }
+
+    /**
+     * Writes each value of the column into the field of the object at the same index.
+     *
+     * @param column - Values to write, at least as long as the objects
+     * @param objects - Objects to write, none of them null
+     */
+    public void scatter(int[] column, T[] objects) {
+        checkCapacity(objects.length, column.length);
+        MethodHandle set = adapt(writableSetter(), INT_SETTER);
+        ParallelIndexes.forEach(pool, objects.length, chunkSize, i -> {
+            try {
+                set.invokeExact((Object) objects[i], column[i]);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw invocationFailure(t);
+            }
+        });
+    }
+
+    /**
+     * Writes each value of the column into the field of the object at the same index.
+     *
+     * @param column - Values to write, at least as long as the objects
+     * @param objects - Objects to write, none of them null
+     */
+    public void scatter(long[] column, T[] objects) {
+        checkCapacity(objects.length, column.length);
+        MethodHandle set = adapt(writableSetter(), LONG_SETTER);
+        ParallelIndexes.forEach(pool, objects.length, chunkSize, i -> {
+            try {
+                set.invokeExact((Object) objects[i], column[i]);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw invocationFailure(t);
+            }
+        });
+    }
+
+    /**
+     * Writes each value of the column into the field of the object at the same index.
+     *
+     * @param column - Values to write, at least as long as the objects
+     * @param objects - Objects to write, none of them null
+     */
+    public void scatter(double[] column, T[] objects) {
+        checkCapacity(objects.length, column.length);
+        MethodHandle set = adapt(writableSetter(), DOUBLE_SETTER);
+        ParallelIndexes.forEach(pool, objects.length, chunkSize, i -> {
+            try {
+                set.invokeExact((Object) objects[i], column[i]);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw invocationFailure(t);
+            }
+        });
+    }
+
+    private MethodHandle writableSetter() {
+        if (setter == null) {
+            throw new UnsupportedOperationException(field.getName() + " is a final field");
+        }
+        return setter;
+    }
+
+    private MethodHandle adapt(MethodHandle handle, MethodType type) {
+        try {
+            return handle.asType(type);
+        } catch (WrongMethodTypeException e) {
+            throw new IllegalArgumentException(field.getName() + " of type "
+                    + field.getType().getName() + " does not convert to " + type, e);
+        }
+    }
+
+    private static IllegalStateException invocationFailure(Throwable t) {
+        return new IllegalStateException(
+                HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+    }
+
+    private static void checkCapacity(int size, int columnLength) {
+        if (columnLength < size) {
+            throw new IllegalArgumentException("Column holds " + columnLength
+                    + " elements, but " + size + " are needed");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package none.cvg.bulk;
+
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Visits the indexes {@code [0, size)} on a ForkJoinPool.
+ * <p>
+ * The index range is a sized Spliterator that is split in halves until each piece holds no
+ * more than the chunk size. Each piece is then walked sequentially, so the per-index action
+ * stays a tight loop that the JIT can inline.
+ */
+public final class ParallelIndexes {
+
+    /**
+     * Chunk size used when none is specified.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private ParallelIndexes() {
+    }
+
+    /**
+     * Visits every index in {@code [0, size)} exactly once, in parallel chunks.
+     *
+     * @param pool - Pool running the chunks
+     * @param size - Number of indexes
+     * @param chunkSize - Largest number of indexes visited sequentially by one task
+     * @param action - Action invoked once per index
+     */
+    public static void forEach(ForkJoinPool pool, int size, int chunkSize, IntConsumer action) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        if (size <= chunkSize) {
+            for (int i = 0; i < size; i++) {
+                action.accept(i);
+            }
+            return;
+        }
+        pool.invoke(new ChunkTask(IntStream.range(0, size).spliterator(), chunkSize, action));
+    }
+
+    private static final class ChunkTask extends RecursiveAction {
+
+        private final Spliterator.OfInt indexes;
+
+        private final int chunkSize;
+
+        private final IntConsumer action;
+
+        private ChunkTask next;
+
+        ChunkTask(Spliterator.OfInt indexes, int chunkSize, IntConsumer action) {
+            this.indexes = indexes;
+            this.chunkSize = chunkSize;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            ChunkTask forked = null;
+            Spliterator.OfInt split;
+            while (indexes.estimateSize() > chunkSize && (split = indexes.trySplit()) != null) {
+                ChunkTask task = new ChunkTask(split, chunkSize, action);
+                task.next = forked;
+                forked = task;
+                task.fork();
+            }
+            indexes.forEachRemaining(action);
+            for (ChunkTask task = forked; task != null; task = task.next) {
+                task.join();
+            }
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package none.cvg.bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the bytes of a small class file: a constant pool, fields and methods with
+ * straight-line code.
+ * <p>
+ * This is just enough to generate accessor and holder classes for
+ * {@code Lookup.defineClass} and {@code Lookup.defineHiddenClass}. There are no branches, so
+ * no StackMapTable is emitted, and the class file version is Java 11.
+ */
+public final class ClassFileBuilder {
+
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_PRIVATE = 0x0002;
+    public static final int ACC_STATIC = 0x0008;
+    public static final int ACC_FINAL = 0x0010;
+    public static final int ACC_SUPER = 0x0020;
+    public static final int ACC_SYNTHETIC = 0x1000;
+
+    private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+    private static final int JAVA_11_MAJOR_VERSION = 55;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream constantPool = new ByteArrayOutputStream();
+
+    private final Map<String, Integer> constants = new HashMap<>();
+
+    private int constantCount = 1;
+
+    private final int access;
+
+    private final int thisClass;
+
+    private final int superClass;
+
+    private final List<byte[]> fields = new ArrayList<>();
+
+    private final List<byte[]> methods = new ArrayList<>();
+
+    /**
+     * @param access - Class access flags
+     * @param internalName - Internal name of the class, e.g. none/cvg/DemoClass$$Accessor
+     * @param superInternalName - Internal name of the super class
+     */
+    public ClassFileBuilder(int access, String internalName, String superInternalName) {
+        this.access = access;
+        this.thisClass = classRef(internalName);
+        this.superClass = classRef(superInternalName);
+    }
+
+    /**
+     * @param type - Any class, including primitives and arrays
+     * @return - The JVM type descriptor, e.g. I, [I or Ljava/lang/String;
+     */
+    public static String descriptor(Class<?> type) {
+        return MethodType.methodType(type).toMethodDescriptorString().substring(2);
+    }
+
+    /**
+     * @param type - A class or array class
+     * @return - The internal name used in CONSTANT_Class entries
+     */
+    public static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    public int utf8(String value) {
+        return constant("U" + value, out -> {
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(value);
+        });
+    }
+
+    public int classRef(String internalName) {
+        int name = utf8(internalName);
+        return constant("C" + internalName, out -> {
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(name);
+        });
+    }
+
+    public int string(String value) {
+        int utf8 = utf8(value);
+        return constant("S" + value, out -> {
+            out.writeByte(CONSTANT_STRING);
+            out.writeShort(utf8);
+        });
+    }
+
+    public int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_FIELDREF, owner, name, descriptor);
+    }
+
+    public int methodRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_METHODREF, owner, name, descriptor);
+    }
+
+    public ClassFileBuilder field(int access, String name, String descriptor) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        fields.add(bytes(out -> {
+            out.writeShort(access);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+            out.writeShort(0);
+        }));
+        return this;
+    }
+
+    public ClassFileBuilder method(int access, String name, String descriptor, Code code) {
+        int codeAttribute = utf8("Code");
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        byte[] instructions = code.bytes.toByteArray();
+        methods.add(bytes(out -> {
+            out.writeShort(access);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+            out.writeShort(1);
+            out.writeShort(codeAttribute);
+            out.writeInt(12 + instructions.length);
+            out.writeShort(code.maxStack);
+            out.writeShort(code.maxLocals);
+            out.writeInt(instructions.length);
+            out.write(instructions);
+            out.writeShort(0);
+            out.writeShort(0);
+        }));
+        return this;
+    }
+
+    public byte[] toByteArray() {
+        return bytes(out -> {
+            out.writeInt(CLASS_FILE_MAGIC);
+            out.writeShort(0);
+            out.writeShort(JAVA_11_MAJOR_VERSION);
+            out.writeShort(constantCount);
+            constantPool.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);
+            out.writeShort(fields.size());
+            for (byte[] field : fields) {
+                out.write(field);
+            }
+            out.writeShort(methods.size());
+            for (byte[] method : methods) {
+                out.write(method);
+            }
+            out.writeShort(0);
+        });
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        int ownerIndex = classRef(owner);
+        int nameAndType = nameAndType(name, descriptor);
+        return constant(tag + owner + "." + name + descriptor, out -> {
+            out.writeByte(tag);
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        return constant("N" + name + ":" + descriptor, out -> {
+            out.writeByte(CONSTANT_NAME_AND_TYPE);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+    }
+
+    private int constant(String key, Writer writer) {
+        Integer index = constants.get(key);
+        if (index != null) {
+            return index;
+        }
+        byte[] entry = bytes(writer);
+        constantPool.write(entry, 0, entry.length);
+        constants.put(key, constantCount);
+        return constantCount++;
+    }
+
+    private static byte[] bytes(Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Straight-line bytecode of a single method, with the stack and local sizes it needs.
+     */
+    public static final class Code {
+
+        public static final int GETSTATIC = 0xB2;
+        public static final int PUTSTATIC = 0xB3;
+        public static final int GETFIELD = 0xB4;
+        public static final int INVOKEVIRTUAL = 0xB6;
+        public static final int INVOKESTATIC = 0xB8;
+        public static final int LDC_W = 0x13;
+        public static final int RETURN = 0xB1;
+
+        private static final int ILOAD = 0x15;
+        private static final int LLOAD = 0x16;
+        private static final int FLOAD = 0x17;
+        private static final int DLOAD = 0x18;
+        private static final int ALOAD = 0x19;
+
+        private static final int IRETURN = 0xAC;
+        private static final int LRETURN = 0xAD;
+        private static final int FRETURN = 0xAE;
+        private static final int DRETURN = 0xAF;
+        private static final int ARETURN = 0xB0;
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private final int maxStack;
+
+        private final int maxLocals;
+
+        public Code(int maxStack, int maxLocals) {
+            this.maxStack = maxStack;
+            this.maxLocals = maxLocals;
+        }
+
+        /**
+         * @param type - A parameter or return type
+         * @return - The number of stack/local slots a value of the type takes
+         */
+        public static int slots(Class<?> type) {
+            if (type == void.class) {
+                return 0;
+            }
+            return type == long.class || type == double.class ? 2 : 1;
+        }
+
+        /**
+         * @param type - A method type
+         * @return - The number of local slots taken by all of its parameters
+         */
+        public static int slots(MethodType type) {
+            int slots = 0;
+            for (Class<?> parameter : type.parameterList()) {
+                slots += slots(parameter);
+            }
+            return slots;
+        }
+
+        public Code op(int opcode) {
+            bytes.write(opcode);
+            return this;
+        }
+
+        public Code op(int opcode, int index) {
+            bytes.write(opcode);
+            bytes.write(index >>> 8);
+            bytes.write(index);
+            return this;
+        }
+
+        public Code load(Class<?> type, int slot) {
+            int opcode;
+            if (!type.isPrimitive()) {
+                opcode = ALOAD;
+            } else if (type == long.class) {
+                opcode = LLOAD;
+            } else if (type == float.class) {
+                opcode = FLOAD;
+            } else if (type == double.class) {
+                opcode = DLOAD;
+            } else {
+                opcode = ILOAD;
+            }
+            bytes.write(opcode);
+            bytes.write(slot);
+            return this;
+        }
+
+        /**
+         * Loads every parameter of the method type, starting at the given local slot.
+         *
+         * @param type - A method type
+         * @param firstSlot - Local slot of the first parameter
+         * @return - This code
+         */
+        public Code loadAll(MethodType type, int firstSlot) {
+            int slot = firstSlot;
+            for (Class<?> parameter : type.parameterList()) {
+                load(parameter, slot);
+                slot += slots(parameter);
+            }
+            return this;
+        }
+
+        public Code returnValue(Class<?> type) {
+            if (type == void.class) {
+                return op(RETURN);
+            }
+            if (!type.isPrimitive()) {
+                return op(ARETURN);
+            }
+            if (type == long.class) {
+                return op(LRETURN);
+            }
+            if (type == float.class) {
+                return op(FRETURN);
+            }
+            if (type == double.class) {
+                return op(DRETURN);
+            }
+            return op(IRETURN);
+        }
+    }
+}
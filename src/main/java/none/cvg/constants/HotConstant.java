@@ -0,0 +1,149 @@
+package none.cvg.constants;
+
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.invoke.SwitchPoint;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * A value that is read like a constant and can still be replaced at runtime.
+ * <p>
+ * This is the supported alternative to stripping {@code FINAL} from a {@code static final}
+ * field (see {@code modifyConstantViaReflection}). The value lives in the target of a
+ * {@link MutableCallSite}: a {@link MethodHandles#constant} guarded by a {@link SwitchPoint}.
+ * Reading through {@link #invoker()} held in a {@code static final} field compiles to the
+ * folded constant plus a SwitchPoint dependency that costs nothing while it stays valid.
+ * <p>
+ * {@link #set(Object)} only invalidates the SwitchPoint, which deoptimizes the code that
+ * folded the old value. The next read takes the fallback path, which relinks the call site to
+ * the new constant behind a fresh SwitchPoint. Updates are expected to be rare.
+ *
+ * <pre>
+ * static final HotConstant&lt;Boolean&gt; FLAG = HotConstant.of(boolean.class, false);
+ * static final MethodHandle FLAG_VALUE = FLAG.invoker();
+ * ...
+ * if ((boolean) FLAG_VALUE.invokeExact()) { ... }
+ * </pre>
+ *
+ * @param <T> - the type of the value
+ */
+public final class HotConstant<T> {
+
+    private static final MethodHandle RELINK;
+
+    static {
+        try {
+            RELINK = MethodHandles.lookup().findVirtual(HotConstant.class, "relink",
+                    MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage());
+        }
+    }
+
+    private final Class<T> type;
+
+    private final MutableCallSite callSite;
+
+    private final MethodHandle invoker;
+
+    private final MethodHandle erasedInvoker;
+
+    private final MethodHandle fallback;
+
+    private T value;
+
+    private SwitchPoint switchPoint;
+
+    private boolean frozen;
+
+    private HotConstant(Class<T> type, T value) {
+        this.type = type;
+        this.value = value;
+        this.callSite = new MutableCallSite(MethodType.methodType(type));
+        this.invoker = callSite.dynamicInvoker();
+        this.erasedInvoker = invoker.asType(MethodType.methodType(Object.class));
+        this.fallback = RELINK.bindTo(this).asType(MethodType.methodType(type));
+        relink();
+    }
+
+    /**
+     * @param type - Type of the value; a primitive type gives an unboxed invoker
+     * @param initial - Initial value
+     * @param <T> - the type of the value
+     * @return - A new hot constant
+     */
+    public static <T> HotConstant<T> of(Class<T> type, T initial) {
+        return new HotConstant<>(type, initial);
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * @return - A handle of type {@code ()T} returning the current value. Keep it in a
+     *           {@code static final} field and call it with invokeExact for a folded read.
+     */
+    public MethodHandle invoker() {
+        return invoker;
+    }
+
+    /**
+     * @return - The current value, read through the call site
+     */
+    @SuppressWarnings("unchecked")
+    public T get() {
+        try {
+            return (T) (Object) erasedInvoker.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+
+    /**
+     * Replaces the value. Code that folded the previous value is deoptimized, and the next
+     * read relinks the call site to the new value.
+     *
+     * @param newValue - The new value
+     */
+    public synchronized void set(T newValue) {
+        if (frozen) {
+            throw new IllegalStateException("The constant has been frozen");
+        }
+        if (type.isPrimitive() && newValue == null) {
+            throw new IllegalArgumentException("A primitive constant cannot be null");
+        }
+        value = newValue;
+        SwitchPoint.invalidateAll(new SwitchPoint[]{switchPoint});
+    }
+
+    /**
+     * Stops further updates and returns a permanent call site for the current value, for
+     * callers that link against a {@link java.lang.invoke.CallSite} (e.g. an invokedynamic
+     * bootstrap).
+     *
+     * @return - A ConstantCallSite whose target returns the current value
+     */
+    public synchronized ConstantCallSite freeze() {
+        frozen = true;
+        return new ConstantCallSite(MethodHandles.constant(type, value));
+    }
+
+    private synchronized Object relink() {
+        if (switchPoint == null || switchPoint.hasBeenInvalidated()) {
+            switchPoint = new SwitchPoint();
+            callSite.setTarget(switchPoint.guardWithTest(
+                    MethodHandles.constant(type, value), fallback));
+        }
+        return value;
+    }
+}
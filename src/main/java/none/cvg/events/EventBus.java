@@ -0,0 +1,240 @@
+package none.cvg.events;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * An event bus dispatching through MethodHandles bound to their listeners.
+ * <p>
+ * Listener classes are scanned once for {@link Subscribe} methods, of any access, which are
+ * resolved through {@code privateLookupIn}. Methods that cannot carry the annotation are
+ * subscribed by name. Every subscription becomes a handle bound to its listener, with the
+ * return value dropped. For each concrete event class, the handles of all subscriptions whose
+ * parameter type accepts it are chained with {@code foldArguments} into one
+ * {@code (Object)void} dispatcher, called with invokeExact. A primitive parameter accepts
+ * events of its wrapper class, which are unboxed on dispatch. Subscriptions are copy-on-write:
+ * registering a listener publishes a new set of subscriptions with an empty dispatcher cache,
+ * so posting never takes a lock.
+ */
+public final class EventBus {
+
+    private static final MethodType DISPATCH_TYPE =
+            MethodType.methodType(void.class, Object.class);
+
+    private static final MethodHandle NO_SUBSCRIBERS = MethodHandles.empty(DISPATCH_TYPE);
+
+    private final MethodHandles.Lookup lookup;
+
+    private final Map<Class<?>, List<MethodHandle>> discovered = new ConcurrentHashMap<>();
+
+    private volatile Subscriptions subscriptions =
+            new Subscriptions(Collections.emptyList(), Collections.emptyList());
+
+    /**
+     * Creates a bus for listeners open to this module.
+     */
+    public EventBus() {
+        this(MethodHandles.lookup());
+    }
+
+    /**
+     * Creates a bus using the caller's lookup.
+     *
+     * @param lookup - Lookup with private access to the listener classes
+     */
+    public EventBus(MethodHandles.Lookup lookup) {
+        this.lookup = lookup;
+    }
+
+    /**
+     * Subscribes every {@link Subscribe} method of the listener, including inherited ones.
+     *
+     * @param listener - Listener to subscribe
+     */
+    public void register(Object listener) {
+        // Discovery runs outside the map, so no bin lock is held while methods are resolved
+        List<MethodHandle> handles = discovered.get(listener.getClass());
+        if (handles == null) {
+            handles = discover(listener.getClass());
+            List<MethodHandle> raced = discovered.putIfAbsent(listener.getClass(), handles);
+            if (raced != null) {
+                handles = raced;
+            }
+        }
+        for (MethodHandle handle : handles) {
+            add(handle.type().parameterType(1), handle.bindTo(listener));
+        }
+    }
+
+    /**
+     * Subscribes one method of the listener by name, for methods without the annotation.
+     *
+     * @param listener - Listener to subscribe
+     * @param methodName - Name of a method of the listener's class or a superclass
+     * @param eventType - The single parameter type of the method
+     */
+    public void subscribe(Object listener, String methodName, Class<?> eventType) {
+        MethodType type = MethodType.methodType(void.class, eventType);
+        for (Class<?> c = listener.getClass(); c != null; c = c.getSuperclass()) {
+            try {
+                Method method = c.getDeclaredMethod(methodName, eventType);
+                if (Modifier.isStatic(method.getModifiers())) {
+                    break;
+                }
+                add(eventType, MethodHandles.privateLookupIn(c, lookup)
+                        .unreflect(method)
+                        .bindTo(listener)
+                        .asType(type));
+                return;
+            } catch (NoSuchMethodException e) {
+                // Look further up the hierarchy
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(
+                        HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+            }
+        }
+        throw new IllegalArgumentException(HANDLE_RESOLUTION_FAILURE.getValue() + "No method "
+                + methodName + "(" + eventType.getName() + ") on " + listener.getClass());
+    }
+
+    /**
+     * Calls every subscription accepting the event, in subscription order.
+     *
+     * @param event - Event to post
+     */
+    public void post(Object event) {
+        dispatch(subscriptions.dispatcher(event.getClass()), event);
+    }
+
+    /**
+     * Posts every event in order. The dispatcher is looked up once per run of events of the
+     * same class.
+     *
+     * @param events - Events to post
+     */
+    public void postAll(Object[] events) {
+        Subscriptions current = subscriptions;
+        Class<?> lastType = null;
+        MethodHandle dispatcher = NO_SUBSCRIBERS;
+        for (Object event : events) {
+            if (event.getClass() != lastType) {
+                lastType = event.getClass();
+                dispatcher = current.dispatcher(lastType);
+            }
+            dispatch(dispatcher, event);
+        }
+    }
+
+    /**
+     * Posts every event in order.
+     *
+     * @param events - Events to post
+     */
+    public void postAll(List<?> events) {
+        postAll(events.toArray());
+    }
+
+    private synchronized void add(Class<?> eventType, MethodHandle handle) {
+        List<Class<?>> types = new ArrayList<>(subscriptions.types);
+        List<MethodHandle> handles = new ArrayList<>(subscriptions.handles);
+        types.add(MethodType.methodType(eventType).wrap().returnType());
+        handles.add(handle.asType(DISPATCH_TYPE));
+        subscriptions = new Subscriptions(types, handles);
+    }
+
+    /*
+     * Unbound (L, E)void handles for the annotated methods, skipping overridden ones.
+     */
+    private List<MethodHandle> discover(Class<?> listenerType) {
+        List<MethodHandle> handles = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Class<?> c = listenerType; c != null; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (!method.isAnnotationPresent(Subscribe.class)) {
+                    continue;
+                }
+                if (method.getParameterCount() != 1 || Modifier.isStatic(method.getModifiers())) {
+                    throw new IllegalArgumentException("@Subscribe method " + method
+                            + " must be an instance method with one parameter");
+                }
+                boolean overridable = !Modifier.isPrivate(method.getModifiers());
+                if (overridable && !seen.add(method.getName()
+                        + Arrays.toString(method.getParameterTypes()))) {
+                    continue;
+                }
+                try {
+                    handles.add(MethodHandles.privateLookupIn(c, lookup)
+                            .unreflect(method)
+                            .asType(MethodType.methodType(void.class, listenerType,
+                                    method.getParameterTypes()[0])));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalArgumentException(
+                            HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+                }
+            }
+        }
+        return Collections.unmodifiableList(handles);
+    }
+
+    private static void dispatch(MethodHandle dispatcher, Object event) {
+        try {
+            dispatcher.invokeExact(event);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+
+    private static final class Subscriptions {
+
+        private final List<Class<?>> types;
+
+        private final List<MethodHandle> handles;
+
+        private final Map<Class<?>, MethodHandle> dispatchers = new ConcurrentHashMap<>();
+
+        Subscriptions(List<Class<?>> types, List<MethodHandle> handles) {
+            this.types = types;
+            this.handles = handles;
+        }
+
+        MethodHandle dispatcher(Class<?> eventType) {
+            MethodHandle dispatcher = dispatchers.get(eventType);
+            if (dispatcher == null) {
+                dispatcher = chain(eventType);
+                dispatchers.putIfAbsent(eventType, dispatcher);
+            }
+            return dispatcher;
+        }
+
+        /*
+         * Folding the chain so far into the next handle runs the earlier subscriptions first.
+         */
+        private MethodHandle chain(Class<?> eventType) {
+            MethodHandle chain = null;
+            for (int i = 0; i < types.size(); i++) {
+                if (types.get(i).isAssignableFrom(eventType)) {
+                    MethodHandle handle = handles.get(i);
+                    chain = chain == null ? handle : MethodHandles.foldArguments(handle, chain);
+                }
+            }
+            return chain == null ? NO_SUBSCRIBERS : chain;
+        }
+    }
+}
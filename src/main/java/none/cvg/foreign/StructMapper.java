@@ -0,0 +1,61 @@
+package none.cvg.foreign;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Java 11 baseline of the struct mapper, which needs the Foreign Function and Memory API.
+ * <p>
+ * The working mapper is compiled from src/main/java22 into META-INF/versions/22 and replaces
+ * this class when the multi-release jar runs on a JDK 22+. Its memory-segment methods cannot be
+ * declared here, so this class only keeps the factories, which fail with an error naming the
+ * JDK the caller needs and the one it is running on. {@link #isSupported()} lets callers choose
+ * another path up front.
+ *
+ * @param <T> - the type being mapped
+ */
+public final class StructMapper<T> {
+
+    private static final int REQUIRED_FEATURE = 22;
+
+    private StructMapper() {
+    }
+
+    /**
+     * @return - Whether the Foreign Function and Memory mapper is available on this JDK
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Always fails on this JDK.
+     *
+     * @param type - Class whose primitive fields are mapped
+     * @param <T> - the type being mapped
+     * @return - Never returns
+     * @throws UnsupportedOperationException - naming the required and the running JDK
+     */
+    public static <T> StructMapper<T> of(Class<T> type) {
+        throw requiresJdk22(type);
+    }
+
+    /**
+     * Always fails on this JDK.
+     *
+     * @param type - Class whose primitive fields are mapped
+     * @param lookup - Lookup with private access to the class
+     * @param <T> - the type being mapped
+     * @return - Never returns
+     * @throws UnsupportedOperationException - naming the required and the running JDK
+     */
+    public static <T> StructMapper<T> of(Class<T> type, MethodHandles.Lookup lookup) {
+        throw requiresJdk22(type);
+    }
+
+    private static UnsupportedOperationException requiresJdk22(Class<?> type) {
+        return new UnsupportedOperationException("StructMapper for " + type.getName()
+                + " requires JDK " + REQUIRED_FEATURE
+                + " (Foreign Function and Memory API) and a multi-release jar; running on JDK "
+                + Runtime.version().feature());
+    }
+}
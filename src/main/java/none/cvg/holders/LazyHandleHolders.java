@@ -0,0 +1,253 @@
+package none.cvg.holders;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import none.cvg.bytecode.ClassFileBuilder;
+
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+import static none.cvg.bytecode.ClassFileBuilder.ACC_FINAL;
+import static none.cvg.bytecode.ClassFileBuilder.ACC_PRIVATE;
+import static none.cvg.bytecode.ClassFileBuilder.ACC_STATIC;
+import static none.cvg.bytecode.ClassFileBuilder.ACC_SUPER;
+import static none.cvg.bytecode.ClassFileBuilder.ACC_SYNTHETIC;
+import static none.cvg.bytecode.ClassFileBuilder.Code.GETSTATIC;
+import static none.cvg.bytecode.ClassFileBuilder.Code.INVOKESTATIC;
+import static none.cvg.bytecode.ClassFileBuilder.Code.INVOKEVIRTUAL;
+import static none.cvg.bytecode.ClassFileBuilder.Code.LDC_W;
+import static none.cvg.bytecode.ClassFileBuilder.Code.PUTSTATIC;
+import static none.cvg.bytecode.ClassFileBuilder.Code.RETURN;
+
+/**
+ * Generates a tiny holder class per registered member, so that a handle is resolved lazily
+ * and is still a JIT constant once resolved.
+ * <p>
+ * Only handles read from {@code static final} fields are trusted as constants and inlined.
+ * Resolving them all in a class initializer, however, slows down startup. Each holder
+ * defined here with {@code Lookup.defineClass} has:
+ * <ul>
+ * <li>a {@code private static final MethodHandle HANDLE}, set by its class initializer
+ * through the registered resolver;</li>
+ * <li>a static {@code invoke} method that calls {@code HANDLE.invokeExact} with the
+ * member's (erased) signature.</li>
+ * </ul>
+ * Registration returns a handle on {@code invoke}. Looking it up does not initialize the
+ * holder, so nothing is resolved until the first call. From then on the JIT sees a direct call
+ * to {@code invoke}, whose {@code HANDLE} is a constant.
+ * <p>
+ * If the resolver fails, the holder's initialization fails and every later call throws
+ * {@link NoClassDefFoundError}, like any class whose static initializer failed.
+ * <p>
+ * Holders are defined in this package and are never unloaded. {@link #findVirtual} and
+ * {@link #findStatic} define one holder per member and return the same handle on every later
+ * call. {@link #register} cannot tell two resolvers apart, so each call defines a new holder:
+ * register a member once, e.g. from a static initializer, and keep the handle.
+ */
+public final class LazyHandleHolders {
+
+    private static final String HANDLE_FIELD = "HANDLE";
+
+    private static final String INVOKE_METHOD = "invoke";
+
+    private static final String HANDLE_DESCRIPTOR =
+            ClassFileBuilder.descriptor(MethodHandle.class);
+
+    private static final AtomicInteger HOLDER_COUNT = new AtomicInteger();
+
+    private static final Map<String, PendingHandle> PENDING = new ConcurrentHashMap<>();
+
+    private static final Map<Member, MethodHandle> MEMBERS = new ConcurrentHashMap<>();
+
+    private LazyHandleHolders() {
+    }
+
+    /**
+     * Registers a virtual method, resolved on first call through a private lookup. Later
+     * calls for the same member return the same handle.
+     *
+     * @param owner - Class declaring the method
+     * @param name - Method name
+     * @param type - Method type, without the receiver
+     * @return - A handle of type {@code (owner, parameters...)returnType}
+     */
+    public static MethodHandle findVirtual(Class<?> owner, String name, MethodType type) {
+        MethodType handleType = type.insertParameterTypes(0, owner);
+        return member(new Member(false, owner, name, type), handleType, () -> {
+            try {
+                return MethodHandles.privateLookupIn(owner, MethodHandles.lookup())
+                        .findVirtual(owner, name, type);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalArgumentException(
+                        HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Registers a static method, resolved on first call through a private lookup. Later
+     * calls for the same member return the same handle.
+     *
+     * @param owner - Class declaring the method
+     * @param name - Method name
+     * @param type - Method type
+     * @return - A handle of the same type as the method
+     */
+    public static MethodHandle findStatic(Class<?> owner, String name, MethodType type) {
+        return member(new Member(true, owner, name, type), type, () -> {
+            try {
+                return MethodHandles.privateLookupIn(owner, MethodHandles.lookup())
+                        .findStatic(owner, name, type);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalArgumentException(
+                        HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Generates a new holder for a handle supplied on first call. Every call defines a class
+     * that is never unloaded, so register each member once and keep the handle.
+     *
+     * @param type - Type of the handle the resolver will return
+     * @param resolver - Supplies the handle, once, when the holder is initialized
+     * @return - A handle of the given type, calling through the holder
+     */
+    public static MethodHandle register(MethodType type, Supplier<MethodHandle> resolver) {
+
+        String id = "LazyHandleHolder$" + HOLDER_COUNT.incrementAndGet();
+        MethodType erased = type.erase();
+
+        PENDING.put(id, new PendingHandle(type, resolver));
+
+        try {
+
+            Class<?> holder = MethodHandles.lookup().defineClass(holderClass(id, erased));
+            return MethodHandles.lookup()
+                    .findStatic(holder, INVOKE_METHOD, erased)
+                    .asType(type);
+
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            PENDING.remove(id);
+            throw new IllegalStateException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+    }
+
+    /*
+     * Defining the holder does not run the resolver, so the map's bin lock is only held while
+     * the holder bytes are defined.
+     */
+    private static MethodHandle member(Member member, MethodType type,
+                                       Supplier<MethodHandle> resolver) {
+        return MEMBERS.computeIfAbsent(member, key -> register(type, resolver));
+    }
+
+    /*
+     * Called once from the class initializer of each holder.
+     */
+    static MethodHandle resolve(String id) {
+        PendingHandle pending = PENDING.remove(id);
+        if (pending == null) {
+            throw new IllegalStateException("No pending handle for holder " + id);
+        }
+        MethodHandle handle = pending.resolver.get();
+        if (!handle.type().equals(pending.type)) {
+            throw new IllegalStateException("Resolved handle type " + handle.type()
+                    + " does not match registered type " + pending.type);
+        }
+        return handle.asType(pending.type.erase());
+    }
+
+    private static byte[] holderClass(String id, MethodType erased) {
+
+        String registryName = ClassFileBuilder.internalName(LazyHandleHolders.class);
+        String holderName = registryName.substring(0, registryName.lastIndexOf('/') + 1) + id;
+
+        ClassFileBuilder classFile = new ClassFileBuilder(ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC,
+                holderName, "java/lang/Object");
+
+        classFile.field(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, HANDLE_FIELD, HANDLE_DESCRIPTOR);
+        int handleField = classFile.fieldRef(holderName, HANDLE_FIELD, HANDLE_DESCRIPTOR);
+
+        int resolve = classFile.methodRef(registryName, "resolve",
+                MethodType.methodType(MethodHandle.class, String.class)
+                        .toMethodDescriptorString());
+        classFile.method(ACC_STATIC, "<clinit>", "()V",
+                new ClassFileBuilder.Code(1, 0)
+                        .op(LDC_W, classFile.string(id))
+                        .op(INVOKESTATIC, resolve)
+                        .op(PUTSTATIC, handleField)
+                        .op(RETURN));
+
+        int invokeExact = classFile.methodRef(ClassFileBuilder.internalName(MethodHandle.class),
+                "invokeExact", erased.toMethodDescriptorString());
+        int parameterSlots = ClassFileBuilder.Code.slots(erased);
+        classFile.method(ACC_STATIC, INVOKE_METHOD, erased.toMethodDescriptorString(),
+                new ClassFileBuilder.Code(
+                        Math.max(1 + parameterSlots,
+                                ClassFileBuilder.Code.slots(erased.returnType())),
+                        parameterSlots)
+                        .op(GETSTATIC, handleField)
+                        .loadAll(erased, 0)
+                        .op(INVOKEVIRTUAL, invokeExact)
+                        .returnValue(erased.returnType()));
+
+        return classFile.toByteArray();
+    }
+
+    private static final class Member {
+
+        private final boolean isStatic;
+
+        private final Class<?> owner;
+
+        private final String name;
+
+        private final MethodType type;
+
+        Member(boolean isStatic, Class<?> owner, String name, MethodType type) {
+            this.isStatic = isStatic;
+            this.owner = owner;
+            this.name = name;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Member)) {
+                return false;
+            }
+            Member other = (Member) o;
+            return isStatic == other.isStatic
+                    && owner == other.owner
+                    && name.equals(other.name)
+                    && type.equals(other.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(isStatic, owner, name, type);
+        }
+    }
+
+    private static final class PendingHandle {
+
+        private final MethodType type;
+
+        private final Supplier<MethodHandle> resolver;
+
+        PendingHandle(MethodType type, Supplier<MethodHandle> resolver) {
+            this.type = type;
+            this.resolver = resolver;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package none.cvg.inject;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * A constructor-injection container that compiles every object graph into one MethodHandle.
+ * <p>
+ * For each requested type the container picks a constructor once: the one annotated with
+ * {@link Inject}, else one selected with {@link #constructor(Class, Class[])}, else the only
+ * constructor, else the only public constructor, else the no-argument constructor. It
+ * resolves that constructor with {@code findConstructor} and folds the plan of each parameter
+ * into it, so the plan of a type is a single {@code ()T} handle with the whole graph inlined.
+ * Creating a graph is then one {@code invokeExact}, with no constructor metadata walked per
+ * instance.
+ * <p>
+ * Types are prototypes by default and built anew on each call. A singleton is built once per
+ * implementation class, on first planning, and folded in as a constant into every plan that
+ * resolves to that class, whichever type was requested. Dependency cycles are reported when
+ * planned. Configuration must happen before the first plan; changing it afterwards drops every
+ * plan and every singleton built so far.
+ */
+public final class Container {
+
+    private static final MethodType ERASED_PLAN = MethodType.methodType(Object.class);
+
+    private final MethodHandles.Lookup lookup;
+
+    private final Map<Class<?>, Class<?>> bindings = new HashMap<>();
+
+    private final Map<Class<?>, Class<?>[]> constructors = new HashMap<>();
+
+    private final Set<Class<?>> singletons = new HashSet<>();
+
+    private final Map<Class<?>, Object> instances = new HashMap<>();
+
+    private final Map<Class<?>, Object> singletonInstances = new HashMap<>();
+
+    private final Map<Class<?>, MethodHandle> plans = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, MethodHandle> erasedPlans = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a container for classes open to this module.
+     */
+    public Container() {
+        this(MethodHandles.lookup());
+    }
+
+    /**
+     * Creates a container using the caller's lookup.
+     *
+     * @param lookup - Lookup with private access to the classes being built
+     */
+    public Container(MethodHandles.Lookup lookup) {
+        this.lookup = lookup;
+    }
+
+    /**
+     * Builds the implementation wherever the type is needed.
+     *
+     * @param type - Requested type, usually an interface
+     * @param implementation - Concrete class to build
+     * @param <T> - the requested type
+     * @return - This container
+     */
+    public synchronized <T> Container bind(Class<T> type, Class<? extends T> implementation) {
+        bindings.put(type, implementation);
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Supplies the same instance wherever the type is needed.
+     *
+     * @param type - Requested type
+     * @param instance - Instance to supply
+     * @param <T> - the requested type
+     * @return - This container
+     */
+    public synchronized <T> Container bindInstance(Class<T> type, T instance) {
+        instances.put(type, type.cast(instance));
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Builds the type once and supplies that instance wherever the type is needed.
+     *
+     * @param type - Type to scope as a singleton
+     * @return - This container
+     */
+    public synchronized Container singleton(Class<?> type) {
+        singletons.add(type);
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Selects the constructor used for a class without an {@link Inject} constructor.
+     *
+     * @param type - Class to build
+     * @param parameterTypes - Parameter types of the constructor
+     * @return - This container
+     */
+    public synchronized Container constructor(Class<?> type, Class<?>... parameterTypes) {
+        constructors.put(type, parameterTypes.clone());
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Returns the compiled plan of a type, compiling it on first use.
+     *
+     * @param type - Requested type
+     * @param <T> - the requested type
+     * @return - A handle of type {@code ()T} creating the whole graph
+     */
+    public <T> MethodHandle plan(Class<T> type) {
+        MethodHandle plan = plans.get(type);
+        if (plan != null) {
+            return plan;
+        }
+        synchronized (this) {
+            return compile(type, new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * Creates an instance of the type with its whole graph.
+     *
+     * @param type - Requested type
+     * @param <T> - the requested type
+     * @return - A new instance, or the singleton
+     */
+    public <T> T get(Class<T> type) {
+        MethodHandle erased = erasedPlans.get(type);
+        if (erased == null) {
+            erased = plan(type).asType(ERASED_PLAN);
+            erasedPlans.putIfAbsent(type, erased);
+        }
+        try {
+            return type.cast((Object) erased.invokeExact());
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+
+    /*
+     * Called with the container's monitor held. The path holds the types being planned, in
+     * order, so a type met again on its own path is a cycle.
+     */
+    private MethodHandle compile(Class<?> type, Set<Class<?>> path) {
+        MethodHandle plan = plans.get(type);
+        if (plan != null) {
+            return plan;
+        }
+        if (instances.containsKey(type)) {
+            plan = MethodHandles.constant(type, instances.get(type));
+            plans.put(type, plan);
+            return plan;
+        }
+        if (!path.add(type)) {
+            List<String> cycle = new ArrayList<>();
+            boolean inCycle = false;
+            for (Class<?> planned : path) {
+                inCycle |= planned == type;
+                if (inCycle) {
+                    cycle.add(planned.getSimpleName());
+                }
+            }
+            cycle.add(type.getSimpleName());
+            throw new IllegalStateException("Dependency cycle: " + String.join(" -> ", cycle));
+        }
+
+        Class<?> implementation = bindings.getOrDefault(type, type);
+        if (implementation.isInterface() || implementation.isPrimitive()
+                || Modifier.isAbstract(implementation.getModifiers())) {
+            throw new IllegalArgumentException("No binding for " + type.getName());
+        }
+
+        Class<?>[] parameterTypes = select(implementation).getParameterTypes();
+        try {
+
+            plan = MethodHandles.privateLookupIn(implementation, lookup).findConstructor(
+                    implementation, MethodType.methodType(void.class, parameterTypes));
+
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+
+        // Fold from the last parameter back, so the first one is created first
+        for (int i = parameterTypes.length - 1; i >= 0; i--) {
+            plan = MethodHandles.foldArguments(plan, i, compile(parameterTypes[i], path));
+        }
+        plan = plan.asType(MethodType.methodType(type));
+
+        if (singletons.contains(type) || singletons.contains(implementation)) {
+            Object instance = singletonInstances.get(implementation);
+            if (instance == null) {
+                instance = instantiate(plan);
+                singletonInstances.put(implementation, instance);
+            }
+            plan = MethodHandles.constant(type, instance);
+        }
+
+        path.remove(type);
+        plans.put(type, plan);
+        return plan;
+    }
+
+    private void invalidate() {
+        plans.clear();
+        erasedPlans.clear();
+        singletonInstances.clear();
+    }
+
+    private Constructor<?> select(Class<?> type) {
+        Constructor<?>[] declared = type.getDeclaredConstructors();
+        Constructor<?> annotated = null;
+        for (Constructor<?> constructor : declared) {
+            if (constructor.isAnnotationPresent(Inject.class)) {
+                if (annotated != null) {
+                    throw new IllegalArgumentException(
+                            type.getName() + " has more than one @Inject constructor");
+                }
+                annotated = constructor;
+            }
+        }
+        if (annotated != null) {
+            return annotated;
+        }
+        try {
+            Class<?>[] selected = constructors.get(type);
+            if (selected != null) {
+                return type.getDeclaredConstructor(selected);
+            }
+            if (declared.length == 1) {
+                return declared[0];
+            }
+            Constructor<?>[] publicConstructors = type.getConstructors();
+            if (publicConstructors.length == 1) {
+                return publicConstructors[0];
+            }
+            return type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+    }
+
+    private static Object instantiate(MethodHandle plan) {
+        try {
+            return (Object) plan.asType(ERASED_PLAN).invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+}
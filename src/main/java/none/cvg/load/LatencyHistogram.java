@@ -0,0 +1,210 @@
+package none.cvg.load;
+
+import java.util.Arrays;
+
+/**
+ * A log-linear histogram of latencies in nanoseconds, laid out as an HdrHistogram.
+ * <p>
+ * Values are grouped in buckets covering successive powers of two. Each bucket is split into
+ * the same number of linear sub-buckets, enough to keep the requested number of significant
+ * decimal digits. Recording is a few shifts and an array increment, without allocation, so it
+ * can sit in the measurement loop. Values above the highest trackable value are counted in the
+ * last sub-bucket, the exact maximum is kept apart.
+ * <p>
+ * Not thread-safe: record from one thread, or {@link #add(LatencyHistogram)} per-thread
+ * histograms together.
+ */
+public final class LatencyHistogram {
+
+    private final long highestTrackableValue;
+
+    private final int significantDigits;
+
+    private final int subBucketHalfCountMagnitude;
+
+    private final int subBucketHalfCount;
+
+    private final long subBucketMask;
+
+    private final long[] counts;
+
+    private long totalCount;
+
+    private long min = Long.MAX_VALUE;
+
+    private long max;
+
+    private double sum;
+
+    /**
+     * Creates a histogram tracking up to one minute with three significant digits.
+     */
+    public LatencyHistogram() {
+        this(60_000_000_000L, 3);
+    }
+
+    /**
+     * @param highestTrackableValue - Largest value told apart from the ones above it, at least 2
+     * @param significantDigits - Decimal digits kept for every value, from 1 to 5
+     */
+    public LatencyHistogram(long highestTrackableValue, int significantDigits) {
+        if (highestTrackableValue < 2) {
+            throw new IllegalArgumentException(
+                    "Highest trackable value must be at least 2: " + highestTrackableValue);
+        }
+        if (significantDigits < 1 || significantDigits > 5) {
+            throw new IllegalArgumentException(
+                    "Significant digits must be between 1 and 5: " + significantDigits);
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.significantDigits = significantDigits;
+
+        long largestValueWithSingleUnitResolution = 2 * (long) Math.pow(10, significantDigits);
+        int subBucketCountMagnitude = 64 - Long.numberOfLeadingZeros(
+                largestValueWithSingleUnitResolution - 1);
+        int subBucketCount = 1 << subBucketCountMagnitude;
+        this.subBucketHalfCountMagnitude = subBucketCountMagnitude - 1;
+        this.subBucketHalfCount = subBucketCount / 2;
+        this.subBucketMask = subBucketCount - 1;
+
+        long smallestUntrackableValue = subBucketCount;
+        int bucketCount = 1;
+        while (smallestUntrackableValue <= highestTrackableValue) {
+            if (smallestUntrackableValue > Long.MAX_VALUE / 2) {
+                bucketCount++;
+                break;
+            }
+            smallestUntrackableValue <<= 1;
+            bucketCount++;
+        }
+        this.counts = new long[(bucketCount + 1) * subBucketHalfCount];
+    }
+
+    /**
+     * @param value - Latency in nanoseconds, negative values are counted as 0
+     */
+    public void record(long value) {
+        long bounded = Math.max(value, 0);
+        counts[countsIndex(Math.min(bounded, highestTrackableValue))]++;
+        totalCount++;
+        min = Math.min(min, bounded);
+        max = Math.max(max, bounded);
+        sum += bounded;
+    }
+
+    /**
+     * Records a latency measured by a caller that waits for each response before sending the
+     * next request. Such a caller stops issuing requests while one is stalled, and so omits the
+     * requests that would have waited behind it. Those are added back, as HdrHistogram does:
+     * one value per expected interval, from {@code value - expectedInterval} down to the
+     * interval.
+     *
+     * @param value - Latency in nanoseconds
+     * @param expectedInterval - Nanoseconds expected between two requests, 0 to not correct
+     */
+    public void recordCorrected(long value, long expectedInterval) {
+        record(value);
+        if (expectedInterval <= 0) {
+            return;
+        }
+        for (long missing = value - expectedInterval; missing >= expectedInterval;
+             missing -= expectedInterval) {
+            record(missing);
+        }
+    }
+
+    /**
+     * Adds every value of another histogram with the same layout to this one.
+     *
+     * @param other - Histogram created with the same arguments
+     */
+    public void add(LatencyHistogram other) {
+        if (other.highestTrackableValue != highestTrackableValue
+                || other.significantDigits != significantDigits) {
+            throw new IllegalArgumentException("Histograms of different layouts cannot be added");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sum += other.sum;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+        sum = 0;
+    }
+
+    /**
+     * @param percentile - Percentile, from 0 to 100
+     * @return - The highest value equivalent to the recorded value at that percentile, no higher
+     *           than the maximum, 0 when empty
+     */
+    public long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double bounded = Math.min(Math.max(percentile, 0), 100);
+        long countAtPercentile = Math.max(1, (long) Math.ceil(bounded / 100 * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= countAtPercentile) {
+                return Math.min(highestEquivalentValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long totalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return - The exact smallest value recorded, 0 when empty
+     */
+    public long min() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    /**
+     * @return - The exact largest value recorded, 0 when empty
+     */
+    public long max() {
+        return max;
+    }
+
+    /**
+     * @return - The exact mean of the values recorded, NaN when empty
+     */
+    public double mean() {
+        return totalCount == 0 ? Double.NaN : sum / totalCount;
+    }
+
+    private int countsIndex(long value) {
+        int bucketIndex = bucketIndex(value);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << subBucketHalfCountMagnitude)
+                + (subBucketIndex - subBucketHalfCount);
+    }
+
+    private int bucketIndex(long value) {
+        int pow2Ceiling = 64 - Long.numberOfLeadingZeros(value | subBucketMask);
+        return pow2Ceiling - (subBucketHalfCountMagnitude + 1);
+    }
+
+    private long highestEquivalentValue(int index) {
+        int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+        long subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+        if (bucketIndex < 0) {
+            subBucketIndex -= subBucketHalfCount;
+            bucketIndex = 0;
+        }
+        return (subBucketIndex << bucketIndex) + (1L << bucketIndex) - 1;
+    }
+}
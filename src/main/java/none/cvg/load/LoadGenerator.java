@@ -0,0 +1,357 @@
+package none.cvg.load;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import none.cvg.DemoClass;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+import static none.cvg.ErrorMessages.REFLECTION_FAILURE;
+import static none.cvg.ErrorMessages.UNSAFE_FAILURE;
+
+/**
+ * Calls {@code DemoClass} at a fixed rate with a mix of access techniques, and records the
+ * latency of every call per technique.
+ * <p>
+ * The load is open loop: call {@code i} is due at {@code start + i / rate}, whether or not the
+ * previous calls are done. Its response time is measured from that due time, not from when it
+ * actually started. A stall, such as a deoptimization or the inflation of a reflective
+ * accessor, then shows in the latency of every call that was due during the stall, as a client
+ * at that rate would see it, instead of in a single sample. This is the correction for
+ * coordinated omission. The service time, from actual start to end, is recorded as well.
+ * <p>
+ * Calls are made from the calling thread. Techniques are interleaved by smooth weighted
+ * round-robin, so a mix of {@code reflection=1, invokeExact=3} calls reflection every fourth
+ * call rather than in bursts.
+ * <pre>
+ * java -cp target/classes none.cvg.load.LoadGenerator 20000 30 reflection=1,invokeExact=1
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    /*
+     * Waits shorter than this are spun, longer ones are parked for the difference.
+     */
+    private static final long SPIN_NANOS = 50_000;
+
+    private static final String INPUT = "load";
+
+    private final int callsPerSecond;
+
+    private final Technique[] techniques;
+
+    private final int[] weights;
+
+    private final int[] currentWeights;
+
+    private final int totalWeight;
+
+    private final DemoClass target = new DemoClass("load");
+
+    private Method method;
+
+    private MethodHandle handle;
+
+    private Object sink;
+
+    /**
+     * @param callsPerSecond - Target rate, from 1 to one billion
+     * @param mix - Relative weight of each technique, techniques absent or of weight 0 are not
+     *              called
+     */
+    public LoadGenerator(int callsPerSecond, Map<Technique, Integer> mix) {
+        if (callsPerSecond < 1 || callsPerSecond > 1_000_000_000) {
+            throw new IllegalArgumentException(
+                    "Rate must be between 1 and 1e9 calls per second: " + callsPerSecond);
+        }
+        EnumMap<Technique, Integer> weighted = new EnumMap<>(Technique.class);
+        mix.forEach((technique, weight) -> {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + technique);
+            }
+            if (weight > 0) {
+                weighted.put(technique, weight);
+            }
+        });
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no technique");
+        }
+        this.callsPerSecond = callsPerSecond;
+        this.techniques = weighted.keySet().toArray(new Technique[0]);
+        this.weights = new int[techniques.length];
+        this.currentWeights = new int[techniques.length];
+        int total = 0;
+        for (int i = 0; i < techniques.length; i++) {
+            weights[i] = weighted.get(techniques[i]);
+            total += weights[i];
+        }
+        this.totalWeight = total;
+
+        for (Technique technique : techniques) {
+            prepare(technique);
+        }
+    }
+
+    /**
+     * @param callsPerSecond - Target rate
+     * @param techniques - Techniques called equally often
+     * @return - A generator of that rate and mix
+     */
+    public static LoadGenerator of(int callsPerSecond, Technique... techniques) {
+        Map<Technique, Integer> mix = new EnumMap<>(Technique.class);
+        for (Technique technique : techniques) {
+            mix.put(technique, 1);
+        }
+        return new LoadGenerator(callsPerSecond, mix);
+    }
+
+    /**
+     * Parses a mix such as {@code reflection=1,invokeExact=3}. A technique without weight has
+     * weight 1.
+     *
+     * @param mix - Comma separated techniques, by label
+     * @return - The weight of each technique
+     */
+    public static Map<Technique, Integer> parseMix(String mix) {
+        Map<Technique, Integer> weights = new EnumMap<>(Technique.class);
+        for (String entry : mix.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int equals = trimmed.indexOf('=');
+            if (equals < 0) {
+                weights.put(Technique.fromLabel(trimmed), 1);
+            } else {
+                weights.put(Technique.fromLabel(trimmed.substring(0, equals).trim()),
+                        Integer.parseInt(trimmed.substring(equals + 1).trim()));
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Runs the load for a warm-up period, whose latencies are dropped, then for the measured
+     * period.
+     *
+     * @param warmUp - Time run before measuring, may be zero
+     * @param duration - Time measured
+     * @return - The latencies of the measured period
+     */
+    public LoadReport run(Duration warmUp, Duration duration) {
+        Map<Technique, LatencyHistogram> responseTimes = histograms();
+        Map<Technique, LatencyHistogram> serviceTimes = histograms();
+        if (!warmUp.isZero()) {
+            run(warmUp.toNanos(), responseTimes, serviceTimes);
+            responseTimes.values().forEach(LatencyHistogram::reset);
+            serviceTimes.values().forEach(LatencyHistogram::reset);
+        }
+        long elapsed = run(duration.toNanos(), responseTimes, serviceTimes);
+        return new LoadReport(callsPerSecond, Duration.ofNanos(elapsed), responseTimes,
+                serviceTimes);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: LoadGenerator <calls-per-second> <seconds> "
+                    + "[reflection=1,unsafe=1,invoke=1,invokeExact=1] [warm-up-seconds]");
+            System.exit(2);
+        }
+        Map<Technique, Integer> mix = args.length > 2
+                ? parseMix(args[2])
+                : parseMix("reflection,unsafe,invoke,invokeExact");
+        Duration warmUp = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 5);
+        LoadReport report = new LoadGenerator(Integer.parseInt(args[0]), mix)
+                .run(warmUp, Duration.ofSeconds(Long.parseLong(args[1])));
+        System.out.print(report.toMarkdown());
+    }
+
+    private long run(long durationNanos, Map<Technique, LatencyHistogram> responseTimes,
+                     Map<Technique, LatencyHistogram> serviceTimes) {
+        LatencyHistogram[] response = new LatencyHistogram[techniques.length];
+        LatencyHistogram[] service = new LatencyHistogram[techniques.length];
+        for (int i = 0; i < techniques.length; i++) {
+            response[i] = responseTimes.get(techniques[i]);
+            service[i] = serviceTimes.get(techniques[i]);
+        }
+
+        double interval = 1e9 / callsPerSecond;
+        long calls = Math.max(1, (long) (durationNanos / interval));
+        long start = System.nanoTime();
+        long end = start;
+        for (long call = 0; call < calls; call++) {
+            long due = start + (long) (call * interval);
+            waitUntil(due);
+            int next = next();
+            long before = System.nanoTime();
+            call(techniques[next]);
+            end = System.nanoTime();
+            response[next].record(end - due);
+            service[next].record(end - before);
+        }
+        return end - start;
+    }
+
+    /*
+     * Smooth weighted round-robin: every technique gains its weight, the one with the highest
+     * current weight is picked and loses the total weight.
+     */
+    private int next() {
+        int best = 0;
+        for (int i = 0; i < currentWeights.length; i++) {
+            currentWeights[i] += weights[i];
+            if (currentWeights[i] > currentWeights[best]) {
+                best = i;
+            }
+        }
+        currentWeights[best] -= totalWeight;
+        return best;
+    }
+
+    private static void waitUntil(long due) {
+        long remaining;
+        while ((remaining = due - System.nanoTime()) > 0) {
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void call(Technique technique) {
+        switch (technique) {
+            case REFLECTION:
+                try {
+                    sink = method.invoke(target, INPUT);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(REFLECTION_FAILURE.getValue() + e.getMessage(),
+                            e);
+                }
+                break;
+            case UNSAFE:
+                try {
+                    sink = (Object) UnsafeName.GET_OBJECT.invokeExact((Object) target,
+                            UnsafeName.OFFSET);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IllegalStateException(
+                            HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+                }
+                break;
+            case INVOKE:
+                try {
+                    sink = handle.invoke(target, INPUT);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IllegalStateException(
+                            HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+                }
+                break;
+            case INVOKE_EXACT:
+                try {
+                    sink = (String) handle.invokeExact(target, INPUT);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IllegalStateException(
+                            HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported technique: " + technique);
+        }
+    }
+
+    private void prepare(Technique technique) {
+        switch (technique) {
+            case REFLECTION:
+                try {
+                    method = DemoClass.class.getDeclaredMethod("privateMethod", String.class);
+                    method.setAccessible(true);
+                } catch (NoSuchMethodException e) {
+                    throw new IllegalStateException(REFLECTION_FAILURE.getValue() + e.getMessage(),
+                            e);
+                }
+                break;
+            case UNSAFE:
+                try {
+                    UnsafeName.resolve();
+                } catch (LinkageError e) {
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    throw new IllegalStateException(
+                            UNSAFE_FAILURE.getValue() + cause.getMessage(), cause);
+                }
+                break;
+            case INVOKE:
+            case INVOKE_EXACT:
+                if (handle == null) {
+                    try {
+                        handle = MethodHandles.privateLookupIn(DemoClass.class,
+                                MethodHandles.lookup()).findVirtual(DemoClass.class,
+                                "privateMethod", MethodType.methodType(String.class, String.class));
+                    } catch (NoSuchMethodException | IllegalAccessException e) {
+                        throw new IllegalArgumentException(
+                                HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported technique: " + technique);
+        }
+    }
+
+    private Map<Technique, LatencyHistogram> histograms() {
+        Map<Technique, LatencyHistogram> histograms = new EnumMap<>(Technique.class);
+        for (Technique technique : techniques) {
+            histograms.put(technique, new LatencyHistogram());
+        }
+        return histograms;
+    }
+
+    /*
+     * sun.misc.Unsafe is only named at run time, so the main build has no proprietary API
+     * warnings. Its getObject is bound to the instance in a static final handle, which the JIT
+     * folds into a direct call, so the technique still measures a plain Unsafe read.
+     */
+    private static final class UnsafeName {
+
+        static final MethodHandle GET_OBJECT;
+
+        static final long OFFSET;
+
+        static {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                Object unsafe = theUnsafe.get(null);
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                OFFSET = (long) lookup.findVirtual(unsafeClass, "objectFieldOffset",
+                        MethodType.methodType(long.class, Field.class))
+                        .invoke(unsafe, DemoClass.class.getDeclaredField("name"));
+                GET_OBJECT = lookup.findVirtual(unsafeClass, "getObject",
+                        MethodType.methodType(Object.class, Object.class, long.class))
+                        .bindTo(unsafe);
+            } catch (Throwable t) {
+                throw new ExceptionInInitializerError(t);
+            }
+        }
+
+        /*
+         * Initializes the holder, so a JDK without Unsafe fails before the run.
+         */
+        static void resolve() {
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package none.cvg.load;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The latencies of one {@link LoadGenerator} run, per technique.
+ */
+public final class LoadReport {
+
+    private final int callsPerSecond;
+
+    private final Duration elapsed;
+
+    private final Map<Technique, LatencyHistogram> responseTimes;
+
+    private final Map<Technique, LatencyHistogram> serviceTimes;
+
+    LoadReport(int callsPerSecond, Duration elapsed,
+               Map<Technique, LatencyHistogram> responseTimes,
+               Map<Technique, LatencyHistogram> serviceTimes) {
+        this.callsPerSecond = callsPerSecond;
+        this.elapsed = elapsed;
+        this.responseTimes = Collections.unmodifiableMap(responseTimes);
+        this.serviceTimes = Collections.unmodifiableMap(serviceTimes);
+    }
+
+    public int callsPerSecond() {
+        return callsPerSecond;
+    }
+
+    /**
+     * @return - Time from the first due call to the end of the last call
+     */
+    public Duration elapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return - Calls made per second, lower than the target rate when the caller fell behind
+     */
+    public double achievedCallsPerSecond() {
+        long calls = 0;
+        for (LatencyHistogram histogram : responseTimes.values()) {
+            calls += histogram.totalCount();
+        }
+        return calls * 1e9 / Math.max(1, elapsed.toNanos());
+    }
+
+    /**
+     * @return - Latency from due time to end, corrected for coordinated omission, per technique
+     */
+    public Map<Technique, LatencyHistogram> responseTimes() {
+        return responseTimes;
+    }
+
+    /**
+     * @return - Latency from actual start to end, per technique
+     */
+    public Map<Technique, LatencyHistogram> serviceTimes() {
+        return serviceTimes;
+    }
+
+    /**
+     * One row per technique, with the response time percentiles and the service time p99.9,
+     * in microseconds.
+     *
+     * @return - A markdown table
+     */
+    public String toMarkdown() {
+        StringBuilder table = new StringBuilder()
+                .append(String.format(Locale.ROOT, "Target %d calls/s, achieved %.0f calls/s%n%n",
+                        callsPerSecond, achievedCallsPerSecond()))
+                .append("| Technique | Calls | p50 (us) | p99 (us) | p99.9 (us) | Max (us) "
+                        + "| Service p99.9 (us) |\n")
+                .append("|---|---:|---:|---:|---:|---:|---:|\n");
+        responseTimes.forEach((technique, response) -> table
+                .append("| ").append(technique.label())
+                .append(" | ").append(response.totalCount())
+                .append(" | ").append(micros(response.valueAtPercentile(50)))
+                .append(" | ").append(micros(response.valueAtPercentile(99)))
+                .append(" | ").append(micros(response.valueAtPercentile(99.9)))
+                .append(" | ").append(micros(response.max()))
+                .append(" | ").append(micros(serviceTimes.get(technique).valueAtPercentile(99.9)))
+                .append(" |\n"));
+        return table.toString();
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e3);
+    }
+}
@@ -0,0 +1,55 @@
+package none.cvg.load;
+
+/**
+ * The ways the {@link LoadGenerator} reaches into {@code DemoClass}, mirroring the approaches
+ * the kata compares.
+ */
+public enum Technique {
+
+    /**
+     * {@code Method.invoke} on the private method, made accessible once.
+     */
+    REFLECTION("reflection"),
+
+    /**
+     * {@code Unsafe.getObject} of the private {@code name} field at its offset. Unsafe has no
+     * way to call a method, so this path measures the field read a method call would make.
+     */
+    UNSAFE("unsafe"),
+
+    /**
+     * {@code MethodHandle.invoke} on the private method, found with a private lookup.
+     */
+    INVOKE("invoke"),
+
+    /**
+     * {@code MethodHandle.invokeExact} on the same handle.
+     */
+    INVOKE_EXACT("invokeExact");
+
+    private final String label;
+
+    Technique(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return - The name used in mixes and reports, as in the benchmark method names
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * @param label - A label, such as {@code invokeExact}
+     * @return - The technique of that label
+     */
+    public static Technique fromLabel(String label) {
+        for (Technique technique : values()) {
+            if (technique.label.equals(label)) {
+                return technique;
+            }
+        }
+        throw new IllegalArgumentException("Unknown technique: " + label);
+    }
+}
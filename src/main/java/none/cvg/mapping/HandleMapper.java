@@ -0,0 +1,296 @@
+package none.cvg.mapping;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * Converts objects to and from a {@code Map<String, Object>} keyed by field name.
+ * <p>
+ * The instance fields of a class are resolved once into VarHandles (turned into
+ * getter/setter MethodHandles of an erased type). Every conversion afterwards is a walk over
+ * these precompiled handles, with no reflective lookup per call. The no-arg constructor is
+ * only resolved when {@link #fromMap(Map)} first needs a new instance, so classes without one
+ * can still be read into maps and populated in place.
+ * <p>
+ * Fields are keyed by their plain name. A superclass field hidden by a subclass field of the
+ * same name is skipped, so each key maps the field the subclass sees.
+ * <p>
+ * Final fields are read into maps, but are left untouched when populating an object, since
+ * VarHandles do not allow writes to final fields.
+ *
+ * @param <T> - the type being mapped
+ */
+public final class HandleMapper<T> {
+
+    private static final ClassValue<HandleMapper<?>> MAPPERS = new ClassValue<>() {
+        @Override
+        protected HandleMapper<?> computeValue(Class<?> type) {
+            try {
+                return new HandleMapper<>(type,
+                        MethodHandles.privateLookupIn(type, MethodHandles.lookup()));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(
+                        HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+            }
+        }
+    };
+
+    private final Class<T> type;
+
+    private final String[] names;
+
+    private final MethodHandle[] getters;
+
+    private final MethodHandle[] setters;
+
+    private final boolean[] primitives;
+
+    private final MethodHandles.Lookup lookup;
+
+    /*
+     * Resolved on first use; racing threads resolve the same handle.
+     */
+    private MethodHandle constructor;
+
+    private HandleMapper(Class<T> type, MethodHandles.Lookup lookup) {
+
+        this.type = type;
+        this.lookup = lookup;
+
+        List<Field> fields = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()
+                        && seen.add(field.getName())) {
+                    fields.add(field);
+                }
+            }
+        }
+
+        this.names = new String[fields.size()];
+        this.getters = new MethodHandle[fields.size()];
+        this.setters = new MethodHandle[fields.size()];
+        this.primitives = new boolean[fields.size()];
+
+        MethodType getterType = MethodType.methodType(Object.class, Object.class);
+        MethodType setterType = MethodType.methodType(void.class, Object.class, Object.class);
+
+        try {
+
+            for (int i = 0; i < fields.size(); i++) {
+                Field field = fields.get(i);
+                VarHandle varHandle = MethodHandles
+                        .privateLookupIn(field.getDeclaringClass(), lookup)
+                        .findVarHandle(field.getDeclaringClass(), field.getName(),
+                                field.getType());
+
+                names[i] = field.getName();
+                primitives[i] = field.getType().isPrimitive();
+                getters[i] = varHandle
+                        .toMethodHandle(VarHandle.AccessMode.GET)
+                        .asType(getterType);
+                if (varHandle.isAccessModeSupported(VarHandle.AccessMode.SET)) {
+                    setters[i] = varHandle
+                            .toMethodHandle(VarHandle.AccessMode.SET)
+                            .asType(setterType);
+                }
+            }
+
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the cached mapper for a class in a module that is open to this one.
+     *
+     * @param type - Class to map
+     * @param <T> - the type being mapped
+     * @return - A mapper shared by all callers for this class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> HandleMapper<T> of(Class<T> type) {
+        return (HandleMapper<T>) MAPPERS.get(type);
+    }
+
+    /**
+     * Creates an uncached mapper using the caller's lookup, for classes that are not open to
+     * this module.
+     *
+     * @param type - Class to map
+     * @param lookup - Lookup with private access to the class
+     * @param <T> - the type being mapped
+     * @return - A new mapper for this class
+     */
+    public static <T> HandleMapper<T> of(Class<T> type, MethodHandles.Lookup lookup) {
+        return new HandleMapper<>(type, lookup);
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * Copies all instance fields of the source into a new map.
+     *
+     * @param source - Object to read
+     * @return - A map of field name to field value, in declaration order
+     */
+    public Map<String, Object> toMap(T source) {
+        return toMap(source, new LinkedHashMap<>(names.length * 2));
+    }
+
+    /**
+     * Copies all instance fields of the source into an existing map, after clearing it.
+     *
+     * @param source - Object to read
+     * @param target - Map to reuse
+     * @return - The target map
+     */
+    public Map<String, Object> toMap(T source, Map<String, Object> target) {
+        target.clear();
+        try {
+            for (int i = 0; i < names.length; i++) {
+                target.put(names[i], (Object) getters[i].invokeExact((Object) source));
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+        return target;
+    }
+
+    /**
+     * Creates a new instance with the no-arg constructor and populates it from the map.
+     *
+     * @param source - Map of field name to field value
+     * @return - A new populated instance
+     * @throws IllegalStateException - if the class has no accessible no-arg constructor
+     */
+    public T fromMap(Map<String, ?> source) {
+        return fromMap(source, newInstance());
+    }
+
+    /**
+     * Populates an existing instance from the map. Fields without a key in the map keep their
+     * current value, as do primitive fields mapped to {@code null}.
+     *
+     * @param source - Map of field name to field value
+     * @param target - Object to reuse
+     * @return - The target object
+     */
+    public T fromMap(Map<String, ?> source, T target) {
+        try {
+            for (int i = 0; i < names.length; i++) {
+                if (setters[i] == null || !source.containsKey(names[i])) {
+                    continue;
+                }
+                Object value = source.get(names[i]);
+                if (value == null && primitives[i]) {
+                    continue;
+                }
+                setters[i].invokeExact((Object) target, value);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+        return target;
+    }
+
+    /**
+     * Converts a batch of objects, reusing the maps already present in the target list. Maps
+     * are appended when the target is shorter than the sources, and surplus maps are removed.
+     *
+     * @param sources - Objects to read
+     * @param targets - Maps to reuse, in place
+     * @return - The target list
+     */
+    public List<Map<String, Object>> toMaps(List<? extends T> sources,
+                                            List<Map<String, Object>> targets) {
+        int size = sources.size();
+        for (int i = 0; i < size; i++) {
+            if (i < targets.size()) {
+                toMap(sources.get(i), targets.get(i));
+            } else {
+                targets.add(toMap(sources.get(i)));
+            }
+        }
+        trim(targets, size);
+        return targets;
+    }
+
+    /**
+     * Populates a batch of objects, reusing the instances already present in the target list.
+     * Instances are appended when the target is shorter than the sources, and surplus instances
+     * are removed.
+     *
+     * @param sources - Maps to read
+     * @param targets - Objects to reuse, in place
+     * @return - The target list
+     */
+    public List<T> fromMaps(List<? extends Map<String, ?>> sources, List<T> targets) {
+        int size = sources.size();
+        for (int i = 0; i < size; i++) {
+            if (i < targets.size()) {
+                fromMap(sources.get(i), targets.get(i));
+            } else {
+                targets.add(fromMap(sources.get(i)));
+            }
+        }
+        trim(targets, size);
+        return targets;
+    }
+
+    private T newInstance() {
+        try {
+            return type.cast((Object) constructor().invokeExact());
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+
+    private MethodHandle constructor() {
+        MethodHandle handle = constructor;
+        if (handle == null) {
+            try {
+                handle = lookup
+                        .findConstructor(type, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(Object.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException(
+                        HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+            }
+            constructor = handle;
+        }
+        return handle;
+    }
+
+    private static void trim(List<?> list, int size) {
+        if (list.size() > size) {
+            list.subList(size, list.size()).clear();
+        }
+    }
+}
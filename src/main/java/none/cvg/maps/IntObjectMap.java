@@ -0,0 +1,523 @@
+package none.cvg.maps;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.IntFunction;
+
+/**
+ * A lock-free hash map from {@code int} keys to objects, with open addressing over parallel
+ * {@code int[]} and {@code Object[]} arrays.
+ * <p>
+ * Keys are never boxed and no node is allocated per entry. A key claims a slot with a
+ * compare-and-set of the array element VarHandle from 0 to the key, and keeps it for the life
+ * of the table; values are then swapped in and out of the slot by compare-and-set. A removed
+ * value leaves a tombstone. Key 0, which marks a free slot, is held apart.
+ * <p>
+ * When a table fills up, a table of twice the capacity, or of the same capacity when most
+ * slots hold tombstones, is chained to it, and every thread that writes helps to copy a chunk
+ * of slots. A slot is copied by freezing its value in a wrapper, copying the value to the new
+ * table unless a newer one is already there, and then marking the slot as moved. A writer that
+ * meets a frozen or moved slot finishes its copy and retries in the new table, so no write is
+ * lost and no thread waits for another. Readers never help: a frozen value is still the current
+ * one, and a moved slot sends them to the new table. The map switches to the new table once
+ * all the slots are copied. This is the scheme of Cliff Click's non-blocking hash map.
+ *
+ * @param <V> - Type of the values
+ */
+public final class IntObjectMap<V> {
+
+    /**
+     * Receives the entries of {@link #forEach(EntryConsumer)}.
+     *
+     * @param <V> - Type of the values
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private static final VarHandle TABLE;
+
+    private static final VarHandle SIZE;
+
+    private static final VarHandle NEXT;
+
+    private static final VarHandle CLAIMED;
+
+    private static final VarHandle COPY_INDEX;
+
+    private static final VarHandle COPY_DONE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TABLE = lookup.findVarHandle(IntObjectMap.class, "table", Table.class);
+            SIZE = lookup.findVarHandle(IntObjectMap.class, "size", int.class);
+            NEXT = lookup.findVarHandle(Table.class, "next", Table.class);
+            CLAIMED = lookup.findVarHandle(Table.class, "claimed", int.class);
+            COPY_INDEX = lookup.findVarHandle(Table.class, "copyIndex", int.class);
+            COPY_DONE = lookup.findVarHandle(Table.class, "copyDone", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final Object TOMBSTONE = new Object();
+
+    private static final Object MOVED = new Object();
+
+    /*
+     * Matches any current value.
+     */
+    private static final Object ANY = new Object();
+
+    /*
+     * Matches no value or a tombstone.
+     */
+    private static final Object ABSENT = new Object();
+
+    private static final int MIN_CAPACITY = 16;
+
+    private static final int COPY_CHUNK = 64;
+
+    private volatile Table table;
+
+    private volatile int size;
+
+    private final Object[] zeroKey = new Object[1];
+
+    public IntObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize - Number of entries held without resizing
+     */
+    public IntObjectMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative: "
+                    + expectedSize);
+        }
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    /**
+     * @param key - Key
+     * @return - The value of the key, null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == 0) {
+            return (V) VALUES.getAcquire(zeroKey, 0);
+        }
+        Table t = table;
+        while (t != null) {
+            int mask = t.keys.length - 1;
+            int index = hash(key) & mask;
+            for (int probes = 0; probes < t.reprobeLimit; probes++) {
+                int k = (int) KEYS.getAcquire(t.keys, index);
+                if (k == 0) {
+                    return null;
+                }
+                if (k == key) {
+                    Object value = VALUES.getAcquire(t.values, index);
+                    if (value == MOVED) {
+                        break;
+                    }
+                    return (V) unwrap(value);
+                }
+                index = (index + 1) & mask;
+            }
+            t = t.next;
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @param key - Key
+     * @param value - Value, not null
+     * @return - The previous value of the key, null if absent
+     */
+    public V put(int key, V value) {
+        return putIfMatch(key, checkValue(value), ANY);
+    }
+
+    /**
+     * @param key - Key
+     * @param value - Value, not null
+     * @return - The current value of the key, null if the value was put
+     */
+    public V putIfAbsent(int key, V value) {
+        return putIfMatch(key, checkValue(value), ABSENT);
+    }
+
+    /**
+     * @param key - Key
+     * @return - The removed value, null if absent
+     */
+    public V remove(int key) {
+        return putIfMatch(key, TOMBSTONE, ANY);
+    }
+
+    /**
+     * Returns the value of a key, computing and putting it first if absent. The function may
+     * be called by several threads racing on the same key; the first value put wins and is
+     * returned to all of them.
+     *
+     * @param key - Key
+     * @param function - Function computing a non-null value from the key
+     * @return - The current value of the key
+     */
+    public V computeIfAbsent(int key, IntFunction<? extends V> function) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        V computed = function.apply(key);
+        V raced = putIfAbsent(key, computed);
+        return raced != null ? raced : computed;
+    }
+
+    /**
+     * @return - The number of entries, exact when no write is in progress
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Visits every entry present for the whole iteration once, and possibly entries added or
+     * removed during it.
+     * <p>
+     * A key that found no free slot within the reprobe limit lives only in a table chained to
+     * the current one, so the chained tables are walked too. A key is visited in the first
+     * table holding a slot for it, and through the chain from there when that slot has moved.
+     *
+     * @param consumer - Receives each key and value
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        Object zero = VALUES.getAcquire(zeroKey, 0);
+        if (zero != null) {
+            consumer.accept(0, (V) zero);
+        }
+        Table head = table;
+        for (Table t = head; t != null; t = t.next) {
+            for (int index = 0; index < t.keys.length; index++) {
+                int key = (int) KEYS.getAcquire(t.keys, index);
+                if (key == 0 || claimedBefore(head, t, key)) {
+                    continue;
+                }
+                Object value = VALUES.getAcquire(t.values, index);
+                if (value == MOVED) {
+                    value = get(key);
+                }
+                value = unwrap(value);
+                if (value != null) {
+                    consumer.accept(key, (V) value);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V putIfMatch(int key, Object value, Object match) {
+        if (key == 0) {
+            return (V) putZeroKey(value, match);
+        }
+        Object previous = putIfMatch(table, key, value, match, false);
+        return previous == TOMBSTONE ? null : (V) previous;
+    }
+
+    private Object putZeroKey(Object value, Object match) {
+        Object stored = value == TOMBSTONE ? null : value;
+        Object current = VALUES.getAcquire(zeroKey, 0);
+        while (true) {
+            if (match == ABSENT && current != null) {
+                return current;
+            }
+            if (current == stored) {
+                return current;
+            }
+            Object witness = VALUES.compareAndExchange(zeroKey, 0, current, stored);
+            if (witness == current) {
+                countChange(current, value);
+                return current;
+            }
+            current = witness;
+        }
+    }
+
+    /*
+     * Sets the value of a key in a table, or in the tables chained to it, when the current
+     * value matches: ANY, ABSENT, or null alone when copying. Returns the value replaced, or
+     * the current value when it did not match.
+     */
+    private Object putIfMatch(Table t, int key, Object value, Object match, boolean copying) {
+        while (true) {
+            int mask = t.keys.length - 1;
+            int index = hash(key) & mask;
+            int probes = 0;
+            boolean claimed = false;
+            while (true) {
+                int k = (int) KEYS.getAcquire(t.keys, index);
+                if (k == 0) {
+                    if (value == TOMBSTONE) {
+                        return null;
+                    }
+                    k = (int) KEYS.compareAndExchange(t.keys, index, 0, key);
+                    if (k == 0) {
+                        claimed = true;
+                        break;
+                    }
+                }
+                if (k == key) {
+                    break;
+                }
+                if (++probes >= t.reprobeLimit) {
+                    index = -1;
+                    break;
+                }
+                index = (index + 1) & mask;
+            }
+
+            if (index < 0) {
+                if (value == TOMBSTONE) {
+                    Table next = t.next;
+                    if (next == null) {
+                        return null;
+                    }
+                    t = next;
+                } else {
+                    t = resize(t, true);
+                }
+                continue;
+            }
+
+            Table next = t.next;
+            if (next == null && claimed
+                    && (int) CLAIMED.getAndAdd(t, 1) + 1 >= t.keys.length * 3 / 4) {
+                next = resize(t, false);
+            }
+            if (next != null) {
+                copySlot(t, index);
+                helpCopy(t);
+                t = next;
+                continue;
+            }
+
+            Object current = VALUES.getAcquire(t.values, index);
+            while (true) {
+                if (current == MOVED || current instanceof Frozen) {
+                    break;
+                }
+                if (!matches(match, current)) {
+                    return current;
+                }
+                if (value == TOMBSTONE && (current == null || current == TOMBSTONE)) {
+                    return current;
+                }
+                Object witness = VALUES.compareAndExchange(t.values, index, current, value);
+                if (witness == current) {
+                    if (!copying) {
+                        countChange(current, value);
+                    }
+                    return current;
+                }
+                current = witness;
+            }
+            copySlot(t, index);
+            t = t.next;
+        }
+    }
+
+    private static boolean matches(Object match, Object current) {
+        if (match == ANY) {
+            return true;
+        }
+        if (match == ABSENT) {
+            return current == null || current == TOMBSTONE;
+        }
+        return current == match;
+    }
+
+    private void countChange(Object previous, Object value) {
+        boolean wasPresent = previous != null && previous != TOMBSTONE;
+        boolean isPresent = value != null && value != TOMBSTONE;
+        if (wasPresent != isPresent) {
+            SIZE.getAndAdd(this, isPresent ? 1 : -1);
+        }
+    }
+
+    /*
+     * Chains a larger table, or one of the same capacity to drop tombstones, unless another
+     * thread already did. A key that found no slot within the reprobe limit always grows it.
+     */
+    private Table resize(Table t, boolean grow) {
+        Table next = t.next;
+        if (next != null) {
+            return next;
+        }
+        int capacity = t.keys.length;
+        int newCapacity = grow || size * 4 >= capacity ? capacity * 2 : capacity;
+        Table created = new Table(newCapacity);
+        Table witness = (Table) NEXT.compareAndExchange(t, null, created);
+        return witness == null ? created : witness;
+    }
+
+    private void helpCopy(Table t) {
+        int start = (int) COPY_INDEX.getAndAdd(t, COPY_CHUNK);
+        int end = Math.min(start + COPY_CHUNK, t.keys.length);
+        for (int index = start; index < end; index++) {
+            copySlot(t, index);
+        }
+    }
+
+    /*
+     * Freezes the value of a slot, copies it to the next table, and marks the slot as moved.
+     * Safe to run concurrently; the thread marking the slot counts it.
+     */
+    private void copySlot(Table t, int index) {
+        Object current = VALUES.getAcquire(t.values, index);
+        while (current != MOVED) {
+            if (current == null || current == TOMBSTONE) {
+                Object witness = VALUES.compareAndExchange(t.values, index, current, MOVED);
+                if (witness == current) {
+                    slotCopied(t);
+                    return;
+                }
+                current = witness;
+                continue;
+            }
+            Frozen frozen;
+            if (current instanceof Frozen) {
+                frozen = (Frozen) current;
+            } else {
+                frozen = new Frozen(current);
+                Object witness = VALUES.compareAndExchange(t.values, index, current, frozen);
+                if (witness != current) {
+                    current = witness;
+                    continue;
+                }
+            }
+            int key = (int) KEYS.getAcquire(t.keys, index);
+            putIfMatch(t.next, key, frozen.value, null, true);
+            Object witness = VALUES.compareAndExchange(t.values, index, frozen, MOVED);
+            if (witness == frozen) {
+                slotCopied(t);
+                return;
+            }
+            current = witness;
+        }
+    }
+
+    private void slotCopied(Table t) {
+        if ((int) COPY_DONE.getAndAdd(t, 1) + 1 == t.keys.length) {
+            promote(t);
+        }
+    }
+
+    /*
+     * Replaces the table of the map with the next one once every slot is copied, following
+     * the chain when the next table was copied in turn.
+     */
+    private void promote(Table t) {
+        while (t.next != null && t.copyDone == t.keys.length
+                && TABLE.compareAndSet(this, t, t.next)) {
+            t = t.next;
+        }
+    }
+
+    private static Object unwrap(Object value) {
+        if (value instanceof Frozen) {
+            return ((Frozen) value).value;
+        }
+        return value == TOMBSTONE ? null : value;
+    }
+
+    private static Object checkValue(Object value) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported");
+        }
+        return value;
+    }
+
+    /*
+     * Whether a table from head up to, and not including, t has a slot for the key. Slots are
+     * never released, so such a key was visited with that table.
+     */
+    private static boolean claimedBefore(Table head, Table t, int key) {
+        for (Table earlier = head; earlier != t; earlier = earlier.next) {
+            int mask = earlier.keys.length - 1;
+            int index = hash(key) & mask;
+            for (int probes = 0; probes < earlier.reprobeLimit; probes++) {
+                int k = (int) KEYS.getAcquire(earlier.keys, index);
+                if (k == 0) {
+                    break;
+                }
+                if (k == key) {
+                    return true;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+        return false;
+    }
+
+    static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int capacityFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) expectedSize * 4 / 3 + 1);
+        if (needed > 1 << 30) {
+            throw new IllegalArgumentException("Expected size too large: " + expectedSize);
+        }
+        return (int) Long.highestOneBit(needed * 2 - 1);
+    }
+
+    private static final class Frozen {
+
+        private final Object value;
+
+        Frozen(Object value) {
+            this.value = value;
+        }
+    }
+
+    private static final class Table {
+
+        private final int[] keys;
+
+        private final Object[] values;
+
+        private final int reprobeLimit;
+
+        private volatile Table next;
+
+        private volatile int claimed;
+
+        private volatile int copyIndex;
+
+        private volatile int copyDone;
+
+        Table(int capacity) {
+            this.keys = new int[capacity];
+            this.values = new Object[capacity];
+            this.reprobeLimit = 10 + (capacity >>> 4);
+        }
+    }
+}
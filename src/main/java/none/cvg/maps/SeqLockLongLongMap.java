@@ -0,0 +1,604 @@
+package none.cvg.maps;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A concurrent hash map from {@code long} keys to {@code long} values, with open addressing
+ * over parallel {@code long[]} arrays. Reads never block, but writes take a per-slot lock, so
+ * unlike {@link IntObjectMap} it is not lock-free.
+ * <p>
+ * Keys claim slots as in {@link IntObjectMap}, with a compare-and-set of the array element
+ * VarHandle from 0 to the key. A {@code long} value has no bit pattern to spare for the
+ * tombstone and frozen markers that {@link IntObjectMap} keeps in its value slots, so every slot
+ * also has a state in an {@code int[]}: a present bit, a write bit, a frozen bit, a moved bit
+ * and a version. A writer sets the write bit by compare-and-set, updates the value, and releases
+ * the state with the next version. Readers read the value between two reads of the state, as a
+ * seqlock, and retry when it changed, so they never write shared memory.
+ * <p>
+ * The write bit is a spin lock, held for the few instructions of an update, and writers of the
+ * same key wait for each other; a writer preempted while holding it stalls them and the readers
+ * of that key until it runs again. Writers of different keys never meet. A lock-free slot would
+ * have to change the value and its state with one compare-and-set, which takes a wider atomic
+ * than a {@code long}, or box the value while it is copied, as {@link IntObjectMap} does.
+ * <p>
+ * A full table is replaced as in {@link IntObjectMap}: the new table is chained to it and the
+ * writers copy chunks of slots. A slot is frozen first, by taking its write bit and releasing
+ * it with the frozen bit, after which no writer changes it and readers still read its value.
+ * Its value is then copied to the new table with no write bit held in the old one, and the slot
+ * is marked as moved, which sends the readers and writers that meet it on to the new table. A
+ * writer that meets a frozen slot finishes its copy first.
+ */
+public final class SeqLockLongLongMap {
+
+    /**
+     * Receives the entries of {@link #forEach(EntryConsumer)}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final VarHandle STATES = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private static final VarHandle TABLE;
+
+    private static final VarHandle SIZE;
+
+    private static final VarHandle NEXT;
+
+    private static final VarHandle CLAIMED;
+
+    private static final VarHandle COPY_INDEX;
+
+    private static final VarHandle COPY_DONE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TABLE = lookup.findVarHandle(SeqLockLongLongMap.class, "table", Table.class);
+            SIZE = lookup.findVarHandle(SeqLockLongLongMap.class, "size", int.class);
+            NEXT = lookup.findVarHandle(Table.class, "next", Table.class);
+            CLAIMED = lookup.findVarHandle(Table.class, "claimed", int.class);
+            COPY_INDEX = lookup.findVarHandle(Table.class, "copyIndex", int.class);
+            COPY_DONE = lookup.findVarHandle(Table.class, "copyDone", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final int WRITING = 1;
+
+    private static final int PRESENT = 2;
+
+    private static final int MOVED = 4;
+
+    private static final int FROZEN = 8;
+
+    private static final int VERSION = 16;
+
+    private static final int PUT = 0;
+
+    private static final int PUT_IF_ABSENT = 1;
+
+    private static final int REMOVE = 2;
+
+    private static final int ADD = 3;
+
+    /*
+     * Puts a value copied from the previous table, unless the slot was ever written.
+     */
+    private static final int COPY = 4;
+
+    private static final int NOT_FOUND = -1;
+
+    private static final int NEXT_TABLE = -2;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private static final int COPY_CHUNK = 64;
+
+    private final long missingValue;
+
+    private volatile Table table;
+
+    private volatile int size;
+
+    private final long[] zeroKeyValue = new long[1];
+
+    private final int[] zeroKeyState = new int[1];
+
+    /**
+     * Creates a map returning 0 for absent keys.
+     */
+    public SeqLockLongLongMap() {
+        this(MIN_CAPACITY, 0);
+    }
+
+    /**
+     * @param expectedSize - Number of entries held without resizing
+     * @param missingValue - Value returned for absent keys
+     */
+    public SeqLockLongLongMap(int expectedSize, long missingValue) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative: "
+                    + expectedSize);
+        }
+        this.missingValue = missingValue;
+        this.table = new Table(IntObjectMap.capacityFor(expectedSize));
+    }
+
+    public long missingValue() {
+        return missingValue;
+    }
+
+    /**
+     * @param key - Key
+     * @return - The value of the key, the missing value if absent
+     */
+    public long get(long key) {
+        return getOrDefault(key, missingValue);
+    }
+
+    /**
+     * @param key - Key
+     * @param defaultValue - Value returned if the key is absent
+     * @return - The value of the key, {@code defaultValue} if absent
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        if (key == 0) {
+            return read(zeroKeyValue, zeroKeyState, 0, defaultValue);
+        }
+        Table t = table;
+        while (t != null) {
+            int index = find(t, key);
+            if (index == NOT_FOUND) {
+                return defaultValue;
+            }
+            if (index != NEXT_TABLE) {
+                int spins = 0;
+                while (true) {
+                    int state = (int) STATES.getAcquire(t.states, index);
+                    if ((state & MOVED) != 0) {
+                        break;
+                    }
+                    if ((state & WRITING) == 0) {
+                        long value = (long) VALUES.getOpaque(t.values, index);
+                        VarHandle.acquireFence();
+                        if ((int) STATES.getOpaque(t.states, index) == state) {
+                            return (state & PRESENT) != 0 ? value : defaultValue;
+                        }
+                    }
+                    spins = backOff(spins);
+                }
+            }
+            t = t.next;
+        }
+        return defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        return containsKey(table, key);
+    }
+
+    /**
+     * @param key - Key
+     * @param value - Value
+     * @return - The previous value of the key, the missing value if absent
+     */
+    public long put(long key, long value) {
+        return update(key, PUT, value);
+    }
+
+    /**
+     * @param key - Key
+     * @param value - Value
+     * @return - The current value of the key, the missing value if the value was put
+     */
+    public long putIfAbsent(long key, long value) {
+        return update(key, PUT_IF_ABSENT, value);
+    }
+
+    /**
+     * @param key - Key
+     * @return - The removed value, the missing value if absent
+     */
+    public long remove(long key) {
+        return update(key, REMOVE, 0);
+    }
+
+    /**
+     * Adds to the value of a key, an absent key counting as 0.
+     *
+     * @param key - Key
+     * @param delta - Amount added
+     * @return - The new value
+     */
+    public long addAndGet(long key, long delta) {
+        return update(key, ADD, delta);
+    }
+
+    /**
+     * @return - The number of entries, exact when no write is in progress
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Visits every entry present for the whole iteration once, and possibly entries added or
+     * removed during it. Tables chained to the current one are walked as in
+     * {@link IntObjectMap#forEach(IntObjectMap.EntryConsumer)}.
+     *
+     * @param consumer - Receives each key and value
+     */
+    public void forEach(EntryConsumer consumer) {
+        long[] value = new long[1];
+        if (readInto(zeroKeyValue, zeroKeyState, 0, value) == PRESENT) {
+            consumer.accept(0, value[0]);
+        }
+        Table head = table;
+        for (Table t = head; t != null; t = t.next) {
+            for (int index = 0; index < t.keys.length; index++) {
+                long key = (long) KEYS.getAcquire(t.keys, index);
+                if (key == 0 || claimedBefore(head, t, key)) {
+                    continue;
+                }
+                int found = readInto(t.values, t.states, index, value);
+                if (found == MOVED) {
+                    found = lookup(t.next, key, value);
+                }
+                if (found == PRESENT) {
+                    consumer.accept(key, value[0]);
+                }
+            }
+        }
+    }
+
+    private long update(long key, int op, long operand) {
+        if (key == 0) {
+            int state = lock(zeroKeyState, 0);
+            return apply(zeroKeyValue, zeroKeyState, 0, state, op, operand);
+        }
+        return update(table, key, op, operand);
+    }
+
+    private long update(Table t, long key, int op, long operand) {
+        while (true) {
+            int mask = t.keys.length - 1;
+            int index = hash(key) & mask;
+            int probes = 0;
+            boolean claimed = false;
+            while (true) {
+                long k = (long) KEYS.getAcquire(t.keys, index);
+                if (k == 0) {
+                    if (op == REMOVE) {
+                        return missingValue;
+                    }
+                    k = (long) KEYS.compareAndExchange(t.keys, index, 0L, key);
+                    if (k == 0) {
+                        claimed = true;
+                        break;
+                    }
+                }
+                if (k == key) {
+                    break;
+                }
+                if (++probes >= t.reprobeLimit) {
+                    index = -1;
+                    break;
+                }
+                index = (index + 1) & mask;
+            }
+
+            if (index < 0) {
+                if (op == REMOVE) {
+                    Table next = t.next;
+                    if (next == null) {
+                        return missingValue;
+                    }
+                    t = next;
+                } else {
+                    t = resize(t, true);
+                }
+                continue;
+            }
+
+            Table next = t.next;
+            if (next == null && claimed
+                    && (int) CLAIMED.getAndAdd(t, 1) + 1 >= t.keys.length * 3 / 4) {
+                next = resize(t, false);
+            }
+            if (next != null) {
+                copySlot(t, index);
+                helpCopy(t);
+                t = next;
+                continue;
+            }
+
+            int state = lock(t.states, index);
+            if ((state & (FROZEN | MOVED)) == 0) {
+                return apply(t.values, t.states, index, state, op, operand);
+            }
+            copySlot(t, index);
+            t = t.next;
+        }
+    }
+
+    /*
+     * Sets the write bit of a slot, waiting while another writer holds it. Returns the state
+     * before, or, without taking the write bit, a state with the frozen or moved bit once the
+     * slot is being copied.
+     */
+    private static int lock(int[] states, int index) {
+        int spins = 0;
+        while (true) {
+            int state = (int) STATES.getAcquire(states, index);
+            if ((state & (FROZEN | MOVED)) != 0) {
+                return state;
+            }
+            if ((state & WRITING) == 0
+                    && STATES.weakCompareAndSetAcquire(states, index, state, state | WRITING)) {
+                return state;
+            }
+            spins = backOff(spins);
+        }
+    }
+
+    /*
+     * Runs an update on a slot whose write bit is held, then releases it.
+     */
+    private long apply(long[] values, int[] states, int index, int state, int op, long operand) {
+        boolean present = (state & PRESENT) != 0;
+        long current = present ? (long) VALUES.getOpaque(values, index) : missingValue;
+        long result;
+        long value;
+        boolean nowPresent;
+        switch (op) {
+            case PUT:
+                value = operand;
+                nowPresent = true;
+                result = current;
+                break;
+            case PUT_IF_ABSENT:
+                if (present) {
+                    STATES.setRelease(states, index, state);
+                    return current;
+                }
+                value = operand;
+                nowPresent = true;
+                result = missingValue;
+                break;
+            case REMOVE:
+                if (!present) {
+                    STATES.setRelease(states, index, state);
+                    return missingValue;
+                }
+                value = current;
+                nowPresent = false;
+                result = current;
+                break;
+            case ADD:
+                value = (present ? current : 0) + operand;
+                nowPresent = true;
+                result = value;
+                break;
+            case COPY:
+                if (state != 0) {
+                    STATES.setRelease(states, index, state);
+                    return current;
+                }
+                VALUES.setOpaque(values, index, operand);
+                STATES.setRelease(states, index, VERSION | PRESENT);
+                return missingValue;
+            default:
+                throw new IllegalArgumentException("Unknown update: " + op);
+        }
+        VALUES.setOpaque(values, index, value);
+        STATES.setRelease(states, index, (state + VERSION) & -VERSION | (nowPresent ? PRESENT : 0));
+        if (present != nowPresent) {
+            SIZE.getAndAdd(this, nowPresent ? 1 : -1);
+        }
+        return result;
+    }
+
+    /*
+     * Reads a slot that is never moved, as a seqlock.
+     */
+    private static long read(long[] values, int[] states, int index, long defaultValue) {
+        int spins = 0;
+        while (true) {
+            int state = (int) STATES.getAcquire(states, index);
+            if ((state & WRITING) == 0) {
+                long value = (long) VALUES.getOpaque(values, index);
+                VarHandle.acquireFence();
+                if ((int) STATES.getOpaque(states, index) == state) {
+                    return (state & PRESENT) != 0 ? value : defaultValue;
+                }
+            }
+            spins = backOff(spins);
+        }
+    }
+
+    /*
+     * Reads a slot as a seqlock into value[0], unless value is null. Returns PRESENT, MOVED or
+     * 0 when absent.
+     */
+    private static int readInto(long[] values, int[] states, int index, long[] value) {
+        int spins = 0;
+        while (true) {
+            int state = (int) STATES.getAcquire(states, index);
+            if ((state & MOVED) != 0) {
+                return MOVED;
+            }
+            if ((state & WRITING) == 0) {
+                long read = (long) VALUES.getOpaque(values, index);
+                VarHandle.acquireFence();
+                if ((int) STATES.getOpaque(states, index) == state) {
+                    if (value != null) {
+                        value[0] = read;
+                    }
+                    return state & PRESENT;
+                }
+            }
+            spins = backOff(spins);
+        }
+    }
+
+    private static int lookup(Table t, long key, long[] value) {
+        while (t != null) {
+            int index = find(t, key);
+            if (index == NOT_FOUND) {
+                return 0;
+            }
+            if (index != NEXT_TABLE) {
+                int found = readInto(t.values, t.states, index, value);
+                if (found != MOVED) {
+                    return found;
+                }
+            }
+            t = t.next;
+        }
+        return 0;
+    }
+
+    private boolean containsKey(Table t, long key) {
+        if (key == 0) {
+            return readInto(zeroKeyValue, zeroKeyState, 0, null) == PRESENT;
+        }
+        return lookup(t, key, null) == PRESENT;
+    }
+
+    /*
+     * Returns the slot of a key, NOT_FOUND when it is absent from the table and the tables
+     * chained to it, or NEXT_TABLE when the reprobe limit was reached.
+     */
+    private static int find(Table t, long key) {
+        int mask = t.keys.length - 1;
+        int index = hash(key) & mask;
+        for (int probes = 0; probes < t.reprobeLimit; probes++) {
+            long k = (long) KEYS.getAcquire(t.keys, index);
+            if (k == 0) {
+                return NOT_FOUND;
+            }
+            if (k == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return NEXT_TABLE;
+    }
+
+    private Table resize(Table t, boolean grow) {
+        Table next = t.next;
+        if (next != null) {
+            return next;
+        }
+        int capacity = t.keys.length;
+        int newCapacity = grow || size * 4 >= capacity ? capacity * 2 : capacity;
+        Table created = new Table(newCapacity);
+        Table witness = (Table) NEXT.compareAndExchange(t, null, created);
+        return witness == null ? created : witness;
+    }
+
+    private void helpCopy(Table t) {
+        int start = (int) COPY_INDEX.getAndAdd(t, COPY_CHUNK);
+        int end = Math.min(start + COPY_CHUNK, t.keys.length);
+        for (int index = start; index < end; index++) {
+            copySlot(t, index);
+        }
+    }
+
+    /*
+     * Freezes a slot, copies its value to the next table, then marks it as moved. The copy runs
+     * with no write bit held here, so it never waits on this table. Racing copiers copy the
+     * same frozen value, which only the first one puts, and the one marking the slot as moved
+     * counts it.
+     */
+    private void copySlot(Table t, int index) {
+        int state = lock(t.states, index);
+        if ((state & MOVED) != 0) {
+            return;
+        }
+        if ((state & FROZEN) == 0) {
+            state |= FROZEN;
+            STATES.setRelease(t.states, index, state);
+        }
+        if ((state & PRESENT) != 0) {
+            long key = (long) KEYS.getAcquire(t.keys, index);
+            long value = (long) VALUES.getOpaque(t.values, index);
+            update(t.next, key, COPY, value);
+        }
+        if (STATES.compareAndSet(t.states, index, state, MOVED)
+                && (int) COPY_DONE.getAndAdd(t, 1) + 1 == t.keys.length) {
+            promote(t);
+        }
+    }
+
+    private void promote(Table t) {
+        while (t.next != null && t.copyDone == t.keys.length
+                && TABLE.compareAndSet(this, t, t.next)) {
+            t = t.next;
+        }
+    }
+
+    /*
+     * Whether a table from head up to, and not including, t has a slot for the key.
+     */
+    private static boolean claimedBefore(Table head, Table t, long key) {
+        for (Table earlier = head; earlier != t; earlier = earlier.next) {
+            if (find(earlier, key) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int backOff(int spins) {
+        if ((spins & 63) == 63) {
+            Thread.yield();
+        } else {
+            Thread.onSpinWait();
+        }
+        return spins + 1;
+    }
+
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Table {
+
+        private final long[] keys;
+
+        private final long[] values;
+
+        private final int[] states;
+
+        private final int reprobeLimit;
+
+        private volatile Table next;
+
+        private volatile int claimed;
+
+        private volatile int copyIndex;
+
+        private volatile int copyDone;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+            this.states = new int[capacity];
+            this.reprobeLimit = 10 + (capacity >>> 4);
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package none.cvg.objects;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * Generates {@code equals} and {@code hashCode} for an arbitrary class from its fields, the
+ * way the {@code java.lang.runtime.ObjectMethods} bootstrap does for records.
+ * <p>
+ * Each field is read with a VarHandle getter. Per field, a comparison {@code (F, F)boolean}
+ * gets both getters through {@code filterArguments}, and the comparisons are chained with
+ * {@code guardWithTest}, so the first differing field short-circuits to {@code false}. The
+ * hash is {@code 31 * h + hash(field)} folded over the fields, starting from 0. Primitives
+ * are compared and hashed without boxing. Floating point fields follow {@code Float.compare}
+ * and {@code Double.compare}, and references follow {@code Objects.equals} and
+ * {@code Objects.hashCode}. Two objects are only equal when they are of exactly the same
+ * class.
+ * <p>
+ * By default every instance field takes part, those declared by the class first and then
+ * those of each superclass, hidden ones included, so inherited state is compared too. The
+ * handle trees for this default are built once per class and cached.
+ *
+ * @param <T> - the type whose methods are generated
+ */
+public final class HandleObjectMethods<T> {
+
+    private static final MethodType EQUALS_TYPE =
+            MethodType.methodType(boolean.class, Object.class, Object.class);
+
+    private static final MethodType HASH_CODE_TYPE =
+            MethodType.methodType(int.class, Object.class);
+
+    private static final MethodHandle FALSE = MethodHandles.dropArguments(
+            MethodHandles.constant(boolean.class, false), 0, Object.class, Object.class);
+
+    private static final MethodHandle TRUE = MethodHandles.dropArguments(
+            MethodHandles.constant(boolean.class, true), 0, Object.class, Object.class);
+
+    private static final MethodHandle SAME_CLASS;
+
+    private static final MethodHandle SAME_REFERENCE;
+
+    private static final MethodHandle HASH_COMBINE;
+
+    private static final ClassValue<HandleObjectMethods<?>> ALL_FIELDS = new ClassValue<>() {
+        @Override
+        protected HandleObjectMethods<?> computeValue(Class<?> type) {
+            return new HandleObjectMethods<>(type, MethodHandles.lookup());
+        }
+    };
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            SAME_CLASS = lookup.findStatic(HandleObjectMethods.class, "sameClass",
+                    MethodType.methodType(boolean.class, Class.class, Object.class));
+            SAME_REFERENCE = lookup.findStatic(HandleObjectMethods.class, "sameReference",
+                    EQUALS_TYPE);
+            HASH_COMBINE = lookup.findStatic(HandleObjectMethods.class, "hashCombine",
+                    MethodType.methodType(int.class, int.class, int.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage());
+        }
+    }
+
+    private final Class<T> type;
+
+    private final MethodHandle equals;
+
+    private final MethodHandle hashCode;
+
+    private HandleObjectMethods(Class<T> type, MethodHandles.Lookup lookup,
+                                String... fieldNames) {
+
+        this.type = type;
+
+        MethodHandle equalFields = MethodHandles.dropArguments(
+                MethodHandles.constant(boolean.class, true), 0, type, type);
+        MethodHandle hash = MethodHandles.dropArguments(
+                MethodHandles.constant(int.class, 0), 0, type);
+
+        try {
+
+            List<Field> fields = fields(type, fieldNames);
+
+            for (int i = fields.size() - 1; i >= 0; i--) {
+                Field field = fields.get(i);
+                MethodHandle getter = getter(type, lookup, field);
+                MethodHandle equalField = MethodHandles.filterArguments(
+                        equalsFor(field.getType()), 0, getter, getter);
+                equalFields = MethodHandles.guardWithTest(equalField, equalFields,
+                        MethodHandles.dropArguments(
+                                MethodHandles.constant(boolean.class, false), 0, type, type));
+            }
+
+            for (Field field : fields) {
+                MethodHandle getter = getter(type, lookup, field);
+                MethodHandle fieldHash = MethodHandles.filterArguments(
+                        hashCodeFor(field.getType()), 0, getter);
+                hash = MethodHandles.permuteArguments(
+                        MethodHandles.filterArguments(HASH_COMBINE, 0, hash, fieldHash),
+                        MethodType.methodType(int.class, type), 0, 0);
+            }
+
+        } catch (NoSuchFieldException | NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+
+        this.equals = MethodHandles.guardWithTest(SAME_REFERENCE, TRUE,
+                MethodHandles.guardWithTest(
+                        MethodHandles.dropArguments(SAME_CLASS.bindTo(type), 0, Object.class),
+                        equalFields.asType(EQUALS_TYPE),
+                        FALSE));
+        this.hashCode = hash.asType(HASH_CODE_TYPE);
+    }
+
+    /**
+     * Generates the methods from the given fields, or from all instance fields of the class
+     * and its superclasses when none are given. The class must be open to this module.
+     * Without field names, the methods are built once per class and shared by all callers.
+     *
+     * @param type - Class whose methods are generated
+     * @param fieldNames - Names of the fields taking part, in comparison order
+     * @param <T> - the type whose methods are generated
+     * @return - The generated methods
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> HandleObjectMethods<T> of(Class<T> type, String... fieldNames) {
+        if (fieldNames.length == 0) {
+            return (HandleObjectMethods<T>) ALL_FIELDS.get(type);
+        }
+        return new HandleObjectMethods<>(type, MethodHandles.lookup(), fieldNames);
+    }
+
+    /**
+     * Generates uncached methods using the caller's lookup.
+     *
+     * @param type - Class whose methods are generated
+     * @param lookup - Lookup with private access to the class
+     * @param fieldNames - Names of the fields taking part, in comparison order
+     * @param <T> - the type whose methods are generated
+     * @return - The generated methods
+     */
+    public static <T> HandleObjectMethods<T> of(Class<T> type, MethodHandles.Lookup lookup,
+                                                String... fieldNames) {
+        return new HandleObjectMethods<>(type, lookup, fieldNames);
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * @return - A handle of type {@code (Object, Object)boolean}
+     */
+    public MethodHandle equalsHandle() {
+        return equals;
+    }
+
+    /**
+     * @return - A handle of type {@code (Object)int}
+     */
+    public MethodHandle hashCodeHandle() {
+        return hashCode;
+    }
+
+    public boolean equals(T self, Object other) {
+        try {
+            return (boolean) equals.invokeExact((Object) self, other);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+
+    public int hashCode(T self) {
+        try {
+            return (int) hashCode.invokeExact((Object) self);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+
+    private static List<Field> fields(Class<?> type, String... fieldNames)
+            throws NoSuchFieldException {
+        List<Field> fields = new ArrayList<>();
+        if (fieldNames.length == 0) {
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                        fields.add(field);
+                    }
+                }
+            }
+        } else {
+            for (String fieldName : fieldNames) {
+                fields.add(field(type, fieldName));
+            }
+        }
+        return fields;
+    }
+
+    /*
+     * The field seen by the class under this name, declared by it or inherited.
+     */
+    private static Field field(Class<?> type, String name) throws NoSuchFieldException {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.getName().equals(name) && !Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+            }
+        }
+        throw new NoSuchFieldException(type.getName() + "." + name);
+    }
+
+    /*
+     * (type)fieldType, reading the field through a private lookup in its declaring class.
+     */
+    private static MethodHandle getter(Class<?> type, MethodHandles.Lookup lookup, Field field)
+            throws NoSuchFieldException, IllegalAccessException {
+        return MethodHandles.privateLookupIn(field.getDeclaringClass(), lookup)
+                .findVarHandle(field.getDeclaringClass(), field.getName(), field.getType())
+                .toMethodHandle(VarHandle.AccessMode.GET)
+                .asType(MethodType.methodType(field.getType(), type));
+    }
+
+    private static MethodHandle equalsFor(Class<?> fieldType)
+            throws NoSuchMethodException, IllegalAccessException {
+        Class<?> parameterType = fieldType.isPrimitive() ? fieldType : Object.class;
+        return MethodHandles.lookup().findStatic(HandleObjectMethods.class, "fieldEquals",
+                MethodType.methodType(boolean.class, parameterType, parameterType))
+                .asType(MethodType.methodType(boolean.class, fieldType, fieldType));
+    }
+
+    private static MethodHandle hashCodeFor(Class<?> fieldType)
+            throws NoSuchMethodException, IllegalAccessException {
+        Class<?> parameterType = fieldType.isPrimitive() ? fieldType : Object.class;
+        return MethodHandles.lookup().findStatic(HandleObjectMethods.class, "fieldHashCode",
+                MethodType.methodType(int.class, parameterType))
+                .asType(MethodType.methodType(int.class, fieldType));
+    }
+
+    private static boolean sameClass(Class<?> type, Object other) {
+        return other != null && other.getClass() == type;
+    }
+
+    private static boolean sameReference(Object self, Object other) {
+        return self == other;
+    }
+
+    private static int hashCombine(int hash, int fieldHash) {
+        return 31 * hash + fieldHash;
+    }
+
+    private static boolean fieldEquals(int a, int b) {
+        return a == b;
+    }
+
+    private static boolean fieldEquals(long a, long b) {
+        return a == b;
+    }
+
+    private static boolean fieldEquals(short a, short b) {
+        return a == b;
+    }
+
+    private static boolean fieldEquals(byte a, byte b) {
+        return a == b;
+    }
+
+    private static boolean fieldEquals(char a, char b) {
+        return a == b;
+    }
+
+    private static boolean fieldEquals(boolean a, boolean b) {
+        return a == b;
+    }
+
+    private static boolean fieldEquals(float a, float b) {
+        return Float.compare(a, b) == 0;
+    }
+
+    private static boolean fieldEquals(double a, double b) {
+        return Double.compare(a, b) == 0;
+    }
+
+    private static boolean fieldEquals(Object a, Object b) {
+        return Objects.equals(a, b);
+    }
+
+    private static int fieldHashCode(int value) {
+        return Integer.hashCode(value);
+    }
+
+    private static int fieldHashCode(long value) {
+        return Long.hashCode(value);
+    }
+
+    private static int fieldHashCode(short value) {
+        return Short.hashCode(value);
+    }
+
+    private static int fieldHashCode(byte value) {
+        return Byte.hashCode(value);
+    }
+
+    private static int fieldHashCode(char value) {
+        return Character.hashCode(value);
+    }
+
+    private static int fieldHashCode(boolean value) {
+        return Boolean.hashCode(value);
+    }
+
+    private static int fieldHashCode(float value) {
+        return Float.hashCode(value);
+    }
+
+    private static int fieldHashCode(double value) {
+        return Double.hashCode(value);
+    }
+
+    private static int fieldHashCode(Object value) {
+        return Objects.hashCode(value);
+    }
+}
@@ -0,0 +1,230 @@
+package none.cvg.paths;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * A property path such as {@code order.customer.name} or
+ * {@code privatePrimitive2DArrayVariable[2][2]}, compiled into a single MethodHandle.
+ * <p>
+ * Each field step is a VarHandle getter, found in the declaring class or a superclass through
+ * {@code privateLookupIn}. Each {@code [n]} step is an {@code arrayElementVarHandle} getter
+ * with the constant index bound in. The steps are chained with {@code filterReturnValue}
+ * following the declared field types, so the path must not go through a field whose declared
+ * type hides the next field.
+ * <p>
+ * Two handles are compiled. The exact handle has type {@code (T)R}, with {@code R} the type
+ * at the end of the path, and throws {@code NullPointerException} on a null step. The
+ * null-safe handle has the same type, but each step is guarded with {@code guardWithTest} so
+ * that a null root, field or array element yields {@code null}, or zero for a primitive
+ * result.
+ *
+ * @param <T> - the type the path starts from
+ */
+public final class PropertyPath<T> {
+
+    private static final Pattern SEGMENT =
+            Pattern.compile("([\\p{javaJavaIdentifierStart}][\\p{javaJavaIdentifierPart}]*)"
+                    + "((?:\\[\\d+])*)");
+
+    private static final Pattern INDEX = Pattern.compile("\\[(\\d+)]");
+
+    private static final MethodType ERASED_TYPE =
+            MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodHandle IS_NULL;
+
+    static {
+        try {
+            IS_NULL = MethodHandles.lookup().findStatic(Objects.class, "isNull",
+                    MethodType.methodType(boolean.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage());
+        }
+    }
+
+    private final String path;
+
+    private final MethodHandle exact;
+
+    private final MethodHandle nullSafe;
+
+    private final MethodHandle erasedExact;
+
+    private final MethodHandle erasedNullSafe;
+
+    private PropertyPath(String path, MethodHandle exact, MethodHandle nullSafe) {
+        this.path = path;
+        this.exact = exact;
+        this.nullSafe = nullSafe;
+        this.erasedExact = exact.asType(ERASED_TYPE);
+        this.erasedNullSafe = nullSafe.asType(ERASED_TYPE);
+    }
+
+    /**
+     * Compiles a path starting from a class open to this module.
+     *
+     * @param type - Class the path starts from
+     * @param path - Field names separated by dots, each followed by any number of [index]
+     * @param <T> - the type the path starts from
+     * @return - The compiled path
+     */
+    public static <T> PropertyPath<T> compile(Class<T> type, String path) {
+        return compile(type, MethodHandles.lookup(), path);
+    }
+
+    /**
+     * Compiles a path using the caller's lookup.
+     *
+     * @param type - Class the path starts from
+     * @param lookup - Lookup with private access to every class along the path
+     * @param path - Field names separated by dots, each followed by any number of [index]
+     * @param <T> - the type the path starts from
+     * @return - The compiled path
+     */
+    public static <T> PropertyPath<T> compile(Class<T> type, MethodHandles.Lookup lookup,
+                                              String path) {
+
+        MethodHandle exact = MethodHandles.identity(type);
+        MethodHandle nullSafe = guarded(exact);
+        Class<?> current = type;
+
+        try {
+
+            for (String segment : path.split("\\.", -1)) {
+                Matcher matcher = SEGMENT.matcher(segment);
+                if (!matcher.matches()) {
+                    throw new IllegalArgumentException("Invalid property path: " + path);
+                }
+
+                MethodHandle step = fieldGetter(current, lookup, matcher.group(1));
+                exact = MethodHandles.filterReturnValue(exact, step);
+                nullSafe = MethodHandles.filterReturnValue(nullSafe, guarded(step));
+                current = step.type().returnType();
+
+                Matcher index = INDEX.matcher(matcher.group(2));
+                while (index.find()) {
+                    if (!current.isArray()) {
+                        throw new IllegalArgumentException(
+                                "Cannot index " + current.getName() + " in " + path);
+                    }
+                    step = MethodHandles.insertArguments(
+                            MethodHandles.arrayElementVarHandle(current)
+                                    .toMethodHandle(VarHandle.AccessMode.GET),
+                            1, Integer.parseInt(index.group(1)));
+                    exact = MethodHandles.filterReturnValue(exact, step);
+                    nullSafe = MethodHandles.filterReturnValue(nullSafe, guarded(step));
+                    current = step.type().returnType();
+                }
+            }
+
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+        return new PropertyPath<>(path, exact, nullSafe);
+    }
+
+    public String path() {
+        return path;
+    }
+
+    /**
+     * @return - The type at the end of the path
+     */
+    public Class<?> type() {
+        return exact.type().returnType();
+    }
+
+    /**
+     * @return - A handle of type {@code (T)R} throwing NullPointerException on a null step
+     */
+    public MethodHandle exact() {
+        return exact;
+    }
+
+    /**
+     * @return - A handle of type {@code (T)R} returning null or zero on a null step
+     */
+    public MethodHandle nullSafe() {
+        return nullSafe;
+    }
+
+    /**
+     * Evaluates the path, boxing a primitive result.
+     *
+     * @param root - Object the path starts from
+     * @return - The value at the end of the path
+     * @throws NullPointerException - if the root or a step along the path is null
+     */
+    public Object get(T root) {
+        return invoke(erasedExact, root);
+    }
+
+    /**
+     * Evaluates the path, boxing a primitive result.
+     *
+     * @param root - Object the path starts from
+     * @return - The value at the end of the path, or null when the root or a step is null
+     */
+    public Object getOrNull(T root) {
+        return invoke(erasedNullSafe, root);
+    }
+
+    private static Object invoke(MethodHandle handle, Object root) {
+        try {
+            return (Object) handle.invokeExact(root);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+
+    private static MethodHandle fieldGetter(Class<?> type, MethodHandles.Lookup lookup,
+                                            String name)
+            throws NoSuchFieldException, IllegalAccessException {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(name);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    break;
+                }
+                return MethodHandles.privateLookupIn(c, lookup)
+                        .findVarHandle(c, name, field.getType())
+                        .toMethodHandle(VarHandle.AccessMode.GET)
+                        .asType(MethodType.methodType(field.getType(), type));
+            } catch (NoSuchFieldException e) {
+                // Look further up the hierarchy
+            }
+        }
+        throw new NoSuchFieldException(type.getName() + "." + name);
+    }
+
+    /*
+     * (A)B returning null or zero when its argument is null, and step(a) otherwise.
+     */
+    private static MethodHandle guarded(MethodHandle step) {
+        MethodType type = step.type();
+        Class<?> argument = type.parameterType(0);
+        if (argument.isPrimitive()) {
+            return step;
+        }
+        return MethodHandles.guardWithTest(
+                IS_NULL.asType(MethodType.methodType(boolean.class, argument)),
+                MethodHandles.empty(type),
+                step);
+    }
+}
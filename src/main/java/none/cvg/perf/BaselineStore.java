@@ -0,0 +1,197 @@
+package none.cvg.perf;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Baseline JMH result files kept in the repository, one per name.
+ * <p>
+ * Baselines are the unmodified {@code -rf json} output, stored as {@code <name>.json}. The
+ * default name is the JDK feature release, such as {@code jdk-17}. A run on a JDK without a
+ * baseline of its own is compared with the newest baseline of an earlier release, see
+ * {@link #jdkBaseline(int)}, so that a JDK upgrade is compared with the previous release
+ * before its own baseline is saved.
+ * <p>
+ * Next to each baseline, {@code <name>.properties} records the machine and JDK it was
+ * measured on, see {@link #currentMachine()}. Scores from other hardware are not comparable.
+ */
+public final class BaselineStore {
+
+    /**
+     * Directory of the baselines, relative to the project root.
+     */
+    public static final Path DEFAULT_DIRECTORY = Paths.get("benchmarks", "baselines");
+
+    private static final Pattern JDK_NAME = Pattern.compile("jdk-(\\d+)\\.json");
+
+    private static final Path CPU_INFO = Paths.get("/proc/cpuinfo");
+
+    private static final List<String> HARDWARE_KEYS = List.of("cpu", "processors", "arch");
+
+    private final Path directory;
+
+    public BaselineStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return - The baseline name for the running JDK, for instance {@code jdk-17}
+     */
+    public static String currentJdkName() {
+        return "jdk-" + Runtime.version().feature();
+    }
+
+    /**
+     * Describes the running machine: the CPU model where the OS reports it, the processors
+     * available to the JVM, OS, architecture, maximum heap and JVM.
+     *
+     * @return - The description, sorted by key
+     */
+    public static Map<String, String> currentMachine() {
+        Map<String, String> machine = new TreeMap<>();
+        machine.put("cpu", cpuModel().orElse(System.getProperty("os.arch")));
+        machine.put("processors", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        machine.put("os", System.getProperty("os.name") + " " + System.getProperty("os.version"));
+        machine.put("arch", System.getProperty("os.arch"));
+        machine.put("heap.max.mb", String.valueOf(Runtime.getRuntime().maxMemory() >> 20));
+        machine.put("jvm", System.getProperty("java.vm.name") + " "
+                + System.getProperty("java.vm.version"));
+        return machine;
+    }
+
+    /**
+     * @param recorded - Machine a baseline was recorded on
+     * @param current - Machine of this run
+     * @return - Whether both have the same CPU model, processor count and architecture
+     */
+    public static boolean sameHardware(Map<String, String> recorded,
+                                       Map<String, String> current) {
+        for (String key : HARDWARE_KEYS) {
+            if (!String.valueOf(recorded.get(key)).equals(current.get(key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the baseline a run on a JDK is compared with: the one of that release, or else the
+     * one of the newest earlier release.
+     *
+     * @param feature - JDK feature release of the run, such as 21
+     * @return - The baseline name, or empty when no release up to this one has a baseline
+     * @throws IOException - if the directory cannot be listed
+     */
+    public Optional<String> jdkBaseline(int feature) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Optional.empty();
+        }
+        int newest = -1;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = JDK_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && Files.isRegularFile(file)) {
+                    int release = Integer.parseInt(matcher.group(1));
+                    if (release <= feature && release > newest) {
+                        newest = release;
+                    }
+                }
+            }
+        }
+        return newest < 0 ? Optional.empty() : Optional.of("jdk-" + newest);
+    }
+
+    /**
+     * @param name - Baseline name
+     * @return - The file holding the baseline
+     */
+    public Path path(String name) {
+        return directory.resolve(name + ".json");
+    }
+
+    /**
+     * @param name - Baseline name
+     * @return - The file describing the machine the baseline was recorded on
+     */
+    public Path machinePath(String name) {
+        return directory.resolve(name + ".properties");
+    }
+
+    public boolean exists(String name) {
+        return Files.isRegularFile(path(name));
+    }
+
+    /**
+     * @param name - Baseline name
+     * @return - The machine the baseline was recorded on, or empty when it was not recorded
+     * @throws IOException - if the description cannot be read
+     */
+    public Optional<Map<String, String>> machine(String name) throws IOException {
+        Path file = machinePath(name);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        Map<String, String> machine = new TreeMap<>();
+        properties.stringPropertyNames()
+                .forEach(key -> machine.put(key, properties.getProperty(key)));
+        return Optional.of(machine);
+    }
+
+    /**
+     * @param name - Baseline name
+     * @return - The results of the baseline
+     * @throws IOException - if the baseline cannot be read
+     */
+    public List<BenchmarkResult> load(String name) throws IOException {
+        return BenchmarkResult.read(path(name));
+    }
+
+    /**
+     * Stores a JMH result file as a baseline, replacing any previous one, along with the
+     * description of the running machine. The file is parsed first, so that a truncated run is
+     * not stored.
+     *
+     * @param name - Baseline name
+     * @param results - File written with {@code -rf json}
+     * @throws IOException - if the file cannot be read or the baseline written
+     */
+    public void save(String name, Path results) throws IOException {
+        BenchmarkResult.read(results);
+        Files.createDirectories(directory);
+        Files.copy(results, path(name), StandardCopyOption.REPLACE_EXISTING);
+        List<String> lines = new ArrayList<>();
+        currentMachine().forEach((key, value) -> lines.add(key + "=" + value));
+        Files.write(machinePath(name), lines);
+    }
+
+    private static Optional<String> cpuModel() {
+        if (!Files.isReadable(CPU_INFO)) {
+            return Optional.empty();
+        }
+        try (Stream<String> lines = Files.lines(CPU_INFO)) {
+            return lines.filter(line -> line.startsWith("model name"))
+                    .map(line -> line.substring(line.indexOf(':') + 1).trim())
+                    .findFirst();
+        } catch (IOException | UncheckedIOException e) {
+            return Optional.empty();
+        }
+    }
+}
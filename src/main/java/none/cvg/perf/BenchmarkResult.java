@@ -0,0 +1,165 @@
+package none.cvg.perf;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The primary metric of one JMH benchmark run, for one combination of parameters.
+ * <p>
+ * Read from the JSON written by {@code -rf json}. The iteration scores of every fork are kept
+ * as samples, so two results can be compared with a significance test rather than by their
+ * means alone.
+ */
+public final class BenchmarkResult {
+
+    private final String benchmark;
+
+    private final String mode;
+
+    private final Map<String, String> params;
+
+    private final double score;
+
+    private final double scoreError;
+
+    private final String unit;
+
+    private final double[] samples;
+
+    public BenchmarkResult(String benchmark, String mode, Map<String, String> params,
+                           double score, double scoreError, String unit, double[] samples) {
+        this.benchmark = benchmark;
+        this.mode = mode;
+        this.params = Collections.unmodifiableMap(new TreeMap<>(params));
+        this.score = score;
+        this.scoreError = scoreError;
+        this.unit = unit;
+        this.samples = samples.clone();
+    }
+
+    /**
+     * Reads every result of a JMH JSON result file.
+     *
+     * @param file - File written with {@code -rf json}
+     * @return - The results, in file order
+     * @throws IOException - if the file cannot be read
+     */
+    public static List<BenchmarkResult> read(Path file) throws IOException {
+        return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses JMH JSON output.
+     *
+     * @param json - Content written with {@code -rf json}
+     * @return - The results, in document order
+     */
+    @SuppressWarnings("unchecked")
+    public static List<BenchmarkResult> parse(String json) {
+        Object document = Json.parse(json);
+        if (!(document instanceof List)) {
+            throw new IllegalArgumentException("JMH results must be a JSON array");
+        }
+        List<BenchmarkResult> results = new ArrayList<>();
+        for (Object element : (List<Object>) document) {
+            Map<String, Object> run = (Map<String, Object>) element;
+            Map<String, Object> metric = (Map<String, Object>) run.get("primaryMetric");
+
+            Map<String, String> params = new TreeMap<>();
+            Object runParams = run.get("params");
+            if (runParams instanceof Map) {
+                ((Map<String, Object>) runParams).forEach(
+                        (name, value) -> params.put(name, String.valueOf(value)));
+            }
+
+            List<Double> samples = new ArrayList<>();
+            Object rawData = metric.get("rawData");
+            if (rawData instanceof List) {
+                for (Object fork : (List<Object>) rawData) {
+                    for (Object iteration : (List<Object>) fork) {
+                        samples.add(Json.number(iteration));
+                    }
+                }
+            }
+            double[] sampleArray = new double[samples.size()];
+            for (int i = 0; i < sampleArray.length; i++) {
+                sampleArray[i] = samples.get(i);
+            }
+
+            results.add(new BenchmarkResult(
+                    (String) run.get("benchmark"),
+                    (String) run.get("mode"),
+                    params,
+                    Json.number(metric.get("score")),
+                    Json.number(metric.get("scoreError")),
+                    (String) metric.get("scoreUnit"),
+                    sampleArray));
+        }
+        return results;
+    }
+
+    /**
+     * @return - The benchmark name and parameters, identifying a result across runs
+     */
+    public String key() {
+        return params.isEmpty() ? benchmark : benchmark + params;
+    }
+
+    /**
+     * @return - The fully qualified benchmark method
+     */
+    public String benchmark() {
+        return benchmark;
+    }
+
+    /**
+     * @return - The benchmark method name, without its class
+     */
+    public String method() {
+        return benchmark.substring(benchmark.lastIndexOf('.') + 1);
+    }
+
+    public String mode() {
+        return mode;
+    }
+
+    public Map<String, String> params() {
+        return params;
+    }
+
+    public double score() {
+        return score;
+    }
+
+    /**
+     * @return - Half-width of the 99.9% confidence interval reported by JMH
+     */
+    public double scoreError() {
+        return scoreError;
+    }
+
+    public String unit() {
+        return unit;
+    }
+
+    /**
+     * @return - Whether a higher score is better, as for throughput
+     */
+    public boolean higherIsBetter() {
+        return "thrpt".equals(mode);
+    }
+
+    /**
+     * @return - The iteration scores of every fork
+     */
+    public double[] samples() {
+        return samples.clone();
+    }
+}
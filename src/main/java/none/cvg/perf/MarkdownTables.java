@@ -0,0 +1,105 @@
+package none.cvg.perf;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders benchmark results as GitHub-flavoured markdown tables.
+ */
+public final class MarkdownTables {
+
+    private MarkdownTables() {
+    }
+
+    /**
+     * One row per compared benchmark, with both scores, the relative change and the verdict.
+     *
+     * @param changes - Changes from a {@link RegressionDetector}
+     * @return - A markdown table
+     */
+    public static String changes(List<RegressionDetector.Change> changes) {
+        StringBuilder table = new StringBuilder()
+                .append("| Benchmark | Params | Mode | Baseline | Current | Unit | Change "
+                        + "| p-value | Verdict |\n")
+                .append("|---|---|---|---:|---:|---|---:|---:|---|\n");
+        for (RegressionDetector.Change change : changes) {
+            BenchmarkResult any = change.current() != null ? change.current() : change.baseline();
+            table.append("| ").append(any.method())
+                    .append(" | ").append(params(any.params()))
+                    .append(" | ").append(any.mode())
+                    .append(" | ").append(score(change.baseline()))
+                    .append(" | ").append(score(change.current()))
+                    .append(" | ").append(any.unit())
+                    .append(" | ").append(percent(change.relativeChange()))
+                    .append(" | ").append(Double.isNaN(change.pValue())
+                            ? "" : String.format(Locale.ROOT, "%.4f", change.pValue()))
+                    .append(" | ").append(change.verdict())
+                    .append(" |\n");
+        }
+        return table.toString();
+    }
+
+    /**
+     * Lays results out with one row per value of a parameter and one column per benchmark
+     * method, for instance {@code Method.invoke} against {@code invokeExact} per access level.
+     * The results should differ only by that parameter and by method.
+     *
+     * @param results - Results to lay out
+     * @param rowParam - Parameter whose values label the rows
+     * @return - A markdown table of score &plusmn; error cells
+     */
+    public static String pivot(List<BenchmarkResult> results, String rowParam) {
+        List<String> columns = new ArrayList<>();
+        Map<String, Map<String, BenchmarkResult>> rows = new LinkedHashMap<>();
+        String unit = "";
+        for (BenchmarkResult result : results) {
+            if (!columns.contains(result.method())) {
+                columns.add(result.method());
+            }
+            rows.computeIfAbsent(result.params().getOrDefault(rowParam, ""),
+                    row -> new LinkedHashMap<>()).put(result.method(), result);
+            unit = result.unit();
+        }
+
+        StringBuilder table = new StringBuilder("| ").append(rowParam).append(" (").append(unit)
+                .append(") |");
+        StringBuilder separator = new StringBuilder("|---|");
+        for (String column : columns) {
+            table.append(' ').append(column).append(" |");
+            separator.append("---:|");
+        }
+        table.append('\n').append(separator).append('\n');
+        for (Map.Entry<String, Map<String, BenchmarkResult>> row : rows.entrySet()) {
+            table.append("| ").append(row.getKey()).append(" |");
+            for (String column : columns) {
+                table.append(' ').append(score(row.getValue().get(column))).append(" |");
+            }
+            table.append('\n');
+        }
+        return table.toString();
+    }
+
+    private static String params(Map<String, String> params) {
+        List<String> pairs = new ArrayList<>();
+        params.forEach((name, value) -> pairs.add(name + "=" + value));
+        return String.join(", ", pairs);
+    }
+
+    private static String score(BenchmarkResult result) {
+        if (result == null) {
+            return "";
+        }
+        if (Double.isNaN(result.scoreError())) {
+            return String.format(Locale.ROOT, "%.3f", result.score());
+        }
+        return String.format(Locale.ROOT, "%.3f &plusmn; %.3f",
+                result.score(), result.scoreError());
+    }
+
+    private static String percent(double change) {
+        return Double.isNaN(change) ? "" : String.format(Locale.ROOT, "%+.1f%%", change * 100);
+    }
+}
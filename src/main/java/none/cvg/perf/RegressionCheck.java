@@ -0,0 +1,81 @@
+package none.cvg.perf;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Command line entry point for the benchmark baselines.
+ * <pre>
+ * java -cp target/classes none.cvg.perf.RegressionCheck compare jmh-result.json [baseline]
+ * java -cp target/classes none.cvg.perf.RegressionCheck update jmh-result.json [baseline]
+ * java -cp target/classes none.cvg.perf.RegressionCheck table jmh-result.json accessLevel
+ * </pre>
+ * {@code compare} prints a markdown table of the changes and exits with status 1 when a
+ * benchmark regressed. Its baseline defaults to the one of the running JDK, or of the newest
+ * earlier release that has one, and it warns when that baseline was recorded on other
+ * hardware. {@code update} saves the one of the running JDK, with a description of this
+ * machine. Baselines live in {@link BaselineStore#DEFAULT_DIRECTORY} under the working
+ * directory.
+ */
+public final class RegressionCheck {
+
+    private RegressionCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            usage();
+        }
+        BaselineStore store = new BaselineStore(BaselineStore.DEFAULT_DIRECTORY);
+        Path results = Paths.get(args[1]);
+        String name = args.length > 2 ? args[2] : BaselineStore.currentJdkName();
+
+        switch (args[0]) {
+            case "compare":
+                if (args.length == 2) {
+                    name = store.jdkBaseline(Runtime.version().feature()).orElse(name);
+                }
+                if (!store.exists(name)) {
+                    System.err.println("No baseline " + store.path(name));
+                    System.exit(2);
+                }
+                Optional<Map<String, String>> recorded = store.machine(name);
+                Map<String, String> current = BaselineStore.currentMachine();
+                if (recorded.isPresent()
+                        && !BaselineStore.sameHardware(recorded.get(), current)) {
+                    System.err.println("Baseline " + name + " was recorded on "
+                            + recorded.get() + "; this run is on " + current);
+                }
+                List<RegressionDetector.Change> changes = new RegressionDetector()
+                        .compare(store.load(name), BenchmarkResult.read(results));
+                System.out.print(MarkdownTables.changes(changes));
+                if (RegressionDetector.hasRegression(changes)) {
+                    System.exit(1);
+                }
+                break;
+            case "update":
+                store.save(name, results);
+                System.out.println("Saved " + store.path(name) + " and "
+                        + store.machinePath(name));
+                break;
+            case "table":
+                if (args.length < 3) {
+                    usage();
+                }
+                System.out.print(MarkdownTables.pivot(BenchmarkResult.read(results), args[2]));
+                break;
+            default:
+                usage();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: RegressionCheck compare|update <jmh-result.json> [baseline]");
+        System.err.println("       RegressionCheck table <jmh-result.json> <row-param>");
+        System.exit(2);
+    }
+}
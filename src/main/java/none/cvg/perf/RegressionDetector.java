@@ -0,0 +1,277 @@
+package none.cvg.perf;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a run of benchmarks with a baseline and flags significant changes per benchmark.
+ * <p>
+ * When both sides have at least two iteration samples, a two-sided Welch t-test is applied,
+ * which does not assume equal variances. Otherwise the JMH confidence intervals are compared,
+ * and a change is significant only when they do not overlap. A significant change is only
+ * reported when it also exceeds a minimum relative size, so that very stable benchmarks do
+ * not flag differences nobody would act upon. Whether a change is a regression or an
+ * improvement follows the benchmark mode: higher is better for throughput, lower for the
+ * time-based modes.
+ */
+public final class RegressionDetector {
+
+    /**
+     * Outcome of comparing one benchmark with its baseline.
+     */
+    public enum Verdict {
+        REGRESSION, IMPROVEMENT, UNCHANGED, NEW, MISSING
+    }
+
+    /**
+     * One benchmark compared with its baseline.
+     */
+    public static final class Change {
+
+        private final String key;
+
+        private final BenchmarkResult baseline;
+
+        private final BenchmarkResult current;
+
+        private final double pValue;
+
+        private final Verdict verdict;
+
+        Change(String key, BenchmarkResult baseline, BenchmarkResult current, double pValue,
+               Verdict verdict) {
+            this.key = key;
+            this.baseline = baseline;
+            this.current = current;
+            this.pValue = pValue;
+            this.verdict = verdict;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        /**
+         * @return - The baseline result, null for a new benchmark
+         */
+        public BenchmarkResult baseline() {
+            return baseline;
+        }
+
+        /**
+         * @return - The current result, null for a missing benchmark
+         */
+        public BenchmarkResult current() {
+            return current;
+        }
+
+        /**
+         * @return - Relative change of the score, positive when the score went up
+         */
+        public double relativeChange() {
+            if (baseline == null || current == null) {
+                return Double.NaN;
+            }
+            return current.score() / baseline.score() - 1;
+        }
+
+        /**
+         * @return - The Welch t-test p-value, NaN when confidence intervals were compared
+         */
+        public double pValue() {
+            return pValue;
+        }
+
+        public Verdict verdict() {
+            return verdict;
+        }
+    }
+
+    private final double alpha;
+
+    private final double minimumChange;
+
+    /**
+     * Creates a detector flagging changes of at least 5% at a 1% significance level.
+     */
+    public RegressionDetector() {
+        this(0.01, 0.05);
+    }
+
+    /**
+     * @param alpha - Significance level of the t-test
+     * @param minimumChange - Smallest relative change reported, for instance 0.05 for 5%
+     */
+    public RegressionDetector(double alpha, double minimumChange) {
+        this.alpha = alpha;
+        this.minimumChange = minimumChange;
+    }
+
+    /**
+     * Compares every benchmark of either run, matched by name and parameters.
+     *
+     * @param baseline - Baseline results
+     * @param current - Current results
+     * @return - One change per benchmark, current results first in their order
+     */
+    public List<Change> compare(List<BenchmarkResult> baseline, List<BenchmarkResult> current) {
+        Map<String, BenchmarkResult> baselines = new LinkedHashMap<>();
+        for (BenchmarkResult result : baseline) {
+            baselines.put(result.key(), result);
+        }
+        List<Change> changes = new ArrayList<>();
+        for (BenchmarkResult result : current) {
+            BenchmarkResult before = baselines.remove(result.key());
+            changes.add(before == null
+                    ? new Change(result.key(), null, result, Double.NaN, Verdict.NEW)
+                    : compare(before, result));
+        }
+        for (BenchmarkResult missing : baselines.values()) {
+            changes.add(new Change(missing.key(), missing, null, Double.NaN, Verdict.MISSING));
+        }
+        return changes;
+    }
+
+    /**
+     * @param changes - Changes to check
+     * @return - Whether any change is a regression
+     */
+    public static boolean hasRegression(List<Change> changes) {
+        for (Change change : changes) {
+            if (change.verdict() == Verdict.REGRESSION) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Change compare(BenchmarkResult before, BenchmarkResult after) {
+        double[] a = before.samples();
+        double[] b = after.samples();
+
+        double pValue = Double.NaN;
+        boolean significant;
+        if (a.length >= 2 && b.length >= 2) {
+            pValue = welchPValue(a, b);
+            significant = pValue < alpha;
+        } else {
+            significant =
+                    before.score() + before.scoreError() < after.score() - after.scoreError()
+                    || after.score() + after.scoreError() < before.score() - before.scoreError();
+        }
+
+        double relative = after.score() / before.score() - 1;
+        Verdict verdict = Verdict.UNCHANGED;
+        if (significant && Math.abs(relative) >= minimumChange) {
+            boolean better = before.higherIsBetter() == relative > 0;
+            verdict = better ? Verdict.IMPROVEMENT : Verdict.REGRESSION;
+        }
+        return new Change(after.key(), before, after, pValue, verdict);
+    }
+
+    /*
+     * Two-sided p-value of Welch's t-test, from the Student t distribution with the
+     * Welch-Satterthwaite degrees of freedom.
+     */
+    static double welchPValue(double[] a, double[] b) {
+        double meanA = mean(a);
+        double meanB = mean(b);
+        double varianceA = variance(a, meanA) / a.length;
+        double varianceB = variance(b, meanB) / b.length;
+        double standardError = Math.sqrt(varianceA + varianceB);
+        if (standardError == 0) {
+            return meanA == meanB ? 1 : 0;
+        }
+        double t = (meanA - meanB) / standardError;
+        double degreesOfFreedom = (varianceA + varianceB) * (varianceA + varianceB)
+                / (varianceA * varianceA / (a.length - 1)
+                + varianceB * varianceB / (b.length - 1));
+        return regularizedBeta(degreesOfFreedom / (degreesOfFreedom + t * t),
+                degreesOfFreedom / 2, 0.5);
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double variance(double[] values, double mean) {
+        double sum = 0;
+        for (double value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return sum / (values.length - 1);
+    }
+
+    /*
+     * I_x(a, b), evaluated with the continued fraction of Numerical Recipes (Lentz's method).
+     */
+    private static double regularizedBeta(double x, double a, double b) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+        double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b)
+                + a * Math.log(x) + b * Math.log(1 - x));
+        if (x < (a + 1) / (a + b + 2)) {
+            return front * betaContinuedFraction(x, a, b) / a;
+        }
+        return 1 - front * betaContinuedFraction(1 - x, b, a) / b;
+    }
+
+    private static double betaContinuedFraction(double x, double a, double b) {
+        double tiny = 1e-300;
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        d = 1 / (Math.abs(d) < tiny ? tiny : d);
+        double result = d;
+        for (int m = 1; m <= 300; m++) {
+            int m2 = 2 * m;
+            double even = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+            d = 1 / nonZero(1 + even * d, tiny);
+            c = nonZero(1 + even / c, tiny);
+            result *= d * c;
+            double odd = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+            d = 1 / nonZero(1 + odd * d, tiny);
+            c = nonZero(1 + odd / c, tiny);
+            double delta = d * c;
+            result *= delta;
+            if (Math.abs(delta - 1) < 1e-14) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static double nonZero(double value, double tiny) {
+        return Math.abs(value) < tiny ? tiny : value;
+    }
+
+    /*
+     * Lanczos approximation, accurate to about 15 digits for positive arguments.
+     */
+    private static double logGamma(double x) {
+        double[] coefficients = {
+                57.1562356658629235, -59.5979603554754912, 14.1360979747417471,
+                -0.491913816097620199, 0.339946499848118887e-4, 0.465236289270485756e-4,
+                -0.983744753048795646e-4, 0.158088703224912494e-3, -0.210264441724104883e-3,
+                0.217439618115212643e-3, -0.164318106536763890e-3, 0.844182239838527433e-4,
+                -0.261908384015814087e-4, 0.368991826595316234e-5
+        };
+        double y = x;
+        double tmp = x + 5.24218750000000000;
+        tmp = (x + 0.5) * Math.log(tmp) - tmp;
+        double series = 0.999999999999997092;
+        for (double coefficient : coefficients) {
+            series += coefficient / ++y;
+        }
+        return tmp + Math.log(2.5066282746310005 * series / x);
+    }
+}
@@ -0,0 +1,201 @@
+package none.cvg.pool;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * Restores the instance fields of an object to the values they have in a prototype.
+ * <p>
+ * Every non-final instance field, up the class hierarchy, is resolved once into a VarHandle
+ * setter with the value of the prototype bound to it. The setters are folded into a single
+ * {@code (Object)void} MethodHandle, so a reset is one {@code invokeExact} that stores each
+ * field in turn, with no per-field dispatch or boxing.
+ * <p>
+ * A bound value is shared by every instance reset, so only immutable values are bound:
+ * primitives, null, strings, boxed primitives and enum constants. Any other reference field,
+ * final or not, such as a list or a buffer, is rejected when the reset is compiled, unless it is
+ * kept as it is or given a reset hook. A hook receives the current value of its field on each
+ * reset and clears it in place, for instance {@code List::clear}.
+ *
+ * @param <T> - the type being reset
+ */
+public final class FieldReset<T> {
+
+    private static final MethodType RESET_TYPE = MethodType.methodType(void.class, Object.class);
+
+    private static final MethodHandle ACCEPT;
+
+    static {
+        try {
+            ACCEPT = MethodHandles.publicLookup().findVirtual(Consumer.class, "accept",
+                    MethodType.methodType(void.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Class<T> type;
+
+    private final MethodHandle reset;
+
+    private final int fieldCount;
+
+    private FieldReset(Class<T> type, MethodHandle reset, int fieldCount) {
+        this.type = type;
+        this.reset = reset;
+        this.fieldCount = fieldCount;
+    }
+
+    /**
+     * Compiles a reset to the values of a prototype.
+     *
+     * @param type - Class of the objects to reset
+     * @param lookup - Lookup with private access to the class
+     * @param prototype - Instance holding the values to restore
+     * @param keptFields - Names of the fields left as they are
+     * @param <T> - the type being reset
+     * @return - The compiled reset
+     */
+    public static <T> FieldReset<T> of(Class<T> type, MethodHandles.Lookup lookup, T prototype,
+                                       String... keptFields) {
+        return of(type, lookup, prototype, Collections.emptyMap(), keptFields);
+    }
+
+    /**
+     * Compiles a reset to the values of a prototype, clearing some reference fields in place.
+     *
+     * @param type - Class of the objects to reset
+     * @param lookup - Lookup with private access to the class
+     * @param prototype - Instance holding the values to restore
+     * @param resetHooks - Per field name, a hook clearing the current value of the field
+     * @param keptFields - Names of the fields left as they are
+     * @param <T> - the type being reset
+     * @return - The compiled reset
+     */
+    public static <T> FieldReset<T> of(Class<T> type, MethodHandles.Lookup lookup, T prototype,
+                                       Map<String, ? extends Consumer<?>> resetHooks,
+                                       String... keptFields) {
+
+        Set<String> kept = new HashSet<>(Arrays.asList(keptFields));
+        Set<String> unknown = new HashSet<>(kept);
+        unknown.addAll(resetHooks.keySet());
+        Set<String> keptAndHooked = new HashSet<>(kept);
+        keptAndHooked.retainAll(resetHooks.keySet());
+        if (!keptAndHooked.isEmpty()) {
+            throw new IllegalArgumentException("Fields both kept and given a reset hook: "
+                    + keptAndHooked);
+        }
+        MethodHandle reset = MethodHandles.empty(RESET_TYPE);
+        int fieldCount = 0;
+
+        try {
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                MethodHandles.Lookup declaring = MethodHandles.privateLookupIn(c, lookup);
+                Field[] fields = c.getDeclaredFields();
+                for (int i = fields.length - 1; i >= 0; i--) {
+                    Field field = fields[i];
+                    int modifiers = field.getModifiers();
+                    unknown.remove(field.getName());
+                    if (Modifier.isStatic(modifiers) || field.isSynthetic()
+                            || kept.contains(field.getName())) {
+                        continue;
+                    }
+                    boolean isFinal = Modifier.isFinal(modifiers);
+                    Consumer<?> hook = resetHooks.get(field.getName());
+                    if (field.getType().isPrimitive()) {
+                        if (hook != null) {
+                            throw new IllegalArgumentException("Reset hook on primitive field "
+                                    + field.getName() + " of " + c.getName());
+                        }
+                        if (isFinal) {
+                            continue;
+                        }
+                    }
+                    VarHandle varHandle = declaring.findVarHandle(c, field.getName(),
+                            field.getType());
+                    MethodHandle getter = varHandle.toMethodHandle(VarHandle.AccessMode.GET);
+                    if (hook != null) {
+                        reset = MethodHandles.foldArguments(reset, MethodHandles.filterArguments(
+                                ACCEPT.bindTo(hook), 0,
+                                getter.asType(MethodType.methodType(Object.class, Object.class))));
+                        fieldCount++;
+                        continue;
+                    }
+                    Object value = getter.invoke(prototype);
+                    if (!isImmutable(value)) {
+                        throw new IllegalArgumentException("Field " + field.getName() + " of "
+                                + c.getName() + " holds a " + value.getClass().getName()
+                                + ", which resets would share; keep it or give it a reset hook");
+                    }
+                    if (isFinal) {
+                        continue;
+                    }
+                    MethodHandle setter = MethodHandles.insertArguments(
+                            varHandle.toMethodHandle(VarHandle.AccessMode.SET), 1, value)
+                            .asType(RESET_TYPE);
+                    reset = MethodHandles.foldArguments(reset, setter);
+                    fieldCount++;
+                }
+            }
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("No such field in " + type.getName() + ": "
+                    + unknown);
+        }
+        return new FieldReset<>(type, reset, fieldCount);
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value == null || value instanceof String || value instanceof Enum
+                || value instanceof Boolean || value instanceof Character
+                || value instanceof Byte || value instanceof Short || value instanceof Integer
+                || value instanceof Long || value instanceof Float || value instanceof Double;
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * @return - Number of fields restored by a reset
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @param target - Object whose fields are restored
+     */
+    public void reset(T target) {
+        try {
+            reset.invokeExact((Object) target);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package none.cvg.pool;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * A lock-free pool of instances created through their no-arg constructor handle.
+ * <p>
+ * Instances are recycled through two levels, as in a magazine allocator. Each thread has a
+ * magazine of up to {@value #MAGAZINE_SIZE} instances that it acquires from and releases to
+ * without any atomic operation. An empty magazine is refilled from the shared depot, and a full
+ * one spills half a magazine into it, so the depot is touched once every dozen or so calls. The
+ * first refill of a thread takes a single instance and each later one twice as many, up to half
+ * a magazine, so a short-lived thread does not take more from the depot than it uses.
+ * Instances left in the magazine of a thread that ends are not returned to the depot; they are
+ * garbage collected with the thread, and the pool creates new ones once the depot runs out. The
+ * depot holds the instances created up front, in cells linked into
+ * two Treiber stacks over an {@code int[]}: one of the cells holding an instance, one of the
+ * free cells. Each stack head packs a version with the top cell index into a {@code long}
+ * updated by compare-and-set, so a cell popped and pushed back in between is not mistaken for
+ * an unchanged head, and no node is allocated per push.
+ * <p>
+ * Released instances are reset by a {@link FieldReset} compiled from a prototype built by the
+ * same constructor, before they are pooled. Reference fields holding mutable objects must be
+ * kept or given a reset hook, as {@link FieldReset} requires. When the depot is empty a new
+ * instance is created; when it is full the released instance is dropped for the garbage
+ * collector. Releasing an instance twice hands it out twice.
+ *
+ * @param <T> - the type pooled
+ */
+public final class ObjectPool<T> {
+
+    private static final int MAGAZINE_SIZE = 32;
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private final MethodHandle constructor;
+
+    private final FieldReset<T> reset;
+
+    private final Depot depot;
+
+    private final ThreadLocal<Magazine> magazines = ThreadLocal.withInitial(Magazine::new);
+
+    private final AtomicLong created = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private ObjectPool(Class<T> type, MethodHandles.Lookup lookup, int capacity,
+                       Map<String, ? extends Consumer<?>> resetHooks, String... keptFields) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        try {
+            this.constructor = MethodHandles.privateLookupIn(type, lookup)
+                    .findConstructor(type, MethodType.methodType(void.class))
+                    .asType(CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+        this.reset = FieldReset.of(type, lookup, type.cast(newInstance()), resetHooks,
+                keptFields);
+        this.depot = new Depot(capacity);
+        for (int i = 0; i < capacity; i++) {
+            depot.push(newInstance());
+        }
+    }
+
+    /**
+     * Creates a pool for a class open to this module.
+     *
+     * @param type - Class with a no-arg constructor
+     * @param capacity - Number of instances created up front and held by the depot
+     * @param keptFields - Names of the fields not reset on release
+     * @param <T> - the type pooled
+     * @return - A new pool
+     */
+    public static <T> ObjectPool<T> of(Class<T> type, int capacity, String... keptFields) {
+        return new ObjectPool<>(type, MethodHandles.lookup(), capacity, Collections.emptyMap(),
+                keptFields);
+    }
+
+    /**
+     * Creates a pool using the caller's lookup, for classes that are not open to this module.
+     *
+     * @param type - Class with a no-arg constructor
+     * @param lookup - Lookup with private access to the class
+     * @param capacity - Number of instances created up front and held by the depot
+     * @param keptFields - Names of the fields not reset on release
+     * @param <T> - the type pooled
+     * @return - A new pool
+     */
+    public static <T> ObjectPool<T> of(Class<T> type, MethodHandles.Lookup lookup, int capacity,
+                                       String... keptFields) {
+        return new ObjectPool<>(type, lookup, capacity, Collections.emptyMap(), keptFields);
+    }
+
+    /**
+     * Creates a pool using the caller's lookup, clearing some reference fields on release.
+     *
+     * @param type - Class with a no-arg constructor
+     * @param lookup - Lookup with private access to the class
+     * @param capacity - Number of instances created up front and held by the depot
+     * @param resetHooks - Per field name, a hook clearing the current value of the field
+     * @param keptFields - Names of the fields not reset on release
+     * @param <T> - the type pooled
+     * @return - A new pool
+     */
+    public static <T> ObjectPool<T> of(Class<T> type, MethodHandles.Lookup lookup, int capacity,
+                                       Map<String, ? extends Consumer<?>> resetHooks,
+                                       String... keptFields) {
+        return new ObjectPool<>(type, lookup, capacity, resetHooks, keptFields);
+    }
+
+    /**
+     * @return - A pooled instance, or a new one when the pool is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        Magazine magazine = magazines.get();
+        if (magazine.count == 0) {
+            while (magazine.count < magazine.refillSize) {
+                Object instance = depot.pop();
+                if (instance == null) {
+                    break;
+                }
+                magazine.instances[magazine.count++] = instance;
+            }
+            magazine.refillSize = Math.min(magazine.refillSize * 2, MAGAZINE_SIZE / 2);
+            if (magazine.count == 0) {
+                created.incrementAndGet();
+                return (T) newInstance();
+            }
+        }
+        Object instance = magazine.instances[--magazine.count];
+        magazine.instances[magazine.count] = null;
+        return (T) instance;
+    }
+
+    /**
+     * Resets an instance and returns it to the pool. The caller must not use it afterwards.
+     *
+     * @param instance - Instance to recycle
+     */
+    public void release(T instance) {
+        if (instance == null) {
+            throw new NullPointerException("Cannot release null");
+        }
+        reset.reset(instance);
+        Magazine magazine = magazines.get();
+        if (magazine.count == MAGAZINE_SIZE) {
+            while (magazine.count > MAGAZINE_SIZE / 2) {
+                Object spilled = magazine.instances[--magazine.count];
+                magazine.instances[magazine.count] = null;
+                if (!depot.push(spilled)) {
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+        magazine.instances[magazine.count++] = instance;
+    }
+
+    /**
+     * @return - Number of instances created because the pool was empty
+     */
+    public long created() {
+        return created.get();
+    }
+
+    /**
+     * @return - Number of released instances dropped because the depot was full
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return - Number of instances in the depot, not counting the magazines
+     */
+    public int available() {
+        return depot.size();
+    }
+
+    private Object newInstance() {
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+
+    /*
+     * The instances of one thread, used as a stack.
+     */
+    private static final class Magazine {
+
+        private final Object[] instances = new Object[MAGAZINE_SIZE];
+
+        private int count;
+
+        private int refillSize = 1;
+    }
+
+    /*
+     * A fixed number of cells, each on one of two index-linked Treiber stacks.
+     */
+    private static final class Depot {
+
+        private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(
+                Object[].class);
+
+        private static final VarHandle LINKS = MethodHandles.arrayElementVarHandle(int[].class);
+
+        private static final VarHandle FULL;
+
+        private static final VarHandle FREE;
+
+        private static final VarHandle SIZE;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                FULL = lookup.findVarHandle(Depot.class, "full", long.class);
+                FREE = lookup.findVarHandle(Depot.class, "free", long.class);
+                SIZE = lookup.findVarHandle(Depot.class, "size", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final Object[] cells;
+
+        /*
+         * The cell below each cell on its stack, -1 at the bottom.
+         */
+        private final int[] links;
+
+        private volatile long full;
+
+        private volatile long free;
+
+        private volatile int size;
+
+        Depot(int capacity) {
+            this.cells = new Object[capacity];
+            this.links = new int[capacity];
+            long head = -1 & 0xFFFF_FFFFL;
+            for (int cell = 0; cell < capacity; cell++) {
+                links[cell] = (int) head;
+                head = cell;
+            }
+            this.full = -1 & 0xFFFF_FFFFL;
+            this.free = head;
+        }
+
+        /*
+         * Returns false when every cell is full.
+         */
+        boolean push(Object instance) {
+            int cell = pop(FREE);
+            if (cell < 0) {
+                return false;
+            }
+            CELLS.setRelease(cells, cell, instance);
+            push(FULL, cell);
+            SIZE.getAndAdd(this, 1);
+            return true;
+        }
+
+        /*
+         * Returns null when every cell is free.
+         */
+        Object pop() {
+            int cell = pop(FULL);
+            if (cell < 0) {
+                return null;
+            }
+            Object instance = CELLS.getAcquire(cells, cell);
+            CELLS.setRelease(cells, cell, null);
+            push(FREE, cell);
+            SIZE.getAndAdd(this, -1);
+            return instance;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private int pop(VarHandle stack) {
+            long head = (long) stack.getAcquire(this);
+            while (true) {
+                int cell = (int) head;
+                if (cell < 0) {
+                    return -1;
+                }
+                int below = (int) LINKS.getAcquire(links, cell);
+                long next = (head & 0xFFFF_FFFF_0000_0000L) + (1L << 32)
+                        | below & 0xFFFF_FFFFL;
+                long witness = (long) stack.compareAndExchange(this, head, next);
+                if (witness == head) {
+                    return cell;
+                }
+                head = witness;
+            }
+        }
+
+        private void push(VarHandle stack, int cell) {
+            long head = (long) stack.getAcquire(this);
+            while (true) {
+                LINKS.setRelease(links, cell, (int) head);
+                long next = (head & 0xFFFF_FFFF_0000_0000L) + (1L << 32)
+                        | cell & 0xFFFF_FFFFL;
+                long witness = (long) stack.compareAndExchange(this, head, next);
+                if (witness == head) {
+                    return;
+                }
+                head = witness;
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package none.cvg.query;
+
+/**
+ * Comparisons of a field against a constant, for {@link Query#where(String, Comparison,
+ * Object)}.
+ */
+public enum Comparison {
+
+    EQ, NE, LT, LE, GT, GE;
+
+    boolean isEquality() {
+        return this == EQ || this == NE;
+    }
+
+    /*
+     * Test applied to the result of a three-way comparison of the field with the constant.
+     * The method names are looked up by Query.
+     */
+    static boolean eq(int comparison) {
+        return comparison == 0;
+    }
+
+    static boolean ne(int comparison) {
+        return comparison != 0;
+    }
+
+    static boolean lt(int comparison) {
+        return comparison < 0;
+    }
+
+    static boolean le(int comparison) {
+        return comparison <= 0;
+    }
+
+    static boolean gt(int comparison) {
+        return comparison > 0;
+    }
+
+    static boolean ge(int comparison) {
+        return comparison >= 0;
+    }
+}
@@ -0,0 +1,392 @@
+package none.cvg.query;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * A query over an in-memory collection, compiled into MethodHandles and run on a parallel
+ * stream.
+ * <p>
+ * Fields are read through VarHandle getters resolved with {@code privateLookupIn}. A
+ * condition compares a field with a constant: a three-way comparison, {@code compareTo} for
+ * references and {@code Long.compare}, {@code Double.compare} or {@code Boolean.compare} for
+ * primitives widened to long or double, gets the constant bound in and the getter applied
+ * through {@code filterArguments}, and is tested by a {@link Comparison}. Conditions are
+ * chained with {@code guardWithTest} into one {@code (Object)boolean} predicate that stops at
+ * the first failing one. Projections and group-by keys and values are erased getters.
+ * Elements whose group-by key is null are grouped under the {@code null} key of the result.
+ * Primitive fields are neither boxed to be filtered nor to be aggregated.
+ * <pre>
+ * Map&lt;Object, DoubleSummaryStatistics&gt; byBook = Query.from(Trade.class)
+ *         .where("notional", Comparison.GT, 1_000_000)
+ *         .summarizeBy(trades, "book", "notional");
+ * </pre>
+ * A Query is immutable; {@code where} returns a new one.
+ *
+ * @param <T> - the type queried
+ */
+public final class Query<T> {
+
+    private static final MethodType PREDICATE_TYPE =
+            MethodType.methodType(boolean.class, Object.class);
+
+    private static final MethodType KEY_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType VALUE_TYPE =
+            MethodType.methodType(double.class, Object.class);
+
+    private static final MethodHandle ALWAYS = MethodHandles.dropArguments(
+            MethodHandles.constant(boolean.class, true), 0, Object.class);
+
+    private static final MethodHandle NEVER = MethodHandles.dropArguments(
+            MethodHandles.constant(boolean.class, false), 0, Object.class);
+
+    /*
+     * Stands in for a null key while grouping, since groupingBy rejects null keys.
+     */
+    private static final Object NULL_KEY = new Object();
+
+    private final Class<T> type;
+
+    private final MethodHandles.Lookup typeLookup;
+
+    private final MethodHandle predicate;
+
+    private Query(Class<T> type, MethodHandles.Lookup typeLookup, MethodHandle predicate) {
+        this.type = type;
+        this.typeLookup = typeLookup;
+        this.predicate = predicate;
+    }
+
+    /**
+     * Starts a query over a class open to this module, matching every element.
+     *
+     * @param type - Class queried
+     * @param <T> - the type queried
+     * @return - A query without conditions
+     */
+    public static <T> Query<T> from(Class<T> type) {
+        return from(type, MethodHandles.lookup());
+    }
+
+    /**
+     * Starts a query using the caller's lookup, matching every element.
+     *
+     * @param type - Class queried
+     * @param lookup - Lookup with private access to the class
+     * @param <T> - the type queried
+     * @return - A query without conditions
+     */
+    public static <T> Query<T> from(Class<T> type, MethodHandles.Lookup lookup) {
+        try {
+            return new Query<>(type, MethodHandles.privateLookupIn(type, lookup), ALWAYS);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Adds a condition, which must hold together with the existing ones. A primitive field and
+     * a number or character constant are both widened, to long when both are integral and to
+     * double when either is floating, so constants are never truncated or wrapped. A constant
+     * the widened type cannot hold exactly, or of another type, is rejected. A reference field
+     * is compared with null or with an instance of its own type.
+     *
+     * @param fieldName - Field compared
+     * @param comparison - How the field compares to the value
+     * @param value - Constant compared with; reference fields must be Comparable unless
+     *     compared for equality, and null field values order before any other
+     * @return - A new query with the condition added
+     */
+    public Query<T> where(String fieldName, Comparison comparison, Object value) {
+        try {
+
+            MethodHandle getter = getter(fieldName);
+            Class<?> comparedType = comparedType(getter.type().returnType(), value);
+            getter = getter.asType(getter.type().changeReturnType(comparedType));
+
+            MethodHandle compare = MethodHandles.insertArguments(
+                    threeWay(comparedType, comparison), 1, coerce(comparedType, value));
+            MethodHandle test = MethodHandles.lookup().findStatic(Comparison.class,
+                    comparison.name().toLowerCase(Locale.ROOT),
+                    MethodType.methodType(boolean.class, int.class));
+
+            MethodHandle condition = MethodHandles.filterReturnValue(
+                    MethodHandles.filterArguments(compare, 0, getter), test)
+                    .asType(PREDICATE_TYPE);
+            MethodHandle combined = predicate == ALWAYS
+                    ? condition
+                    : MethodHandles.guardWithTest(predicate, condition, NEVER);
+            return new Query<>(type, typeLookup, combined);
+
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return - The compiled predicate, of type {@code (Object)boolean}
+     */
+    public MethodHandle predicate() {
+        return predicate;
+    }
+
+    /**
+     * @param elements - Elements to query
+     * @return - The matching elements, in encounter order
+     */
+    public List<T> list(Collection<T> elements) {
+        return matching(elements).collect(Collectors.toList());
+    }
+
+    /**
+     * @param elements - Elements to query
+     * @return - The number of matching elements
+     */
+    public long count(Collection<T> elements) {
+        return matching(elements).count();
+    }
+
+    /**
+     * Projects the matching elements onto some of their fields.
+     *
+     * @param elements - Elements to query
+     * @param fieldNames - Fields projected, in column order
+     * @return - One row per matching element, in encounter order
+     */
+    public List<Object[]> select(Collection<T> elements, String... fieldNames) {
+        MethodHandle[] columns = new MethodHandle[fieldNames.length];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = getter(fieldNames[i]).asType(KEY_TYPE);
+        }
+        return matching(elements)
+                .map(element -> {
+                    Object[] row = new Object[columns.length];
+                    for (int i = 0; i < columns.length; i++) {
+                        row[i] = key(columns[i], element);
+                    }
+                    return row;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Counts the matching elements per value of a field.
+     *
+     * @param elements - Elements to query
+     * @param keyField - Field grouped by
+     * @return - The number of matching elements per key, null keys included
+     */
+    public Map<Object, Long> countBy(Collection<T> elements, String keyField) {
+        return groupBy(elements, keyField, Collectors.counting());
+    }
+
+    /**
+     * Summarizes a numeric field of the matching elements per value of another field.
+     *
+     * @param elements - Elements to query
+     * @param keyField - Field grouped by
+     * @param valueField - Numeric field summarized
+     * @return - Count, sum, min, average and max of the value per key, null keys included
+     */
+    public Map<Object, DoubleSummaryStatistics> summarizeBy(Collection<T> elements,
+                                                            String keyField,
+                                                            String valueField) {
+        MethodHandle value = getter(valueField);
+        if (!value.type().returnType().isPrimitive()
+                && !Number.class.isAssignableFrom(value.type().returnType())) {
+            throw new IllegalArgumentException(valueField + " is not numeric");
+        }
+        MethodHandle doubleValue = value.asType(VALUE_TYPE);
+        ToDoubleFunction<T> values = element -> {
+            try {
+                return (double) doubleValue.invokeExact((Object) element);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(
+                        HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+            }
+        };
+        return groupBy(elements, keyField, Collectors.summarizingDouble(values));
+    }
+
+    private <R> Map<Object, R> groupBy(Collection<T> elements, String keyField,
+                                       Collector<T, ?, R> downstream) {
+        MethodHandle key = getter(keyField).asType(KEY_TYPE);
+        Map<Object, R> groups = matching(elements).collect(
+                Collectors.groupingBy(element -> {
+                    Object value = key(key, element);
+                    return value == null ? NULL_KEY : value;
+                }, HashMap::new, downstream));
+        R nullGroup = groups.remove(NULL_KEY);
+        if (nullGroup != null) {
+            groups.put(null, nullGroup);
+        }
+        return groups;
+    }
+
+    private Stream<T> matching(Collection<T> elements) {
+        Stream<T> stream = elements.parallelStream();
+        if (predicate == ALWAYS) {
+            return stream;
+        }
+        MethodHandle test = predicate;
+        Predicate<T> matches = element -> {
+            try {
+                return (boolean) test.invokeExact((Object) element);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(
+                        HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+            }
+        };
+        return stream.filter(matches);
+    }
+
+    /*
+     * (Object)F reading the field, found in the queried class or a superclass.
+     */
+    private MethodHandle getter(String fieldName) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(fieldName);
+                return MethodHandles.privateLookupIn(c, typeLookup)
+                        .findVarHandle(c, fieldName, field.getType())
+                        .toMethodHandle(VarHandle.AccessMode.GET)
+                        .asType(MethodType.methodType(field.getType(), Object.class));
+            } catch (NoSuchFieldException e) {
+                // Look further up the hierarchy
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(
+                        HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+            }
+        }
+        throw new IllegalArgumentException(HANDLE_RESOLUTION_FAILURE.getValue()
+                + "No field " + fieldName + " in " + type.getName());
+    }
+
+    private static Object key(MethodHandle key, Object element) {
+        try {
+            return (Object) key.invokeExact(element);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+
+    /*
+     * (F, F)int comparing two values of a reference type, long, double or boolean.
+     */
+    private static MethodHandle threeWay(Class<?> fieldType, Comparison comparison)
+            throws NoSuchMethodException, IllegalAccessException {
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodType fieldTypes = MethodType.methodType(int.class, fieldType, fieldType);
+
+        if (!fieldType.isPrimitive()) {
+            String method = comparison.isEquality() ? "equality" : "compareNullsFirst";
+            if (!comparison.isEquality() && !Comparable.class.isAssignableFrom(fieldType)) {
+                throw new IllegalArgumentException(fieldType.getName() + " is not Comparable");
+            }
+            Class<?> parameter = comparison.isEquality() ? Object.class : Comparable.class;
+            return lookup.findStatic(Query.class, method,
+                    MethodType.methodType(int.class, parameter, parameter))
+                    .asType(fieldTypes);
+        }
+
+        Class<?> owner = MethodType.methodType(fieldType).wrap().returnType();
+        return lookup.findStatic(owner, "compare", fieldTypes);
+    }
+
+    /*
+     * The type a field and a constant are compared as: the field type for references, which
+     * the constant must be an instance of, and for primitives long or double, which every
+     * other primitive widens to.
+     */
+    private static Class<?> comparedType(Class<?> fieldType, Object value) {
+        if (!fieldType.isPrimitive()) {
+            if (value != null && !fieldType.isInstance(value)) {
+                throw new IllegalArgumentException(value + " cannot be compared with a "
+                        + fieldType.getName());
+            }
+            return fieldType;
+        }
+        if (fieldType == boolean.class) {
+            if (!(value instanceof Boolean)) {
+                throw new IllegalArgumentException(value + " cannot be compared with a boolean");
+            }
+            return boolean.class;
+        }
+        boolean floatingField = fieldType == double.class || fieldType == float.class;
+        if (value instanceof Double || value instanceof Float) {
+            return double.class;
+        }
+        if (value instanceof Byte || value instanceof Short || value instanceof Integer
+                || value instanceof Long || value instanceof Character) {
+            long integral = widen(value).longValue();
+            double floating = integral;
+            if (floatingField && (floating == 0x1p63 || (long) floating != integral)) {
+                throw new IllegalArgumentException(value + " cannot be compared exactly with a "
+                        + fieldType.getName());
+            }
+            return floatingField ? double.class : long.class;
+        }
+        throw new IllegalArgumentException(value + " cannot be compared with a "
+                + fieldType.getName());
+    }
+
+    private static Object coerce(Class<?> comparedType, Object value) {
+        if (comparedType == long.class) {
+            return widen(value).longValue();
+        } else if (comparedType == double.class) {
+            return widen(value).doubleValue();
+        }
+        return value;
+    }
+
+    private static Number widen(Object value) {
+        return value instanceof Character ? (int) (Character) value : (Number) value;
+    }
+
+    private static int equality(Object a, Object b) {
+        return Objects.equals(a, b) ? 0 : 1;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareNullsFirst(Comparable a, Comparable b) {
+        if (a == b) {
+            return 0;
+        }
+        if (a == null) {
+            return -1;
+        }
+        if (b == null) {
+            return 1;
+        }
+        return a.compareTo(b);
+    }
+}
@@ -0,0 +1,180 @@
+package none.cvg.registry;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+import none.cvg.bulk.ParallelIndexes;
+
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * A shared cache of resolved MethodHandles and VarHandles.
+ * <p>
+ * Members are resolved through a private lookup on their declaring class, so public,
+ * protected, package-protected and private members are all reachable the same way the kata's
+ * solutions reach them with {@code privateLookupIn}.
+ * <p>
+ * No monitor is held while a member is resolved. A cache hit is a lock-free read, and a miss
+ * resolves the handle first and only then publishes it with {@code putIfAbsent}. If two
+ * threads race on the same member, both resolve it and the first one published wins. This is
+ * deliberately not {@code computeIfAbsent}: that runs the resolution (class loading and
+ * LambdaForm spinning included) while holding a bin monitor, which pins a virtual thread to
+ * its carrier for as long as the resolution blocks.
+ * <p>
+ * A whole manifest of members can be resolved eagerly at startup with
+ * {@link #warmUp(List, ForkJoinPool)}, spreading class loading, linkage and LambdaForm
+ * spinning over the cores of a pool.
+ */
+public final class HandleRegistry {
+
+    private static final int WARM_UP_CHUNK_SIZE = 16;
+
+    private final MethodHandles.Lookup lookup;
+
+    private final ConcurrentHashMap<MemberKey, Object> handles = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a registry resolving members of classes in modules open to this one.
+     */
+    public HandleRegistry() {
+        this(MethodHandles.lookup());
+    }
+
+    /**
+     * Creates a registry resolving members through the caller's lookup.
+     *
+     * @param lookup - Lookup used as the base of every private lookup
+     */
+    public HandleRegistry(MethodHandles.Lookup lookup) {
+        this.lookup = lookup;
+    }
+
+    public MethodHandle findVirtual(Class<?> owner, String name, MethodType type) {
+        return (MethodHandle) get(new MemberKey(MemberKey.Kind.VIRTUAL, owner, name, type));
+    }
+
+    public MethodHandle findStatic(Class<?> owner, String name, MethodType type) {
+        return (MethodHandle) get(new MemberKey(MemberKey.Kind.STATIC, owner, name, type));
+    }
+
+    public MethodHandle findConstructor(Class<?> owner, MethodType type) {
+        return (MethodHandle) get(
+                new MemberKey(MemberKey.Kind.CONSTRUCTOR, owner, "<init>", type));
+    }
+
+    public VarHandle findVarHandle(Class<?> owner, String name, Class<?> type) {
+        return (VarHandle) get(new MemberKey(MemberKey.Kind.FIELD, owner, name, type));
+    }
+
+    public VarHandle findStaticVarHandle(Class<?> owner, String name, Class<?> type) {
+        return (VarHandle) get(new MemberKey(MemberKey.Kind.STATIC_FIELD, owner, name, type));
+    }
+
+    /**
+     * Resolves every member of a manifest in parallel and caches its handle.
+     * <p>
+     * Members are resolved in small chunks, since a single resolution can cost from
+     * microseconds to milliseconds. Owners and types are loaded, without initialization, by
+     * the class loader of the registry's lookup class. Public members are resolved with
+     * {@code publicLookup}, which skips the access checks of a private lookup, and the others
+     * with {@code privateLookupIn}. Every member is attempted even when some fail.
+     *
+     * @param manifest - Members to resolve
+     * @param pool - Pool resolving the members
+     * @return - The number of members resolved
+     * @throws IllegalArgumentException - if any member cannot be resolved, with the failures
+     *                                    of the other members suppressed
+     */
+    public int warmUp(List<MemberSpec> manifest, ForkJoinPool pool) {
+        ClassLoader loader = lookup.lookupClass().getClassLoader();
+        Queue<IllegalArgumentException> failures = new ConcurrentLinkedQueue<>();
+        ParallelIndexes.forEach(pool, manifest.size(), WARM_UP_CHUNK_SIZE, index -> {
+            MemberSpec spec = manifest.get(index);
+            try {
+                MemberKey key = spec.key(loader);
+                if (!handles.containsKey(key)) {
+                    handles.putIfAbsent(key, resolve(key, spec.publicAccess));
+                }
+            } catch (ClassNotFoundException | TypeNotPresentException e) {
+                failures.add(new IllegalArgumentException(
+                        HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e));
+            } catch (IllegalArgumentException e) {
+                failures.add(e);
+            }
+        });
+
+        IllegalArgumentException first = failures.poll();
+        if (first != null) {
+            IllegalArgumentException failure = new IllegalArgumentException(
+                    (failures.size() + 1) + " of " + manifest.size()
+                            + " members failed to resolve, first: " + first.getMessage(),
+                    first);
+            failures.forEach(failure::addSuppressed);
+            throw failure;
+        }
+        return manifest.size();
+    }
+
+    /**
+     * Resolves a manifest on the common pool.
+     *
+     * @param manifest - Members to resolve
+     * @return - The number of members resolved
+     */
+    public int warmUp(List<MemberSpec> manifest) {
+        return warmUp(manifest, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @return - The number of members resolved so far
+     */
+    public int size() {
+        return handles.size();
+    }
+
+    private Object get(MemberKey key) {
+        Object handle = handles.get(key);
+        if (handle != null) {
+            return handle;
+        }
+        handle = resolve(key, false);
+        Object raced = handles.putIfAbsent(key, handle);
+        return raced != null ? raced : handle;
+    }
+
+    private Object resolve(MemberKey key, boolean publicAccess) {
+        try {
+
+            MethodHandles.Lookup ownerLookup = publicAccess
+                    ? MethodHandles.publicLookup()
+                    : MethodHandles.privateLookupIn(key.owner, lookup);
+
+            switch (key.kind) {
+                case VIRTUAL:
+                    return ownerLookup.findVirtual(key.owner, key.name, (MethodType) key.type);
+                case STATIC:
+                    return ownerLookup.findStatic(key.owner, key.name, (MethodType) key.type);
+                case CONSTRUCTOR:
+                    return ownerLookup.findConstructor(key.owner, (MethodType) key.type);
+                case FIELD:
+                    return ownerLookup.findVarHandle(key.owner, key.name, (Class<?>) key.type);
+                case STATIC_FIELD:
+                    return ownerLookup.findStaticVarHandle(key.owner, key.name,
+                            (Class<?>) key.type);
+                default:
+                    throw new IllegalArgumentException("Unknown member kind: " + key.kind);
+            }
+
+        } catch (NoSuchMethodException | NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package none.cvg.registry;
+
+import java.util.Objects;
+
+/**
+ * Identifies a member resolved by the {@link HandleRegistry}.
+ * The type is a MethodType for methods and constructors, and the field type for fields.
+ */
+final class MemberKey {
+
+    enum Kind {
+        VIRTUAL,
+        STATIC,
+        CONSTRUCTOR,
+        FIELD,
+        STATIC_FIELD
+    }
+
+    final Kind kind;
+
+    final Class<?> owner;
+
+    final String name;
+
+    final Object type;
+
+    private final int hash;
+
+    MemberKey(Kind kind, Class<?> owner, String name, Object type) {
+        this.kind = kind;
+        this.owner = owner;
+        this.name = name;
+        this.type = type;
+        this.hash = Objects.hash(kind, owner, name, type);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MemberKey)) {
+            return false;
+        }
+        MemberKey other = (MemberKey) o;
+        return kind == other.kind
+                && owner == other.owner
+                && name.equals(other.name)
+                && type.equals(other.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + owner.getName() + "." + name + " " + type;
+    }
+}
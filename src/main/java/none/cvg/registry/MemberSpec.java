@@ -0,0 +1,206 @@
+package none.cvg.registry;
+
+import java.io.IOException;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One entry of a warm-up manifest: a member to resolve eagerly with
+ * {@link HandleRegistry#warmUp(List, java.util.concurrent.ForkJoinPool)}.
+ * <p>
+ * The owner and type are kept as a class name and a descriptor, so that a manifest can be
+ * parsed without loading any class; classes are loaded by the warm-up, in parallel. A manifest
+ * has one member per line:
+ * <pre>
+ * # kind    owner              name           descriptor                               access
+ * virtual   none.cvg.DemoClass privateMethod  (Ljava/lang/String;)Ljava/lang/String;   private
+ * static    none.cvg.DemoClass publicStaticMethod (Ljava/lang/String;)Ljava/lang/String; public
+ * new       none.cvg.DemoClass &lt;init&gt;         (Ljava/lang/String;)V                    public
+ * field     none.cvg.DemoClass name           Ljava/lang/String;                       private
+ * </pre>
+ * The kinds are {@code virtual}, {@code static}, {@code new}, {@code field} and
+ * {@code staticField}. Methods and constructors take a method descriptor, fields a field
+ * descriptor. The access is {@code public} when both the class and the member are public, and
+ * {@code private} otherwise; it defaults to {@code private}. Blank lines and lines starting
+ * with {@code #} are ignored.
+ */
+public final class MemberSpec {
+
+    final MemberKey.Kind kind;
+
+    final String ownerName;
+
+    final String name;
+
+    final String descriptor;
+
+    final boolean publicAccess;
+
+    private MemberSpec(MemberKey.Kind kind, String ownerName, String name, String descriptor,
+                       boolean publicAccess) {
+        this.kind = kind;
+        this.ownerName = ownerName;
+        this.name = name;
+        this.descriptor = descriptor;
+        this.publicAccess = publicAccess;
+    }
+
+    public static MemberSpec virtual(Class<?> owner, String name, MethodType type) {
+        return new MemberSpec(MemberKey.Kind.VIRTUAL, owner.getName(), name,
+                type.toMethodDescriptorString(), isPublic(owner, name, type));
+    }
+
+    public static MemberSpec staticMethod(Class<?> owner, String name, MethodType type) {
+        return new MemberSpec(MemberKey.Kind.STATIC, owner.getName(), name,
+                type.toMethodDescriptorString(), isPublic(owner, name, type));
+    }
+
+    public static MemberSpec constructor(Class<?> owner, MethodType type) {
+        return new MemberSpec(MemberKey.Kind.CONSTRUCTOR, owner.getName(), "<init>",
+                type.toMethodDescriptorString(), isPublic(owner, "<init>", type));
+    }
+
+    public static MemberSpec field(Class<?> owner, String name, Class<?> type) {
+        return new MemberSpec(MemberKey.Kind.FIELD, owner.getName(), name,
+                fieldDescriptor(type), isPublicField(owner, name));
+    }
+
+    public static MemberSpec staticField(Class<?> owner, String name, Class<?> type) {
+        return new MemberSpec(MemberKey.Kind.STATIC_FIELD, owner.getName(), name,
+                fieldDescriptor(type), isPublicField(owner, name));
+    }
+
+    /**
+     * @param line - A manifest line, neither blank nor a comment
+     * @return - The member of that line
+     */
+    public static MemberSpec parse(String line) {
+        String[] parts = line.trim().split("\\s+");
+        if (parts.length < 4 || parts.length > 5) {
+            throw new IllegalArgumentException(
+                    "Expected kind, owner, name, descriptor and access: " + line);
+        }
+        boolean publicAccess = false;
+        if (parts.length == 5) {
+            if ("public".equals(parts[4])) {
+                publicAccess = true;
+            } else if (!"private".equals(parts[4])) {
+                throw new IllegalArgumentException("Unknown access " + parts[4] + ": " + line);
+            }
+        }
+        return new MemberSpec(kind(parts[0], line), parts[1], parts[2], parts[3],
+                publicAccess);
+    }
+
+    /**
+     * @param lines - Manifest lines
+     * @return - The members of every line that is neither blank nor a comment, in order
+     */
+    public static List<MemberSpec> parseManifest(List<String> lines) {
+        List<MemberSpec> manifest = new ArrayList<>();
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                manifest.add(parse(trimmed));
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * @param file - Manifest file, in UTF-8
+     * @return - The members of the manifest, in order
+     * @throws IOException - if the file cannot be read
+     */
+    public static List<MemberSpec> readManifest(Path file) throws IOException {
+        return parseManifest(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return - The manifest line of this member
+     */
+    @Override
+    public String toString() {
+        return keyword(kind) + " " + ownerName + " " + name + " " + descriptor + " "
+                + (publicAccess ? "public" : "private");
+    }
+
+    /*
+     * Loads the owner and types with the loader, and builds the registry key.
+     */
+    MemberKey key(ClassLoader loader) throws ClassNotFoundException {
+        Class<?> owner = Class.forName(ownerName, false, loader);
+        Object type;
+        if (kind == MemberKey.Kind.FIELD || kind == MemberKey.Kind.STATIC_FIELD) {
+            type = MethodType.fromMethodDescriptorString("()" + descriptor, loader).returnType();
+        } else {
+            type = MethodType.fromMethodDescriptorString(descriptor, loader);
+        }
+        return new MemberKey(kind, owner, name, type);
+    }
+
+    private static MemberKey.Kind kind(String keyword, String line) {
+        switch (keyword) {
+            case "virtual":
+                return MemberKey.Kind.VIRTUAL;
+            case "static":
+                return MemberKey.Kind.STATIC;
+            case "new":
+                return MemberKey.Kind.CONSTRUCTOR;
+            case "field":
+                return MemberKey.Kind.FIELD;
+            case "staticField":
+                return MemberKey.Kind.STATIC_FIELD;
+            default:
+                throw new IllegalArgumentException("Unknown kind " + keyword + ": " + line);
+        }
+    }
+
+    private static String keyword(MemberKey.Kind kind) {
+        switch (kind) {
+            case VIRTUAL:
+                return "virtual";
+            case STATIC:
+                return "static";
+            case CONSTRUCTOR:
+                return "new";
+            case FIELD:
+                return "field";
+            default:
+                return "staticField";
+        }
+    }
+
+    private static String fieldDescriptor(Class<?> type) {
+        String descriptor = MethodType.methodType(type).toMethodDescriptorString();
+        return descriptor.substring(descriptor.indexOf(')') + 1);
+    }
+
+    private static boolean isPublic(Class<?> owner, String name, MethodType type) {
+        if (!Modifier.isPublic(owner.getModifiers())) {
+            return false;
+        }
+        try {
+            int modifiers = "<init>".equals(name)
+                    ? owner.getDeclaredConstructor(type.parameterArray()).getModifiers()
+                    : owner.getDeclaredMethod(name, type.parameterArray()).getModifiers();
+            return Modifier.isPublic(modifiers);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static boolean isPublicField(Class<?> owner, String name) {
+        try {
+            return Modifier.isPublic(owner.getModifiers())
+                    && Modifier.isPublic(owner.getDeclaredField(name).getModifiers());
+        } catch (NoSuchFieldException e) {
+            return false;
+        }
+    }
+}
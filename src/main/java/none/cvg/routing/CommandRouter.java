@@ -0,0 +1,244 @@
+package none.cvg.routing;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * An immutable table from method name to MethodHandle, for routing commands by name.
+ * <p>
+ * The methods of a class are resolved once, through {@code privateLookupIn}, and placed in a
+ * perfectly hashed table: a seed is searched for so that every name lands in its own slot of
+ * a power-of-two array. Looking a command up is then one hash of the name, one slot read and
+ * one {@code equals} to reject unknown names, instead of a {@code getDeclaredMethod} scan.
+ * <p>
+ * Each method also gets a spreader of type {@code (Object, Object[])Object}, taking the
+ * receiver (ignored for static methods) and the arguments as an array, for callers that only
+ * know the command name at run time. Method names must be unique among the selected methods.
+ */
+public final class CommandRouter {
+
+    private static final MethodType SPREAD_TYPE =
+            MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private static final int SEEDS_PER_SIZE = 1024;
+
+    private final Class<?> type;
+
+    private final String[] names;
+
+    private final MethodHandle[] handles;
+
+    private final MethodHandle[] spreaders;
+
+    private final int seed;
+
+    private final int mask;
+
+    /*
+     * Set when two names share a String.hashCode, which no seed can separate.
+     */
+    private final boolean hashChars;
+
+    private CommandRouter(Class<?> type, List<String> commandNames, List<MethodHandle> resolved,
+                          List<MethodHandle> spread) {
+
+        this.type = type;
+
+        Set<Integer> hashCodes = new HashSet<>();
+        boolean sharedHashCode = false;
+        for (String name : commandNames) {
+            sharedHashCode |= !hashCodes.add(name.hashCode());
+        }
+        this.hashChars = sharedHashCode;
+
+        // Start at twice the next power of two, so a seed is found after a few tries
+        int size = 2 * Integer.highestOneBit(Math.max(1, commandNames.size()) * 2 - 1);
+        int found = 0;
+        search:
+        for (; ; size <<= 1) {
+            for (int candidate = 1; candidate < SEEDS_PER_SIZE * 2; candidate += 2) {
+                if (isPerfect(commandNames, candidate, size - 1)) {
+                    found = candidate;
+                    break search;
+                }
+            }
+        }
+        this.seed = found;
+        this.mask = size - 1;
+
+        this.names = new String[size];
+        this.handles = new MethodHandle[size];
+        this.spreaders = new MethodHandle[size];
+        for (int i = 0; i < commandNames.size(); i++) {
+            int slot = slot(commandNames.get(i));
+            names[slot] = commandNames.get(i);
+            handles[slot] = resolved.get(i);
+            spreaders[slot] = spread.get(i);
+        }
+    }
+
+    /**
+     * Routes to every method declared by a class open to this module.
+     *
+     * @param type - Class declaring the methods
+     * @return - A router over the declared methods
+     */
+    public static CommandRouter of(Class<?> type) {
+        return of(type, MethodHandles.lookup(), method -> true);
+    }
+
+    /**
+     * Routes to the selected methods declared by the class, using the caller's lookup.
+     *
+     * @param type - Class declaring the methods
+     * @param lookup - Lookup with private access to the class
+     * @param selection - Selects the methods to route to; names must be unique among them
+     * @return - A router over the selected methods
+     */
+    public static CommandRouter of(Class<?> type, MethodHandles.Lookup lookup,
+                                   Predicate<Method> selection) {
+
+        List<String> names = new ArrayList<>();
+        List<MethodHandle> resolved = new ArrayList<>();
+        List<MethodHandle> spread = new ArrayList<>();
+        try {
+
+            MethodHandles.Lookup typeLookup = MethodHandles.privateLookupIn(type, lookup);
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isSynthetic() || !selection.test(method)) {
+                    continue;
+                }
+                if (names.contains(method.getName())) {
+                    throw new IllegalArgumentException("Overloaded command " + method.getName()
+                            + " on " + type.getName() + "; select a single method");
+                }
+                MethodHandle handle = typeLookup.unreflect(method);
+                names.add(method.getName());
+                resolved.add(handle);
+                spread.add(spreader(handle, Modifier.isStatic(method.getModifiers())));
+            }
+
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+        return new CommandRouter(type, names, resolved, spread);
+    }
+
+    public Class<?> type() {
+        return type;
+    }
+
+    /**
+     * @return - The routed command names, in no particular order
+     */
+    public List<String> names() {
+        List<String> routed = new ArrayList<>();
+        for (String name : names) {
+            if (name != null) {
+                routed.add(name);
+            }
+        }
+        return Collections.unmodifiableList(routed);
+    }
+
+    /**
+     * Finds the direct handle of a command, with the method's own type. Virtual methods take
+     * the receiver as their first parameter.
+     *
+     * @param name - Command name
+     * @return - The handle, or null when no such command is routed
+     */
+    public MethodHandle find(String name) {
+        int slot = slot(name);
+        return name.equals(names[slot]) ? handles[slot] : null;
+    }
+
+    /**
+     * Finds the spreader of a command.
+     *
+     * @param name - Command name
+     * @return - A handle of type {@code (Object, Object[])Object}, or null when no such command
+     *     is routed
+     */
+    public MethodHandle findSpreader(String name) {
+        int slot = slot(name);
+        return name.equals(names[slot]) ? spreaders[slot] : null;
+    }
+
+    /**
+     * Invokes a command by name.
+     *
+     * @param name - Command name
+     * @param target - Receiver, ignored for static methods
+     * @param arguments - Arguments of the method
+     * @return - The result of the method, null for void methods
+     */
+    public Object invoke(String name, Object target, Object... arguments) {
+        MethodHandle spreader = findSpreader(name);
+        if (spreader == null) {
+            throw new IllegalArgumentException("No command " + name + " on " + type.getName());
+        }
+        try {
+            return (Object) spreader.invokeExact(target, arguments);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+
+    private int slot(String name) {
+        return slot(name, seed, mask, hashChars);
+    }
+
+    private boolean isPerfect(List<String> commandNames, int candidate, int candidateMask) {
+        boolean[] taken = new boolean[candidateMask + 1];
+        for (String name : commandNames) {
+            int slot = slot(name, candidate, candidateMask, hashChars);
+            if (taken[slot]) {
+                return false;
+            }
+            taken[slot] = true;
+        }
+        return true;
+    }
+
+    private static int slot(String name, int seed, int mask, boolean hashChars) {
+        int h;
+        if (hashChars) {
+            h = 0;
+            for (int i = 0; i < name.length(); i++) {
+                h = h * seed + name.charAt(i);
+            }
+        } else {
+            h = name.hashCode();
+        }
+        h *= seed * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static MethodHandle spreader(MethodHandle handle, boolean isStatic) {
+        if (isStatic) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        int parameters = handle.type().parameterCount() - 1;
+        return handle
+                .asType(MethodType.genericMethodType(parameters + 1))
+                .asSpreader(Object[].class, parameters)
+                .asType(SPREAD_TYPE);
+    }
+}
@@ -0,0 +1,211 @@
+package none.cvg.sorting;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * A Comparator compiled from an ordered list of field names into one MethodHandle.
+ * <p>
+ * Every key is read through an exact-typed VarHandle getter. Primitive keys are compared with
+ * {@code Integer.compare}, {@code Long.compare}, {@code Double.compare} and so on, so nothing
+ * is boxed. Reference keys must be {@link Comparable} and are compared with nulls first. The
+ * per-field comparisons are chained so that the next field is only read when the previous
+ * ones compare equal. A field name prefixed with {@code -} sorts in descending order.
+ *
+ * <pre>
+ * FieldComparator&lt;Trade&gt; byBook = FieldComparator.compile(Trade.class,
+ *         "book", "-notional", "id");
+ * byBook.parallelSort(trades);
+ * </pre>
+ *
+ * @param <T> - the type being compared
+ */
+public final class FieldComparator<T> implements Comparator<T> {
+
+    private static final MethodType COMPARE_TYPE =
+            MethodType.methodType(int.class, Object.class, Object.class);
+
+    private static final MethodHandle IS_NON_ZERO;
+
+    static {
+        try {
+            IS_NON_ZERO = MethodHandles.lookup().findStatic(FieldComparator.class, "isNonZero",
+                    MethodType.methodType(boolean.class, int.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage());
+        }
+    }
+
+    private final MethodHandle compare;
+
+    private FieldComparator(MethodHandle compare) {
+        this.compare = compare;
+    }
+
+    /**
+     * Compiles a comparator for a class open to this module.
+     *
+     * @param type - Class to compare
+     * @param fieldNames - Sort keys, most significant first; prefix with - for descending
+     * @param <T> - the type being compared
+     * @return - A compiled comparator
+     */
+    public static <T> FieldComparator<T> compile(Class<T> type, String... fieldNames) {
+        return compile(type, MethodHandles.lookup(), fieldNames);
+    }
+
+    /**
+     * Compiles a comparator using the caller's lookup.
+     *
+     * @param type - Class to compare
+     * @param lookup - Lookup with private access to the class
+     * @param fieldNames - Sort keys, most significant first; prefix with - for descending
+     * @param <T> - the type being compared
+     * @return - A compiled comparator
+     */
+    public static <T> FieldComparator<T> compile(Class<T> type, MethodHandles.Lookup lookup,
+                                                 String... fieldNames) {
+        if (fieldNames.length == 0) {
+            throw new IllegalArgumentException("At least one field is needed");
+        }
+        try {
+
+            MethodHandles.Lookup typeLookup = MethodHandles.privateLookupIn(type, lookup);
+
+            MethodHandle compare = null;
+            for (int i = fieldNames.length - 1; i >= 0; i--) {
+                MethodHandle fieldCompare = fieldCompare(typeLookup, type, fieldNames[i]);
+                compare = compare == null ? fieldCompare : thenCompare(fieldCompare, compare);
+            }
+            return new FieldComparator<>(compare.asType(COMPARE_TYPE));
+
+        } catch (NoSuchFieldException | NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int compare(T a, T b) {
+        try {
+            return (int) compare.invokeExact((Object) a, (Object) b);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+
+    /**
+     * Sorts the array in parallel on the common pool, using this comparator.
+     *
+     * @param array - Array to sort in place
+     */
+    public void parallelSort(T[] array) {
+        Arrays.parallelSort(array, this);
+    }
+
+    /**
+     * @return - The compiled handle, of type {@code (Object, Object)int}
+     */
+    public MethodHandle handle() {
+        return compare;
+    }
+
+    /*
+     * (T, T)int comparing a single field, through its getter on both arguments.
+     */
+    private static MethodHandle fieldCompare(MethodHandles.Lookup typeLookup, Class<?> type,
+                                             String fieldName)
+            throws NoSuchFieldException, NoSuchMethodException, IllegalAccessException {
+
+        boolean descending = fieldName.startsWith("-");
+        String name = descending ? fieldName.substring(1) : fieldName;
+
+        Field field = type.getDeclaredField(name);
+        MethodHandle getter = typeLookup
+                .findVarHandle(type, name, field.getType())
+                .toMethodHandle(VarHandle.AccessMode.GET);
+
+        MethodHandle compare = MethodHandles.filterArguments(
+                comparisonFor(field.getType()), 0, getter, getter);
+        if (descending) {
+            compare = MethodHandles.permuteArguments(compare, compare.type(), 1, 0);
+        }
+        return compare;
+    }
+
+    /*
+     * (T, T)int returning first(a, b) unless it is 0, in which case rest(a, b).
+     */
+    private static MethodHandle thenCompare(MethodHandle first, MethodHandle rest) {
+        Class<?> type = first.type().parameterType(0);
+        MethodHandle select = MethodHandles.guardWithTest(
+                IS_NON_ZERO,
+                MethodHandles.dropArguments(MethodHandles.identity(int.class), 1, type, type),
+                MethodHandles.dropArguments(rest, 0, int.class));
+        return MethodHandles.foldArguments(select, first);
+    }
+
+    private static MethodHandle comparisonFor(Class<?> fieldType)
+            throws NoSuchMethodException, IllegalAccessException {
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        if (!fieldType.isPrimitive()) {
+            if (!Comparable.class.isAssignableFrom(fieldType)) {
+                throw new IllegalArgumentException(fieldType.getName() + " is not Comparable");
+            }
+            return lookup.findStatic(FieldComparator.class, "compareNullsFirst",
+                    MethodType.methodType(int.class, Comparable.class, Comparable.class))
+                    .asType(MethodType.methodType(int.class, fieldType, fieldType));
+        }
+
+        Class<?> owner;
+        Class<?> parameter = fieldType;
+        if (fieldType == long.class) {
+            owner = Long.class;
+        } else if (fieldType == double.class) {
+            owner = Double.class;
+        } else if (fieldType == float.class) {
+            owner = Float.class;
+        } else if (fieldType == boolean.class) {
+            owner = Boolean.class;
+        } else {
+            // byte, short and char widen to int without changing their order
+            owner = Integer.class;
+            parameter = int.class;
+        }
+        return lookup.findStatic(owner, "compare",
+                MethodType.methodType(int.class, parameter, parameter))
+                .asType(MethodType.methodType(int.class, fieldType, fieldType));
+    }
+
+    private static boolean isNonZero(int comparison) {
+        return comparison != 0;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareNullsFirst(Comparable a, Comparable b) {
+        if (a == b) {
+            return 0;
+        }
+        if (a == null) {
+            return -1;
+        }
+        if (b == null) {
+            return 1;
+        }
+        return a.compareTo(b);
+    }
+}
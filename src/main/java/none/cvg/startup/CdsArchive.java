@@ -0,0 +1,277 @@
+package none.cvg.startup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Builds a dynamic CDS archive from a {@link TrainingRun} and compares startup with and
+ * without it.
+ * <pre>
+ * java -cp target/classes none.cvg.startup.CdsArchive [archive] [runs]
+ * </pre>
+ * The training pass runs once with {@code -XX:ArchiveClassesAtExit}. The archive holds the
+ * application classes it loaded and, depending on the JDK, the lambda proxies and regenerated
+ * LambdaForm holder classes it used. LambdaForms spun as hidden classes outside the holders
+ * are still spun at startup. The workload is then launched alternately without the archive
+ * and with {@code -XX:SharedArchiveFile}, and the wall time of each JVM, from launch to exit,
+ * is reported. Dynamic archives need JDK 13 or later, and the archive is only usable by the
+ * JDK that wrote it.
+ * <p>
+ * CDS only archives classes loaded from jars, so directories of the class path, such as
+ * {@code target/classes}, are packed into a jar next to the archive before training.
+ */
+public final class CdsArchive {
+
+    private final String java;
+
+    private final String classPath;
+
+    private final Path archive;
+
+    /**
+     * @param java - Path of the java launcher
+     * @param classPath - Class path of the workload
+     * @param archive - Dynamic archive file to write and use
+     */
+    public CdsArchive(String java, String classPath, Path archive) {
+        this.java = java;
+        this.classPath = classPath;
+        this.archive = archive;
+    }
+
+    /**
+     * @param archive - Dynamic archive file to write and use
+     * @return - An archive of the running JDK and class path
+     */
+    public static CdsArchive forCurrentJvm(Path archive) {
+        return new CdsArchive(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                System.getProperty("java.class.path"), archive);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path archive = Paths.get(args.length > 0 ? args[0] : "target/handles.jsa");
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        CdsArchive cds = forCurrentJvm(archive);
+        System.out.println("Training: " + cds.train().trim());
+        System.out.print(cds.compare(runs).toMarkdown());
+    }
+
+    /**
+     * Runs the training pass, writing the archive.
+     *
+     * @return - The output of the training pass
+     * @throws IOException - if the JVM cannot be launched, fails, or writes no archive
+     * @throws InterruptedException - if interrupted while waiting for the JVM
+     */
+    public String train() throws IOException, InterruptedException {
+        if (Runtime.version().feature() < 13) {
+            throw new UnsupportedOperationException(
+                    "Dynamic CDS archives need JDK 13 or later, running "
+                            + Runtime.version().feature());
+        }
+        Files.deleteIfExists(archive);
+        Files.createDirectories(archive.toAbsolutePath().getParent());
+        packDirectories();
+        String output = launch(trainingCommand()).output;
+        if (!Files.isRegularFile(archive)) {
+            throw new IOException("No archive written to " + archive + ": " + output);
+        }
+        return output;
+    }
+
+    /**
+     * Launches the workload alternately without and with the archive.
+     *
+     * @param runs - Launches of each kind
+     * @return - The wall times of both kinds
+     * @throws IOException - if a JVM cannot be launched or fails
+     * @throws InterruptedException - if interrupted while waiting for a JVM
+     */
+    public Comparison compare(int runs) throws IOException, InterruptedException {
+        if (runs < 1) {
+            throw new IllegalArgumentException("Runs must be positive: " + runs);
+        }
+        long[] without = new long[runs];
+        long[] with = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            without[i] = launch(runCommand(false)).nanos;
+            with[i] = launch(runCommand(true)).nanos;
+        }
+        return new Comparison(without, with);
+    }
+
+    /**
+     * @return - The class path the workload is launched with, directories replaced by the jar
+     *           they are packed into
+     */
+    public String launchClassPath() {
+        if (directories().isEmpty()) {
+            return classPath;
+        }
+        List<String> entries = new ArrayList<>();
+        entries.add(packedJar().toString());
+        for (String entry : classPath.split(File.pathSeparator)) {
+            if (!Files.isDirectory(Paths.get(entry))) {
+                entries.add(entry);
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    List<String> trainingCommand() {
+        return command("-XX:ArchiveClassesAtExit=" + archive);
+    }
+
+    List<String> runCommand(boolean withArchive) {
+        return withArchive
+                ? command("-XX:SharedArchiveFile=" + archive)
+                : command("-Xshare:auto");
+    }
+
+    private List<String> command(String cdsOption) {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.add(cdsOption);
+        command.add("-cp");
+        command.add(launchClassPath());
+        command.add(TrainingRun.class.getName());
+        return command;
+    }
+
+    private List<Path> directories() {
+        return Stream.of(classPath.split(File.pathSeparator))
+                .filter(entry -> !entry.isEmpty())
+                .map(Paths::get)
+                .filter(Files::isDirectory)
+                .collect(Collectors.toList());
+    }
+
+    private Path packedJar() {
+        return archive.toAbsolutePath().resolveSibling(archive.getFileName() + ".jar");
+    }
+
+    /*
+     * Writes every file under the class path directories into one jar, the first directory
+     * winning for a path present in several.
+     */
+    private void packDirectories() throws IOException {
+        List<Path> directories = directories();
+        if (directories.isEmpty()) {
+            return;
+        }
+        Set<String> written = new HashSet<>();
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(packedJar()))) {
+            for (Path directory : directories) {
+                List<Path> files;
+                try (Stream<Path> walk = Files.walk(directory)) {
+                    files = walk.filter(Files::isRegularFile).sorted()
+                            .collect(Collectors.toList());
+                }
+                for (Path file : files) {
+                    String name = directory.relativize(file).toString()
+                            .replace(File.separatorChar, '/');
+                    if (!written.add(name)) {
+                        continue;
+                    }
+                    jar.putNextEntry(new JarEntry(name));
+                    Files.copy(file, (OutputStream) jar);
+                    jar.closeEntry();
+                }
+            }
+        }
+    }
+
+    private static Launch launch(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        byte[] output = process.getInputStream().readAllBytes();
+        int status = process.waitFor();
+        long nanos = System.nanoTime() - start;
+        String text = new String(output);
+        if (status != 0) {
+            throw new IOException(String.join(" ", command) + " exited with " + status
+                    + ": " + text);
+        }
+        return new Launch(nanos, text);
+    }
+
+    private static final class Launch {
+
+        private final long nanos;
+
+        private final String output;
+
+        Launch(long nanos, String output) {
+            this.nanos = nanos;
+            this.output = output;
+        }
+    }
+
+    /**
+     * JVM wall times, launch to exit, without and with the archive.
+     */
+    public static final class Comparison {
+
+        private final long[] without;
+
+        private final long[] with;
+
+        Comparison(long[] without, long[] with) {
+            this.without = without.clone();
+            this.with = with.clone();
+            Arrays.sort(this.without);
+            Arrays.sort(this.with);
+        }
+
+        /**
+         * @return - Median wall time without the archive, in nanoseconds
+         */
+        public long medianWithout() {
+            return median(without);
+        }
+
+        /**
+         * @return - Median wall time with the archive, in nanoseconds
+         */
+        public long medianWith() {
+            return median(with);
+        }
+
+        public String toMarkdown() {
+            return "| Startup | Runs | Median (ms) | Min (ms) | Max (ms) |\n"
+                    + "|---|---:|---:|---:|---:|\n"
+                    + row("without archive", without)
+                    + row("with archive", with)
+                    + String.format(Locale.ROOT, "\nMedian saving: %.1f%%\n",
+                    100.0 * (medianWithout() - medianWith()) / medianWithout());
+        }
+
+        private static String row(String label, long[] sorted) {
+            return String.format(Locale.ROOT, "| %s | %d | %.1f | %.1f | %.1f |\n", label,
+                    sorted.length, median(sorted) / 1e6, sorted[0] / 1e6,
+                    sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static long median(long[] sorted) {
+            int middle = sorted.length / 2;
+            return sorted.length % 2 == 1
+                    ? sorted[middle]
+                    : (sorted[middle - 1] + sorted[middle]) / 2;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package none.cvg.startup;
+
+/*
+ * The fields the variables kata reaches with VarHandles, as declared by SGetterTest and
+ * SCompareAndSetTest, which are not on the main class path.
+ */
+final class KataFields {
+
+    public Integer publicVariable = 1;
+
+    private Integer privateVariable = 2;
+
+    private int[] privatePrimitiveArrayVariable = {1, 2, 3};
+
+    private int[][] privatePrimitive2DArrayVariable = {
+            {1, 2, 3},
+            {4, 5, 6},
+            {7, 8, 9}
+    };
+
+    private volatile Integer privateVolatile = 2;
+}
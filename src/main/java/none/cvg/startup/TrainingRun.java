@@ -0,0 +1,112 @@
+package none.cvg.startup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.management.ManagementFactory;
+
+import none.cvg.DemoClass;
+import none.cvg.registry.HandleRegistry;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+
+/**
+ * The startup workload of the kata: resolves and calls every handle the solutions use.
+ * <p>
+ * Through a {@link HandleRegistry}, it finds the DemoClass constructors and the methods of
+ * each access level, and calls them with {@code invokeExact} and {@code invoke}. It then finds
+ * VarHandles on the getter and compare-and-set fields, reads them, reads array elements, and
+ * swaps a volatile field. Each call shape links its own invokers and LambdaForms. Run as the
+ * training pass of a dynamic CDS archive, the classes loaded and spun here are what the
+ * archive can hold; run against the archive, it is the startup being measured.
+ */
+public final class TrainingRun {
+
+    private static final MethodType STRING_TO_STRING =
+            MethodType.methodType(String.class, String.class);
+
+    private static final String[] ACCESS_LEVELS =
+            {"public", "protected", "packageProtected", "private"};
+
+    private TrainingRun() {
+    }
+
+    /**
+     * Prints the number of handles used and the JVM uptime when done.
+     *
+     * @param args - Not used
+     */
+    public static void main(String[] args) {
+        int handles = run(new HandleRegistry());
+        System.out.println("Trained " + handles + " handles, uptime "
+                + ManagementFactory.getRuntimeMXBean().getUptime() + " ms");
+    }
+
+    /**
+     * @param registry - Registry resolving the handles
+     * @return - The number of handles resolved
+     */
+    public static int run(HandleRegistry registry) {
+        try {
+
+            DemoClass demoClass = (DemoClass) registry.findConstructor(DemoClass.class,
+                    MethodType.methodType(void.class)).invokeExact();
+            DemoClass named = (DemoClass) registry.findConstructor(DemoClass.class,
+                    MethodType.methodType(void.class, String.class)).invokeExact("training");
+            check(named.printStuff("run").equals("[training] - run"), "constructor");
+
+            for (String accessLevel : ACCESS_LEVELS) {
+                MethodHandle method = registry.findVirtual(DemoClass.class,
+                        accessLevel + "Method", STRING_TO_STRING);
+                String exact = (String) method.invokeExact(demoClass, accessLevel);
+                Object generic = method.invoke((Object) demoClass, (Object) accessLevel);
+                check(exact.equals(generic), accessLevel + "Method");
+            }
+            MethodHandle publicStatic = registry.findStatic(DemoClass.class,
+                    "publicStaticMethod", STRING_TO_STRING);
+            check(((String) publicStatic.invokeExact("static")).endsWith("static"),
+                    "publicStaticMethod");
+
+            KataFields fields = new KataFields();
+            VarHandle publicVariable = registry.findVarHandle(KataFields.class,
+                    "publicVariable", Integer.class);
+            VarHandle privateVariable = registry.findVarHandle(KataFields.class,
+                    "privateVariable", Integer.class);
+            check((Integer) publicVariable.get(fields) == 1, "publicVariable");
+            check((Integer) privateVariable.get(fields) == 2, "privateVariable");
+
+            VarHandle array = registry.findVarHandle(KataFields.class,
+                    "privatePrimitiveArrayVariable", int[].class);
+            VarHandle element = MethodHandles.arrayElementVarHandle(int[].class);
+            check((int) element.get((int[]) array.get(fields), 2) == 3,
+                    "privatePrimitiveArrayVariable");
+
+            VarHandle array2D = registry.findVarHandle(KataFields.class,
+                    "privatePrimitive2DArrayVariable", int[][].class);
+            VarHandle row = MethodHandles.arrayElementVarHandle(int[][].class);
+            check((int) element.get((int[]) row.get((int[][]) array2D.get(fields), 1), 1) == 5,
+                    "privatePrimitive2DArrayVariable");
+
+            VarHandle privateVolatile = registry.findVarHandle(KataFields.class,
+                    "privateVolatile", Integer.class);
+            Integer current = (Integer) privateVolatile.getVolatile(fields);
+            check(privateVolatile.compareAndSet(fields, current, Integer.valueOf(7)),
+                    "privateVolatile");
+
+            return registry.size() + 2;
+
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(),
+                    t);
+        }
+    }
+
+    private static void check(boolean condition, String member) {
+        if (!condition) {
+            throw new IllegalStateException("Unexpected result from " + member);
+        }
+    }
+}
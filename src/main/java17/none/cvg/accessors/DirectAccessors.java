@@ -0,0 +1,84 @@
+package none.cvg.accessors;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * Creates accessors for instance methods and fields, including private ones.
+ * <p>
+ * This Java 17+ version of the class generates a hidden class per target with
+ * {@code Lookup.defineHiddenClass}. The hidden class holds a direct {@code invokevirtual} or
+ * {@code getfield} accessor and is a nestmate of the owner, so private members are reachable.
+ * The target is first resolved with {@code findVirtual}/{@code findGetter}, so a missing or
+ * inaccessible member fails exactly as it does on the Java 11 baseline. When the lookup lacks
+ * full privilege access to the owner, or the owner is an interface or a hidden class, that
+ * resolved handle is returned instead.
+ */
+public final class DirectAccessors {
+
+    private DirectAccessors() {
+    }
+
+    /**
+     * Returns a handle invoking an instance method.
+     *
+     * @param lookup - Lookup with private access to the owner
+     * @param owner - Class declaring the method
+     * @param name - Method name
+     * @param type - Method type, without the receiver
+     * @return - A handle of type {@code (owner, parameters...)returnType}
+     */
+    public static MethodHandle method(MethodHandles.Lookup lookup, Class<?> owner, String name,
+                                      MethodType type) {
+        try {
+
+            MethodHandles.Lookup ownerLookup = MethodHandles.privateLookupIn(owner, lookup);
+            MethodHandle resolved = ownerLookup.findVirtual(owner, name, type);
+            if (!canGenerate(ownerLookup, owner)) {
+                return resolved;
+            }
+            return HiddenAccessorGenerator.method(ownerLookup, owner, name, type);
+
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns a handle reading an instance field.
+     *
+     * @param lookup - Lookup with private access to the owner
+     * @param owner - Class declaring the field
+     * @param name - Field name
+     * @param type - Field type
+     * @return - A handle of type {@code (owner)type}
+     */
+    public static MethodHandle getter(MethodHandles.Lookup lookup, Class<?> owner, String name,
+                                      Class<?> type) {
+        try {
+
+            MethodHandles.Lookup ownerLookup = MethodHandles.privateLookupIn(owner, lookup);
+            MethodHandle resolved = ownerLookup.findGetter(owner, name, type);
+            if (!canGenerate(ownerLookup, owner)) {
+                return resolved;
+            }
+            return HiddenAccessorGenerator.getter(ownerLookup, owner, name, type);
+
+        } catch (NoSuchFieldException | NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+    }
+
+    private static boolean canGenerate(MethodHandles.Lookup ownerLookup, Class<?> owner) {
+        return ownerLookup.hasFullPrivilegeAccess()
+                && !owner.isInterface()
+                && !owner.isHidden()
+                && !owner.isArray()
+                && !owner.isPrimitive();
+    }
+}
@@ -0,0 +1,92 @@
+package none.cvg.accessors;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import none.cvg.bytecode.ClassFileBuilder;
+
+import static none.cvg.bytecode.ClassFileBuilder.ACC_FINAL;
+import static none.cvg.bytecode.ClassFileBuilder.ACC_PUBLIC;
+import static none.cvg.bytecode.ClassFileBuilder.ACC_STATIC;
+import static none.cvg.bytecode.ClassFileBuilder.ACC_SUPER;
+import static none.cvg.bytecode.ClassFileBuilder.ACC_SYNTHETIC;
+import static none.cvg.bytecode.ClassFileBuilder.Code.GETFIELD;
+import static none.cvg.bytecode.ClassFileBuilder.Code.INVOKEVIRTUAL;
+import static none.cvg.bytecode.ClassFileBuilder.descriptor;
+import static none.cvg.bytecode.ClassFileBuilder.internalName;
+
+/**
+ * Defines one hidden class per accessor, as a nestmate of the target's owner.
+ * <p>
+ * The hidden class has a single static method {@code access} whose body is the direct
+ * {@code invokevirtual} or {@code getfield} instruction for the target. Being a nestmate, it
+ * may reach private members of the owner. It is not defined with the {@code STRONG} option,
+ * so it is unloaded once the returned handle is no longer reachable.
+ */
+final class HiddenAccessorGenerator {
+
+    private static final String ACCESSOR_METHOD = "access";
+
+    private HiddenAccessorGenerator() {
+    }
+
+    static MethodHandle method(MethodHandles.Lookup ownerLookup, Class<?> owner, String name,
+                               MethodType type) throws IllegalAccessException,
+            NoSuchMethodException {
+
+        MethodType accessorType = type.insertParameterTypes(0, owner);
+
+        ClassFileBuilder classFile = newAccessorClass(owner);
+        int target = classFile.methodRef(internalName(owner), name,
+                type.toMethodDescriptorString());
+
+        int argumentSlots = ClassFileBuilder.Code.slots(accessorType);
+        ClassFileBuilder.Code code = new ClassFileBuilder.Code(
+                Math.max(argumentSlots, ClassFileBuilder.Code.slots(type.returnType())),
+                argumentSlots)
+                .loadAll(accessorType, 0)
+                .op(INVOKEVIRTUAL, target)
+                .returnValue(type.returnType());
+
+        return define(ownerLookup, classFile, accessorType, code);
+    }
+
+    static MethodHandle getter(MethodHandles.Lookup ownerLookup, Class<?> owner, String name,
+                               Class<?> type) throws IllegalAccessException,
+            NoSuchMethodException {
+
+        MethodType accessorType = MethodType.methodType(type, owner);
+
+        ClassFileBuilder classFile = newAccessorClass(owner);
+        int target = classFile.fieldRef(internalName(owner), name, descriptor(type));
+
+        ClassFileBuilder.Code code = new ClassFileBuilder.Code(
+                ClassFileBuilder.Code.slots(type), 1)
+                .load(owner, 0)
+                .op(GETFIELD, target)
+                .returnValue(type);
+
+        return define(ownerLookup, classFile, accessorType, code);
+    }
+
+    private static ClassFileBuilder newAccessorClass(Class<?> owner) {
+        return new ClassFileBuilder(ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC,
+                internalName(owner) + "$$DirectAccessor", "java/lang/Object");
+    }
+
+    private static MethodHandle define(MethodHandles.Lookup ownerLookup,
+                                       ClassFileBuilder classFile, MethodType accessorType,
+                                       ClassFileBuilder.Code code)
+            throws IllegalAccessException, NoSuchMethodException {
+
+        classFile.method(ACC_PUBLIC | ACC_STATIC, ACCESSOR_METHOD,
+                accessorType.toMethodDescriptorString(), code);
+
+        MethodHandles.Lookup accessorLookup = ownerLookup.defineHiddenClass(
+                classFile.toByteArray(), true, MethodHandles.Lookup.ClassOption.NESTMATE);
+
+        return accessorLookup.findStatic(accessorLookup.lookupClass(), ACCESSOR_METHOD,
+                accessorType);
+    }
+}
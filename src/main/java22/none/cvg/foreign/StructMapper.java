@@ -0,0 +1,388 @@
+package none.cvg.foreign;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static none.cvg.ErrorMessages.HANDLE_INVOCATION_FAILURE;
+import static none.cvg.ErrorMessages.HANDLE_RESOLUTION_FAILURE;
+
+/**
+ * Lays out the primitive instance fields of a class as a C-like struct in off-heap memory.
+ * <p>
+ * A {@link StructLayout} is derived from the primitive fields of the class and its
+ * superclasses; a superclass field hidden by a subclass field of the same name is skipped.
+ * Fields are ordered by decreasing size, so no padding is needed between them, and the struct
+ * is padded at the end to its alignment. Reference fields are not part of the layout. Each
+ * field is accessed through a VarHandle derived from the layout with
+ * {@code arrayElementVarHandle}, taking a segment, a base offset and a record index. No object
+ * header or field offset is involved, which makes this the supported replacement for the
+ * {@code Unsafe.objectFieldOffset} and {@code Unsafe.getInt/putInt} tricks.
+ * <p>
+ * {@link #store(Object, MemorySegment, long)} and {@link #load(MemorySegment, long, Object)}
+ * copy a record between a heap object and a segment. They use a single handle composed from
+ * the field VarHandles of the class and of the layout, so no value is boxed. Final fields are
+ * stored, but are skipped when loading.
+ *
+ * @param <T> - the type being mapped
+ */
+public final class StructMapper<T> {
+
+    private static final ClassValue<StructMapper<?>> MAPPERS = new ClassValue<>() {
+        @Override
+        protected StructMapper<?> computeValue(Class<?> type) {
+            try {
+                return new StructMapper<>(type,
+                        MethodHandles.privateLookupIn(type, MethodHandles.lookup()));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(
+                        HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+            }
+        }
+    };
+
+    private static final MethodType STORE_TYPE = MethodType.methodType(void.class,
+            Object.class, MemorySegment.class, long.class, long.class);
+
+    private final Class<T> type;
+
+    private final StructLayout layout;
+
+    private final Map<String, FieldAccessor> accessors = new LinkedHashMap<>();
+
+    private final MethodHandle store;
+
+    private final MethodHandle load;
+
+    private StructMapper(Class<T> type, MethodHandles.Lookup lookup) {
+
+        this.type = type;
+
+        List<Field> fields = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()
+                        && seen.add(field.getName()) && field.getType().isPrimitive()) {
+                    fields.add(field);
+                }
+            }
+        }
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException(type.getName() + " has no primitive fields");
+        }
+        fields.sort(Comparator.comparingLong(
+                (Field field) -> valueLayout(field.getType()).byteSize()).reversed());
+
+        List<MemoryLayout> members = new ArrayList<>();
+        long size = 0;
+        long alignment = 1;
+        for (Field field : fields) {
+            ValueLayout member = valueLayout(field.getType()).withName(field.getName());
+            members.add(member);
+            size += member.byteSize();
+            alignment = Math.max(alignment, member.byteAlignment());
+        }
+        if (size % alignment != 0) {
+            members.add(MemoryLayout.paddingLayout(alignment - size % alignment));
+        }
+        this.layout = MemoryLayout.structLayout(members.toArray(new MemoryLayout[0]))
+                .withName(type.getSimpleName());
+
+        MethodHandle storeAll = MethodHandles.empty(STORE_TYPE);
+        MethodHandle loadAll = MethodHandles.empty(STORE_TYPE);
+
+        try {
+
+            for (Field field : fields) {
+
+                VarHandle segmentHandle = layout.arrayElementVarHandle(
+                        MemoryLayout.PathElement.groupElement(field.getName()));
+                accessors.put(field.getName(),
+                        new FieldAccessor(field.getName(), field.getType(), segmentHandle));
+
+                VarHandle objectHandle = MethodHandles
+                        .privateLookupIn(field.getDeclaringClass(), lookup)
+                        .findVarHandle(field.getDeclaringClass(), field.getName(),
+                                field.getType());
+
+                // (segment, base, index, object)void
+                MethodHandle storeField = MethodHandles.filterArguments(
+                        segmentHandle.toMethodHandle(VarHandle.AccessMode.SET), 3,
+                        objectHandle.toMethodHandle(VarHandle.AccessMode.GET));
+                storeAll = MethodHandles.foldArguments(storeAll,
+                        MethodHandles.permuteArguments(storeField.asType(
+                                MethodType.methodType(void.class, MemorySegment.class,
+                                        long.class, long.class, Object.class)),
+                                STORE_TYPE, 1, 2, 3, 0));
+
+                if (objectHandle.isAccessModeSupported(VarHandle.AccessMode.SET)) {
+                    // (object, segment, base, index)void
+                    MethodHandle loadField = MethodHandles.collectArguments(
+                            objectHandle.toMethodHandle(VarHandle.AccessMode.SET), 1,
+                            segmentHandle.toMethodHandle(VarHandle.AccessMode.GET));
+                    loadAll = MethodHandles.foldArguments(loadAll,
+                            loadField.asType(STORE_TYPE));
+                }
+            }
+
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    HANDLE_RESOLUTION_FAILURE.getValue() + e.getMessage(), e);
+        }
+
+        this.store = storeAll;
+        this.load = loadAll;
+    }
+
+    /**
+     * @return - Whether the Foreign Function and Memory mapper is available on this JDK
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Returns the cached mapper for a class in a module that is open to this one.
+     *
+     * @param type - Class whose primitive fields are mapped
+     * @param <T> - the type being mapped
+     * @return - A mapper shared by all callers for this class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> StructMapper<T> of(Class<T> type) {
+        return (StructMapper<T>) MAPPERS.get(type);
+    }
+
+    /**
+     * Creates an uncached mapper using the caller's lookup.
+     *
+     * @param type - Class whose primitive fields are mapped
+     * @param lookup - Lookup with private access to the class
+     * @param <T> - the type being mapped
+     * @return - A new mapper for this class
+     */
+    public static <T> StructMapper<T> of(Class<T> type, MethodHandles.Lookup lookup) {
+        return new StructMapper<>(type, lookup);
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    public StructLayout layout() {
+        return layout;
+    }
+
+    /**
+     * Allocates room for a number of records.
+     *
+     * @param arena - Arena owning the memory
+     * @param count - Number of records
+     * @return - A segment of {@code count} consecutive records
+     */
+    public MemorySegment allocate(Arena arena, long count) {
+        return arena.allocate(layout, count);
+    }
+
+    /**
+     * @param name - Name of a primitive field of the class
+     * @return - A typed accessor for that field in every record of a segment
+     */
+    public FieldAccessor field(String name) {
+        FieldAccessor accessor = accessors.get(name);
+        if (accessor == null) {
+            throw new IllegalArgumentException("No primitive field " + name + " in "
+                    + type.getName());
+        }
+        return accessor;
+    }
+
+    public Map<String, FieldAccessor> fields() {
+        return Collections.unmodifiableMap(accessors);
+    }
+
+    /**
+     * Copies the primitive fields of an object into a record.
+     *
+     * @param source - Object to read
+     * @param segment - Segment of records
+     * @param index - Index of the record to write
+     */
+    public void store(T source, MemorySegment segment, long index) {
+        try {
+            store.invokeExact((Object) source, segment, 0L, index);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+    }
+
+    /**
+     * Copies a record into the non-final primitive fields of an object.
+     *
+     * @param segment - Segment of records
+     * @param index - Index of the record to read
+     * @param target - Object to write
+     * @return - The target object
+     */
+    public T load(MemorySegment segment, long index, T target) {
+        try {
+            load.invokeExact((Object) target, segment, 0L, index);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(
+                    HANDLE_INVOCATION_FAILURE.getValue() + t.getMessage(), t);
+        }
+        return target;
+    }
+
+    private static ValueLayout valueLayout(Class<?> type) {
+        if (type == int.class) {
+            return ValueLayout.JAVA_INT;
+        }
+        if (type == long.class) {
+            return ValueLayout.JAVA_LONG;
+        }
+        if (type == double.class) {
+            return ValueLayout.JAVA_DOUBLE;
+        }
+        if (type == float.class) {
+            return ValueLayout.JAVA_FLOAT;
+        }
+        if (type == short.class) {
+            return ValueLayout.JAVA_SHORT;
+        }
+        if (type == char.class) {
+            return ValueLayout.JAVA_CHAR;
+        }
+        if (type == byte.class) {
+            return ValueLayout.JAVA_BYTE;
+        }
+        if (type == boolean.class) {
+            return ValueLayout.JAVA_BOOLEAN;
+        }
+        throw new IllegalArgumentException("Not a primitive type: " + type);
+    }
+
+    /**
+     * A flyweight accessor for one field across all records of a segment.
+     * <p>
+     * The typed getters and setters must match the field type. For the best code, keep the
+     * {@link #varHandle()} in a {@code static final} field, so the JIT treats it as a
+     * constant.
+     */
+    public static final class FieldAccessor {
+
+        private final String name;
+
+        private final Class<?> type;
+
+        private final VarHandle handle;
+
+        FieldAccessor(String name, Class<?> type, VarHandle handle) {
+            this.name = name;
+            this.type = type;
+            this.handle = handle.withInvokeExactBehavior();
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public Class<?> type() {
+            return type;
+        }
+
+        /**
+         * @return - A VarHandle with coordinates (MemorySegment segment, long baseOffset,
+         *           long index)
+         */
+        public VarHandle varHandle() {
+            return handle;
+        }
+
+        public int getInt(MemorySegment segment, long index) {
+            return (int) handle.get(segment, 0L, index);
+        }
+
+        public void setInt(MemorySegment segment, long index, int value) {
+            handle.set(segment, 0L, index, value);
+        }
+
+        public long getLong(MemorySegment segment, long index) {
+            return (long) handle.get(segment, 0L, index);
+        }
+
+        public void setLong(MemorySegment segment, long index, long value) {
+            handle.set(segment, 0L, index, value);
+        }
+
+        public double getDouble(MemorySegment segment, long index) {
+            return (double) handle.get(segment, 0L, index);
+        }
+
+        public void setDouble(MemorySegment segment, long index, double value) {
+            handle.set(segment, 0L, index, value);
+        }
+
+        public float getFloat(MemorySegment segment, long index) {
+            return (float) handle.get(segment, 0L, index);
+        }
+
+        public void setFloat(MemorySegment segment, long index, float value) {
+            handle.set(segment, 0L, index, value);
+        }
+
+        public short getShort(MemorySegment segment, long index) {
+            return (short) handle.get(segment, 0L, index);
+        }
+
+        public void setShort(MemorySegment segment, long index, short value) {
+            handle.set(segment, 0L, index, value);
+        }
+
+        public char getChar(MemorySegment segment, long index) {
+            return (char) handle.get(segment, 0L, index);
+        }
+
+        public void setChar(MemorySegment segment, long index, char value) {
+            handle.set(segment, 0L, index, value);
+        }
+
+        public byte getByte(MemorySegment segment, long index) {
+            return (byte) handle.get(segment, 0L, index);
+        }
+
+        public void setByte(MemorySegment segment, long index, byte value) {
+            handle.set(segment, 0L, index, value);
+        }
+
+        public boolean getBoolean(MemorySegment segment, long index) {
+            return (boolean) handle.get(segment, 0L, index);
+        }
+
+        public void setBoolean(MemorySegment segment, long index, boolean value) {
+            handle.set(segment, 0L, index, value);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.lang.reflect.Field;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
+import none.cvg.AllocationBudget;
 import none.cvg.HandlesKataDisplayNames;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.DisplayNameGeneration;
@@ -153,6 +154,7 @@ public class SCompareAndSetTest {
 
     }
 
+    @AllocationBudget(bytes = 36 * 1024, warmUps = 1)
     @Test
     @Tag("PASSING")
     @Order(4)
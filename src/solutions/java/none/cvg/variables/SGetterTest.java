@@ -4,6 +4,7 @@ import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 import java.lang.reflect.Field;
 
+import none.cvg.AllocationBudget;
 import none.cvg.HandlesKataDisplayNames;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.DisplayNameGeneration;
@@ -72,6 +73,7 @@ public class SGetterTest {
         }
     }
 
+    @AllocationBudget(bytes = 32 * 1024, warmUps = 1)
     @Test
     @Tag("PASSING")
     @Order(2)
@@ -143,6 +145,7 @@ public class SGetterTest {
         }
     }
 
+    @AllocationBudget(bytes = 8 * 1024, warmUps = 1)
     @Test
     @Tag("PASSING")
     @Order(4)
@@ -233,6 +236,7 @@ public class SGetterTest {
 
     }
 
+    @AllocationBudget(bytes = 8 * 1024, warmUps = 1)
     @Test
     @Tag("PASSING")
     @Order(6)
@@ -338,6 +342,7 @@ public class SGetterTest {
 
     }
 
+    @AllocationBudget(bytes = 8 * 1024, warmUps = 1)
     @Test
     @Tag("PASSING")
     @Order(8)
@@ -0,0 +1,66 @@
+package none.cvg.accessors;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import none.cvg.DemoClass;
+import none.cvg.HandlesKataDisplayNames;
+import none.cvg.variables.SGetterTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Direct accessors for private members")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class DirectAccessorsTest {
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void privateMethod() throws Throwable {
+
+        MethodHandle privateMethod = DirectAccessors.method(MethodHandles.lookup(),
+                DemoClass.class, "privateMethod",
+                MethodType.methodType(String.class, String.class));
+
+        assertEquals(MethodType.methodType(String.class, DemoClass.class, String.class),
+                privateMethod.type(),
+                "The receiver should be the leading parameter");
+
+        assertEquals("[DemoClass] - Private method via accessor",
+                (String) privateMethod.invokeExact(new DemoClass(), "via accessor"),
+                "The private method should be invoked");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void privateVariable() throws Throwable {
+
+        MethodHandle privateVariable = DirectAccessors.getter(MethodHandles.lookup(),
+                SGetterTest.class, "privateVariable", Integer.class);
+
+        assertEquals(2,
+                (Integer) privateVariable.invokeExact(new SGetterTest()),
+                "The private field should be read");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void missingMemberFails() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> DirectAccessors.getter(MethodHandles.lookup(), DemoClass.class,
+                        "missing", String.class));
+    }
+}
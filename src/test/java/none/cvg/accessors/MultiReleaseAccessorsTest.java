@@ -0,0 +1,162 @@
+package none.cvg.accessors;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import none.cvg.DemoClass;
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/*
+ * Surefire runs on target/classes, where the class loader ignores META-INF/versions. These
+ * tests pack the classes into a multi-release jar, as the build does, and load the accessors
+ * from it in a class loader of their own.
+ */
+@DisplayName("Hidden-class accessors of the Java 17 release")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class MultiReleaseAccessorsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void primitiveFieldsThroughHiddenClasses() throws Throwable {
+
+        assumeTrue(Runtime.version().feature() >= 17, "The versioned classes need JDK 17");
+
+        Path classes = location(DirectAccessors.class);
+        assertTrue(Files.isDirectory(classes.resolve("META-INF/versions/17")),
+                "A JDK 17 build should compile the versioned classes");
+
+        Path jar = pack(classes, directory.resolve("accessors.jar"));
+        URL[] urls = {jar.toUri().toURL(), location(PrimitiveFields.class).toUri().toURL()};
+        try (URLClassLoader loader = new URLClassLoader(urls,
+                ClassLoader.getPlatformClassLoader())) {
+
+            Class<?> accessors = loader.loadClass(DirectAccessors.class.getName());
+            Class<?> fields = loader.loadClass(PrimitiveFields.class.getName());
+            MethodHandles.Lookup lookup =
+                    (MethodHandles.Lookup) fields.getMethod("lookup").invoke(null);
+            Object instance = fields.getConstructor().newInstance();
+
+            assertEquals(42, read(accessors, lookup, fields, instance, "count", int.class),
+                    "The int field should be read");
+            assertEquals(1L << 40, read(accessors, lookup, fields, instance, "total",
+                    long.class), "The long field should be read");
+            assertEquals(0.75, read(accessors, lookup, fields, instance, "ratio",
+                    double.class), "The double field should be read");
+        }
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void privateMethodThroughHiddenClass() throws Throwable {
+
+        assumeTrue(Runtime.version().feature() >= 17, "The versioned classes need JDK 17");
+
+        Path jar = pack(location(DirectAccessors.class), directory.resolve("accessors.jar"));
+        URL[] urls = {jar.toUri().toURL(), location(PrimitiveFields.class).toUri().toURL()};
+        try (URLClassLoader loader = new URLClassLoader(urls,
+                ClassLoader.getPlatformClassLoader())) {
+
+            Class<?> accessors = loader.loadClass(DirectAccessors.class.getName());
+            Class<?> demo = loader.loadClass(DemoClass.class.getName());
+            MethodHandles.Lookup lookup = (MethodHandles.Lookup) loader
+                    .loadClass(PrimitiveFields.class.getName())
+                    .getMethod("lookup").invoke(null);
+
+            MethodHandle method = (MethodHandle) accessors
+                    .getMethod("method", MethodHandles.Lookup.class, Class.class, String.class,
+                            MethodType.class)
+                    .invoke(null, lookup, demo, "privateMethod",
+                            MethodType.methodType(String.class, String.class));
+
+            assertGenerated(MethodHandles.privateLookupIn(demo, lookup), method,
+                    "privateMethod");
+            assertEquals(MethodType.methodType(String.class, demo, String.class), method.type(),
+                    "The accessor should take the receiver first");
+            assertEquals("[DemoClass] - Private method direct",
+                    method.invoke(demo.getConstructor().newInstance(), "direct"),
+                    "The private method should be invoked");
+        }
+    }
+
+    private static Object read(Class<?> accessors, MethodHandles.Lookup lookup, Class<?> owner,
+                               Object instance, String name, Class<?> type) throws Throwable {
+
+        MethodHandle getter = (MethodHandle) accessors
+                .getMethod("getter", MethodHandles.Lookup.class, Class.class, String.class,
+                        Class.class)
+                .invoke(null, lookup, owner, name, type);
+
+        assertGenerated(lookup, getter, name);
+        return getter.invoke(instance);
+    }
+
+    private static void assertGenerated(MethodHandles.Lookup lookup, MethodHandle accessor,
+                                        String name) throws Exception {
+
+        MethodHandleInfo info = lookup.revealDirect(accessor);
+        assertEquals(MethodHandleInfo.REF_invokeStatic, info.getReferenceKind(),
+                "The accessor of " + name + " should call the generated class");
+        assertTrue((Boolean) Class.class.getMethod("isHidden").invoke(info.getDeclaringClass()),
+                "The accessor of " + name + " should be a hidden class");
+    }
+
+    private static Path location(Class<?> type) throws Exception {
+        return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    private static Path pack(Path classes, Path jar) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(new Attributes.Name("Multi-Release"), "true");
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(classes)) {
+            files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            for (Path file : files) {
+                String name = classes.relativize(file).toString().replace('\\', '/');
+                if (name.equals("META-INF/MANIFEST.MF")) {
+                    continue;
+                }
+                out.putNextEntry(new JarEntry(name));
+                Files.copy(file, (OutputStream) out);
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
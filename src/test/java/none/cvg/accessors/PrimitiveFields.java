@@ -0,0 +1,20 @@
+package none.cvg.accessors;
+
+import java.lang.invoke.MethodHandles;
+
+/*
+ * Loaded by MultiReleaseAccessorsTest in a class loader of its own, next to the versioned
+ * accessor classes.
+ */
+public class PrimitiveFields {
+
+    private int count = 42;
+
+    private long total = 1L << 40;
+
+    private double ratio = 0.75;
+
+    public static MethodHandles.Lookup lookup() {
+        return MethodHandles.lookup();
+    }
+}
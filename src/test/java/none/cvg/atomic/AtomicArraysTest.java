@@ -0,0 +1,182 @@
+package none.cvg.atomic;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Update primitive and reference arrays atomically")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class AtomicArraysTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void intElementOperations() {
+
+        AtomicInts ints = new AtomicInts(new int[] {1, 2, 3});
+
+        assertEquals(2, ints.getAndAdd(1, 5), "getAndAdd should return the previous value");
+        assertEquals(8, ints.addAndGet(1, 1), "addAndGet should return the new value");
+        assertTrue(ints.compareAndSet(0, 1, 10), "The CAS should succeed on the expected value");
+        assertFalse(ints.compareAndSet(0, 1, 20), "The CAS should fail on a stale value");
+        assertEquals(10, ints.compareAndExchange(0, 1, 20), "The witness should be returned");
+
+        assertEquals(3, ints.accumulateMax(2, 7), "The previous value should be returned");
+        assertEquals(7, ints.accumulateMax(2, 4), "A lower value should not replace the max");
+        assertEquals(7, ints.accumulateMin(2, 5), "The previous value should be returned");
+        assertEquals(5, ints.accumulateMin(2, 6), "A higher value should not replace the min");
+
+        assertArrayEquals(new int[] {10, 8, 5}, ints.snapshotAcquire(), "Snapshot");
+        ints.setAllRelease(new int[] {-1, -2, -3});
+        assertEquals(-6, ints.sum(), "The released values should be summed");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void concurrentLongAccumulation() {
+
+        AtomicLongs longs = new AtomicLongs(3);
+        longs.set(1, Long.MAX_VALUE);
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 10_000; i++) {
+                long value = thread * 10_000L + i;
+                longs.getAndIncrement(0);
+                longs.accumulateMin(1, value);
+                longs.accumulateMax(2, value);
+            }
+        });
+
+        assertArrayEquals(new long[] {THREADS * 10_000L, 0, THREADS * 10_000L - 1},
+                longs.snapshotAcquire(),
+                "No increment, minimum or maximum should be lost");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void referenceUpdates() {
+
+        AtomicReferences<String> references = new AtomicReferences<>(List.of("a", "b"));
+
+        assertEquals("a", references.getAndUpdate(0, value -> value + "!"), "Previous value");
+        assertEquals("b+c", references.accumulateAndGet(1, "c", (a, b) -> a + "+" + b),
+                "Accumulated value");
+        String current = references.get(1);
+        assertTrue(references.compareAndSet(1, current, "d"),
+                "The CAS should succeed on the same reference");
+        assertEquals(List.of("a!", "d"), references.snapshotAcquire(), "Snapshot");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(4)
+    public void bitSetClaimsEveryBitOnce() {
+
+        AtomicBitSet bits = new AtomicBitSet(1000);
+        AtomicLongs claims = new AtomicLongs(THREADS);
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 1000; i++) {
+                if (bits.set(i)) {
+                    claims.getAndIncrement(thread);
+                }
+            }
+        });
+
+        long total = 0;
+        for (long claim : claims.snapshotAcquire()) {
+            total += claim;
+        }
+        assertEquals(1000, total, "Every bit should be claimed by exactly one thread");
+        assertEquals(1000, bits.cardinality(), "Every bit should be set");
+
+        assertTrue(bits.clear(64), "Clearing a set bit should report the change");
+        assertFalse(bits.clear(64), "Clearing a clear bit should not");
+        assertEquals(64, bits.nextClearBit(0), "The cleared bit should be found");
+        assertEquals(65, bits.nextSetBit(64), "The next set bit should be found");
+        assertEquals(-1, bits.nextClearBit(65), "No bit after the cleared one is clear");
+
+        BitSet expected = new BitSet();
+        expected.set(0, 1000);
+        expected.clear(64);
+        assertEquals(expected, bits.snapshotAcquire(), "The snapshot should be a BitSet");
+        assertThrows(IndexOutOfBoundsException.class, () -> bits.set(1000));
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(5)
+    public void histogramFromManyThreads() {
+
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+
+        runConcurrently(thread -> {
+            for (int value = 1; value <= 100_000; value++) {
+                if (value % THREADS == thread) {
+                    histogram.record(value);
+                }
+            }
+        });
+
+        ConcurrentHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100_000, snapshot.totalCount(), "No value should be lost");
+        assertEquals(100_000, snapshot.max(), "The maximum should be exact");
+        assertWithinOnePercent(50_000, snapshot.valueAtPercentile(50), "p50");
+        assertWithinOnePercent(99_000, snapshot.valueAtPercentile(99), "p99");
+        assertWithinOnePercent(99_900, snapshot.valueAtPercentile(99.9), "p99.9");
+
+        assertEquals(100_000,
+                histogram.snapshotAndReset().totalCount(),
+                "The reset snapshot should hold every value");
+        histogram.record(42);
+        ConcurrentHistogram.Snapshot next = histogram.snapshot();
+        assertEquals(1, next.totalCount(), "Only values after the reset should be counted");
+        assertEquals(42, next.valueAtPercentile(50), "Small values should be exact");
+    }
+
+    private static void runConcurrently(ThreadBody body) {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int id = thread;
+                futures.add(CompletableFuture.runAsync(() -> body.run(id), executor));
+            }
+            futures.forEach(CompletableFuture::join);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertWithinOnePercent(long expected, long actual, String percentile) {
+        assertTrue(Math.abs(actual - expected) <= expected / 100,
+                percentile + " should be within 1% of " + expected + " but was " + actual);
+    }
+
+    private interface ThreadBody {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,183 @@
+package none.cvg.atomic;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Read several fields consistently with a sequence lock")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class SeqLockTest {
+
+    private static final int READERS = 7;
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void versionTracksWrites() {
+
+        SeqLock lock = new SeqLock();
+
+        long version = lock.readBegin();
+        assertTrue(lock.readValidate(version), "A read without a write should validate");
+
+        lock.beginWrite();
+        assertThrows(IllegalStateException.class, lock::beginWrite,
+                "Nested writes should be rejected");
+        lock.endWrite();
+        assertThrows(IllegalStateException.class, lock::endWrite,
+                "A write cannot be closed twice");
+
+        assertFalse(lock.readValidate(version), "A read overlapping a write should not");
+        assertEquals(2, lock.version(), "Each write should add two to the version");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void snapshotterCopiesEveryField() {
+
+        SeqLockSnapshotter<Quote> snapshotter =
+                SeqLockSnapshotter.of(Quote.class, MethodHandles.lookup());
+        assertEquals(8, snapshotter.fieldCount(), "Every non-final field should be copied");
+
+        SeqLock lock = new SeqLock();
+        Quote record = new Quote();
+        snapshotter.publish(lock, Quote.of(3), record);
+
+        Quote snapshot = snapshotter.snapshot(lock, record, new Quote());
+        assertTrue(snapshot.isConsistent(), "The snapshot should hold one update");
+        assertEquals(3, snapshot.sequence, "The published values should be copied");
+        assertEquals("Q3", snapshot.symbol, "Reference fields should be copied");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void readersNeverSeeTornRecords() {
+
+        SeqLockSnapshotter<Quote> snapshotter =
+                SeqLockSnapshotter.of(Quote.class, MethodHandles.lookup());
+        SeqLock lock = new SeqLock();
+        Quote record = Quote.of(0);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        int updates = 200_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+        try {
+            List<CompletableFuture<Long>> readers = new ArrayList<>();
+            for (int reader = 0; reader < READERS; reader++) {
+                readers.add(CompletableFuture.supplyAsync(() -> {
+                    Quote snapshot = new Quote();
+                    long lastSequence = 0;
+                    long snapshots = 0;
+                    while (writing.get() || snapshots == 0) {
+                        snapshotter.snapshot(lock, record, snapshot);
+                        assertTrue(snapshot.isConsistent(), "Torn snapshot: " + snapshot);
+                        assertTrue(snapshot.sequence >= lastSequence,
+                                "Snapshots should not go back in time");
+                        lastSequence = snapshot.sequence;
+                        snapshots++;
+                    }
+                    return snapshots;
+                }, executor));
+            }
+
+            CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+                for (long sequence = 1; sequence <= updates; sequence++) {
+                    lock.beginWrite();
+                    record.write(sequence);
+                    lock.endWrite();
+                }
+                writing.set(false);
+            }, executor);
+
+            writer.join();
+            readers.forEach(reader -> assertTrue(reader.join() > 0, "Every reader should read"));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(2L * updates, lock.version(), "Every write should be counted");
+        Quote last = snapshotter.snapshot(lock, record, new Quote());
+        assertEquals(updates, last.sequence, "The last update should be visible");
+    }
+
+    static class Record {
+
+        long sequence;
+    }
+
+    /*
+     * Eight fields, all derived from the sequence of the update that wrote them.
+     */
+    static final class Quote extends Record {
+
+        private final int schema = 1;
+
+        double bid;
+
+        double ask;
+
+        long bidSize;
+
+        long askSize;
+
+        int depth;
+
+        long timestamp;
+
+        String symbol;
+
+        static Quote of(long sequence) {
+            Quote quote = new Quote();
+            quote.write(sequence);
+            return quote;
+        }
+
+        void write(long sequence) {
+            this.sequence = sequence;
+            this.bid = sequence;
+            this.ask = sequence + 0.5;
+            this.bidSize = sequence * 10;
+            this.askSize = sequence * 20;
+            this.depth = (int) (sequence % 10);
+            this.timestamp = -sequence;
+            this.symbol = "Q" + sequence;
+        }
+
+        boolean isConsistent() {
+            return bid == sequence
+                    && ask == sequence + 0.5
+                    && bidSize == sequence * 10
+                    && askSize == sequence * 20
+                    && depth == (int) (sequence % 10)
+                    && timestamp == -sequence
+                    && ("Q" + sequence).equals(symbol);
+        }
+
+        @Override
+        public String toString() {
+            return sequence + " " + bid + " " + ask + " " + bidSize + " " + askSize + " "
+                    + depth + " " + timestamp + " " + symbol;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package none.cvg.bulk;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import none.cvg.DemoClass;
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Invoke a handle over many receivers")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class BulkInvokerTest {
+
+    private static final int SIZE = 50_000;
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void printStuffOverArray() throws ReflectiveOperationException {
+
+        DemoClass[] receivers = new DemoClass[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            receivers[i] = new DemoClass("demo-" + i);
+        }
+
+        Object[] results = new BulkInvoker(printStuff(), ForkJoinPool.commonPool(), 1024)
+                .invokeAll(receivers, new Object[SIZE]);
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals("[demo-" + i + "] - bulk",
+                    results[i],
+                    "Each result should be written at the receiver's index");
+        }
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void publicMethodOverList() throws ReflectiveOperationException {
+
+        MethodHandle publicMethod = MethodHandles.insertArguments(
+                MethodHandles.publicLookup().findVirtual(DemoClass.class, "publicMethod",
+                        MethodType.methodType(String.class, String.class)),
+                1, "bulk");
+
+        DemoClass[] receivers = new DemoClass[SIZE];
+        Arrays.fill(receivers, new DemoClass());
+        List<DemoClass> linked = new LinkedList<>(Arrays.asList(receivers));
+
+        Object[] results = BulkInvoker.of(publicMethod).invokeAll(linked, new Object[SIZE]);
+
+        assertEquals("[DemoClass] - Public method - bulk",
+                results[SIZE - 1],
+                "Lists without random access should be handled too");
+    }
+
+    private static MethodHandle printStuff() throws ReflectiveOperationException {
+        return MethodHandles.insertArguments(
+                MethodHandles.publicLookup().findVirtual(DemoClass.class, "printStuff",
+                        MethodType.methodType(String.class, String.class)),
+                1, "bulk");
+    }
+}
@@ -0,0 +1,103 @@
+package none.cvg.bulk;
+
+import java.util.concurrent.ForkJoinPool;
+
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Project fields into primitive columns and back")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class FieldColumnTest {
+
+    private static final int SIZE = 50_000;
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void extractPrivateFields() {
+
+        Position[] positions = positions();
+
+        int[] quantities = FieldColumn.of(Position.class, "quantity")
+                .on(ForkJoinPool.commonPool(), 1024)
+                .toInts(positions, new int[SIZE]);
+        double[] prices = FieldColumn.of(Position.class, "price")
+                .toDoubles(positions, new double[SIZE]);
+        long[] widened = FieldColumn.of(Position.class, "quantity")
+                .toLongs(positions, new long[SIZE]);
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(i, quantities[i], "Each value should land at the object's index");
+            assertEquals(i / 2.0, prices[i], "Double fields should fill a double column");
+            assertEquals(i, widened[i], "Int fields should widen into a long column");
+        }
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void scatterBackIntoObjects() {
+
+        Position[] positions = positions();
+
+        FieldColumn<Position> prices = FieldColumn.of(Position.class, "price");
+        double[] column = prices.toDoubles(positions, new double[SIZE]);
+        for (int i = 0; i < SIZE; i++) {
+            column[i] *= 2;
+        }
+        prices.scatter(column, positions);
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(i, positions[i].price, "Scattered values should be written back");
+        }
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void incompatibleColumnsFail() {
+
+        Position[] positions = positions();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> FieldColumn.of(Position.class, "price").toInts(positions, new int[SIZE]),
+                "A double field should not narrow into an int column");
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> FieldColumn.of(Position.class, "id").scatter(new long[SIZE], positions),
+                "A final field should not be written");
+    }
+
+    private static Position[] positions() {
+        Position[] positions = new Position[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            positions[i] = new Position(i, i, i / 2.0);
+        }
+        return positions;
+    }
+
+    static class Position {
+
+        private final long id;
+
+        private int quantity;
+
+        private double price;
+
+        Position(long id, int quantity, double price) {
+            this.id = id;
+            this.quantity = quantity;
+            this.price = price;
+        }
+    }
+}
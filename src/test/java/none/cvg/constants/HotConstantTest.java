@@ -0,0 +1,78 @@
+package none.cvg.constants;
+
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Modify a constant through a call site")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class HotConstantTest {
+
+    private static final HotConstant<Integer> CONSTANT = HotConstant.of(Integer.class, 10);
+
+    private static final HotConstant<Boolean> FLAG = HotConstant.of(boolean.class, false);
+
+    private static final MethodHandle FLAG_VALUE = FLAG.invoker();
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void modifyConstantViaCallSite() {
+
+        assertEquals(10,
+                CONSTANT.get(),
+                "The constant should have a value of 10");
+
+        CONSTANT.set(-20);
+
+        assertEquals(-20,
+                CONSTANT.get(),
+                "The constant should have a value of -20");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void primitiveInvokerRelinksAfterUpdate() throws Throwable {
+
+        for (int i = 0; i < 20_000; i++) {
+            assertFalse((boolean) FLAG_VALUE.invokeExact(),
+                    "The flag should start off");
+        }
+
+        FLAG.set(true);
+
+        assertTrue((boolean) FLAG_VALUE.invokeExact(),
+                "The flag should be on after the update");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void frozenConstantCannotChange() throws Throwable {
+
+        HotConstant<String> constant = HotConstant.of(String.class, "final value");
+
+        ConstantCallSite callSite = constant.freeze();
+
+        assertEquals("final value",
+                (String) callSite.dynamicInvoker().invokeExact(),
+                "The frozen call site should return the current value");
+
+        assertThrows(IllegalStateException.class, () -> constant.set("changed"));
+    }
+}
@@ -0,0 +1,146 @@
+package none.cvg.events;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import none.cvg.DemoClass;
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Dispatch events through bound handles")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class EventBusTest {
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void annotatedMethodsOfAnyAccess() {
+
+        EventBus bus = new EventBus();
+        Listener listener = new Listener();
+        bus.register(listener);
+
+        bus.postAll(Arrays.asList("first", 2, "third", 4L));
+
+        assertEquals(Arrays.asList("private:first", "number:2", "private:third", "number:4"),
+                listener.received,
+                "Each event should reach the subscriptions accepting its class, in order");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void demoClassMethodsByName() {
+
+        EventBus bus = new EventBus();
+        RecordingDemo demo = new RecordingDemo();
+        bus.subscribe(demo, "protectedMethod", String.class);
+        bus.subscribe(demo, "packageProtectedMethod", String.class);
+
+        bus.post("event");
+
+        assertEquals(Arrays.asList("[RecordingDemo] - Protected method event"),
+                demo.received,
+                "The protected method should be called with the event");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> bus.subscribe(demo, "privateMethod", Integer.class),
+                "A method with another parameter type should not be found");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void laterRegistrationsSeeLaterEvents() {
+
+        EventBus bus = new EventBus();
+        Listener early = new Listener();
+        Listener late = new Listener();
+
+        bus.register(early);
+        bus.post(1);
+        bus.register(late);
+        bus.post(2);
+
+        assertEquals(Arrays.asList("number:1", "number:2"),
+                early.received,
+                "The first listener should see both events");
+        assertEquals(Arrays.asList("number:2"),
+                late.received,
+                "The second listener should only see events posted after registering");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(4)
+    public void primitiveParametersReceiveBoxedEvents() {
+
+        EventBus bus = new EventBus();
+        PrimitiveListener listener = new PrimitiveListener();
+        bus.register(listener);
+        bus.subscribe(listener, "onFlag", boolean.class);
+
+        bus.postAll(Arrays.asList(7, 8L, true, "text"));
+
+        assertEquals(Arrays.asList("int:7", "long:8", "flag:true"),
+                listener.received,
+                "Wrapper events should reach the matching primitive parameters");
+    }
+
+    static class Listener {
+
+        private final List<String> received = new ArrayList<>();
+
+        @Subscribe
+        private void onString(String event) {
+            received.add("private:" + event);
+        }
+
+        @Subscribe
+        boolean onNumber(Number event) {
+            return received.add("number:" + event);
+        }
+    }
+
+    static class PrimitiveListener {
+
+        private final List<String> received = new ArrayList<>();
+
+        @Subscribe
+        void onInt(int event) {
+            received.add("int:" + event);
+        }
+
+        @Subscribe
+        void onLong(long event) {
+            received.add("long:" + event);
+        }
+
+        void onFlag(boolean event) {
+            received.add("flag:" + event);
+        }
+    }
+
+    static class RecordingDemo extends DemoClass {
+
+        private final List<String> received = new ArrayList<>();
+
+        @Override
+        protected String protectedMethod(String input) {
+            String result = super.protectedMethod(input);
+            received.add(result);
+            return result;
+        }
+    }
+}
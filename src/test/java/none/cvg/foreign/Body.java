@@ -0,0 +1,24 @@
+package none.cvg.foreign;
+
+/*
+ * Superclass of Particle, whose primitive fields the struct layout must include.
+ */
+public class Body {
+
+    private long id;
+
+    private short kind;
+
+    public Body() {
+    }
+
+    public Body(long id, short kind) {
+        this.id = id;
+        this.kind = kind;
+    }
+
+    @Override
+    public String toString() {
+        return id + " " + kind;
+    }
+}
@@ -0,0 +1,38 @@
+package none.cvg.foreign;
+
+import java.lang.invoke.MethodHandles;
+
+/*
+ * Loaded by StructMapperTest in a class loader of its own, next to the versioned struct
+ * mapper. The layout orders x, id, charge, kind and flags by size, 23 bytes padded to 24.
+ */
+public class Particle extends Body {
+
+    private final int charge;
+
+    private double x;
+
+    private byte flags;
+
+    private String label = "particle";
+
+    public Particle() {
+        this.charge = 0;
+    }
+
+    public Particle(long id, short kind, int charge, double x, byte flags) {
+        super(id, kind);
+        this.charge = charge;
+        this.x = x;
+        this.flags = flags;
+    }
+
+    public static MethodHandles.Lookup lookup() {
+        return MethodHandles.lookup();
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + " " + charge + " " + x + " " + flags + " " + label;
+    }
+}
@@ -0,0 +1,235 @@
+package none.cvg.foreign;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/*
+ * Surefire runs on target/classes, where the class loader ignores META-INF/versions, so the
+ * JDK 22 tests pack the classes into a multi-release jar, as the build does, and call the
+ * mapper loaded from it reflectively. The test sources stay on Java 11.
+ */
+@DisplayName("Map primitive fields to native memory structs")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class StructMapperTest {
+
+    private static final int REQUIRED_FEATURE = 22;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void baselineReportsTheRequiredJdk() {
+
+        assumeTrue(Runtime.version().feature() < REQUIRED_FEATURE,
+                "The JDK 22 mapper replaces the baseline");
+
+        assertFalse(StructMapper.isSupported(), "The baseline cannot map structs");
+        UnsupportedOperationException error = assertThrows(UnsupportedOperationException.class,
+                () -> StructMapper.of(Point.class, MethodHandles.lookup()));
+        assertTrue(error.getMessage().contains("requires JDK 22"),
+                "The error should name the required JDK: " + error.getMessage());
+        assertTrue(error.getMessage().contains(Point.class.getName()),
+                "The error should name the mapped class: " + error.getMessage());
+        assertThrows(UnsupportedOperationException.class, () -> StructMapper.of(Point.class));
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void layoutIncludesInheritedFieldsAndPadding() throws Throwable {
+
+        assumeTrue(Runtime.version().feature() >= REQUIRED_FEATURE,
+                "The versioned classes need JDK 22");
+
+        try (URLClassLoader loader = multiReleaseLoader()) {
+
+            Object mapper = mapper(loader);
+            Object layout = call(mapper, "layout");
+            Class<?> memoryLayout = Class.forName("java.lang.foreign.MemoryLayout");
+            Class<?> groupLayout = Class.forName("java.lang.foreign.GroupLayout");
+
+            assertEquals(24L, callOn(memoryLayout, layout, "byteSize"),
+                    "23 bytes of fields should be padded to the 8 byte alignment");
+            assertEquals(8L, callOn(memoryLayout, layout, "byteAlignment"),
+                    "The struct should be aligned like its widest field");
+
+            List<?> members = (List<?>) callOn(groupLayout, layout, "memberLayouts");
+            assertEquals(List.of("x", "id", "charge", "kind", "flags"),
+                    members.subList(0, members.size() - 1).stream()
+                            .map(member -> name(memoryLayout, member))
+                            .collect(Collectors.toList()),
+                    "Inherited fields should be laid out, widest first");
+
+            Object padding = members.get(members.size() - 1);
+            assertTrue(Class.forName("java.lang.foreign.PaddingLayout").isInstance(padding),
+                    "The struct should end with padding");
+            assertEquals(1L, callOn(memoryLayout, padding, "byteSize"),
+                    "The padding should round the struct up to 24 bytes");
+        }
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void recordsRoundTripWithoutFinalFields() throws Throwable {
+
+        assumeTrue(Runtime.version().feature() >= REQUIRED_FEATURE,
+                "The versioned classes need JDK 22");
+
+        try (URLClassLoader loader = multiReleaseLoader()) {
+
+            Object mapper = mapper(loader);
+            Class<?> particle = loader.loadClass(Particle.class.getName());
+            Class<?> arenaType = Class.forName("java.lang.foreign.Arena");
+
+            Object arena = arenaType.getMethod("ofConfined").invoke(null);
+            try {
+                Object segment = call(mapper, "allocate", arena, 2L);
+                Object first = particle
+                        .getConstructor(long.class, short.class, int.class, double.class,
+                                byte.class)
+                        .newInstance(1L << 40, (short) 3, -2, 0.5, (byte) 7);
+                Object second = particle
+                        .getConstructor(long.class, short.class, int.class, double.class,
+                                byte.class)
+                        .newInstance(9L, (short) -1, 4, -1.25, (byte) -8);
+
+                call(mapper, "store", first, segment, 0L);
+                call(mapper, "store", second, segment, 1L);
+
+                Object id = call(mapper, "field", "id");
+                assertEquals(1L << 40, call(id, "getLong", segment, 0L),
+                        "The inherited field should be stored");
+                Object charge = call(mapper, "field", "charge");
+                assertEquals(4, call(charge, "getInt", segment, 1L),
+                        "Final fields should be stored");
+
+                Object loaded = call(mapper, "load", segment, 1L,
+                        particle.getConstructor().newInstance());
+                assertEquals("9 -1 0 -1.25 -8 particle", loaded.toString(),
+                        "Every non-final primitive field should be loaded, final ones kept");
+
+                call(mapper, "load", segment, 0L, loaded);
+                assertEquals("1099511627776 3 0 0.5 7 particle", loaded.toString(),
+                        "Loading another record should overwrite the same fields");
+            } finally {
+                arenaType.getMethod("close").invoke(arena);
+            }
+        }
+    }
+
+    private URLClassLoader multiReleaseLoader() throws Exception {
+        Path classes = location(StructMapper.class);
+        assertTrue(Files.isDirectory(classes.resolve("META-INF/versions/22")),
+                "A JDK 22 build should compile the versioned classes");
+        Path jar = pack(classes, directory.resolve("foreign.jar"));
+        URL[] urls = {jar.toUri().toURL(), location(Particle.class).toUri().toURL()};
+        return new URLClassLoader(urls, ClassLoader.getPlatformClassLoader());
+    }
+
+    private static Object mapper(ClassLoader loader) throws Throwable {
+        Class<?> particle = loader.loadClass(Particle.class.getName());
+        Object lookup = particle.getMethod("lookup").invoke(null);
+        Object mapper = loader.loadClass(StructMapper.class.getName())
+                .getMethod("of", Class.class, MethodHandles.Lookup.class)
+                .invoke(null, particle, lookup);
+        assertTrue((Boolean) callOn(mapper.getClass(), null, "isSupported"),
+                "The versioned mapper should be loaded from the jar");
+        return mapper;
+    }
+
+    private static String name(Class<?> memoryLayout, Object layout) {
+        try {
+            return (String) ((Optional<?>) callOn(memoryLayout, layout, "name")).orElse(null);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static Object call(Object target, String name, Object... arguments)
+            throws Throwable {
+        return callOn(target.getClass(), target, name, arguments);
+    }
+
+    /*
+     * Finds the public method by name and arity on a type whose package is exported, since
+     * the FFM implementation classes are not.
+     */
+    private static Object callOn(Class<?> type, Object target, String name, Object... arguments)
+            throws Throwable {
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(name)
+                    && method.getParameterCount() == arguments.length) {
+                return method.invoke(target, arguments);
+            }
+        }
+        throw new NoSuchMethodException(type.getName() + "." + name);
+    }
+
+    private static Path location(Class<?> type) throws Exception {
+        return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    private static Path pack(Path classes, Path jar) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(new Attributes.Name("Multi-Release"), "true");
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(classes)) {
+            files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            for (Path file : files) {
+                String name = classes.relativize(file).toString().replace('\\', '/');
+                if (name.equals("META-INF/MANIFEST.MF")) {
+                    continue;
+                }
+                out.putNextEntry(new JarEntry(name));
+                Files.copy(file, (OutputStream) out);
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    static final class Point {
+
+        int x;
+
+        int y;
+    }
+}
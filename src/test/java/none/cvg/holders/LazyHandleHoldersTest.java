@@ -0,0 +1,125 @@
+package none.cvg.holders;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import none.cvg.DemoClass;
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Resolve handles lazily through generated holders")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class LazyHandleHoldersTest {
+
+    private static final MethodType STRING_TO_STRING =
+            MethodType.methodType(String.class, String.class);
+
+    private static final MethodHandle PUBLIC_METHOD =
+            LazyHandleHolders.findVirtual(DemoClass.class, "publicMethod", STRING_TO_STRING);
+
+    private static final MethodHandle PUBLIC_STATIC_METHOD =
+            LazyHandleHolders.findStatic(DemoClass.class, "publicStaticMethod",
+                    STRING_TO_STRING);
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void publicMethodViaHolder() throws Throwable {
+
+        assertEquals(MethodType.methodType(String.class, DemoClass.class, String.class),
+                PUBLIC_METHOD.type(),
+                "The holder handle should keep the exact member type");
+
+        assertEquals("[DemoClass] - Public method - via holder",
+                (String) PUBLIC_METHOD.invokeExact(new DemoClass(), "via holder"),
+                "The public method should be invoked through the holder");
+
+        assertEquals("DemoClass.class - Public static method via holder",
+                (String) PUBLIC_STATIC_METHOD.invokeExact("via holder"),
+                "The static method should be invoked through the holder");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void resolvedOnFirstCallOnly() throws Throwable {
+
+        AtomicInteger resolutions = new AtomicInteger();
+
+        MethodHandle printStuff = LazyHandleHolders.register(
+                MethodType.methodType(String.class, DemoClass.class, String.class),
+                () -> {
+                    resolutions.incrementAndGet();
+                    try {
+                        return MethodHandles.publicLookup().findVirtual(DemoClass.class,
+                                "printStuff", STRING_TO_STRING);
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+
+        assertEquals(0,
+                resolutions.get(),
+                "Nothing should be resolved before the first call");
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("[Holder] - lazy",
+                    (String) printStuff.invokeExact(new DemoClass("Holder"), "lazy"),
+                    "The holder should invoke the resolved handle");
+        }
+
+        assertEquals(1,
+                resolutions.get(),
+                "The handle should be resolved exactly once");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void mismatchedResolverFails() {
+
+        MethodHandle mismatched = LazyHandleHolders.register(
+                MethodType.methodType(int.class),
+                () -> MethodHandles.constant(String.class, "not an int"));
+
+        assertThrows(ExceptionInInitializerError.class, () -> {
+            int ignored = (int) mismatched.invokeExact();
+        });
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(4)
+    public void oneHolderPerMember() throws Throwable {
+
+        MethodHandle first = LazyHandleHolders.findVirtual(DemoClass.class, "privateMethod",
+                STRING_TO_STRING);
+        MethodHandle second = LazyHandleHolders.findVirtual(DemoClass.class, "privateMethod",
+                STRING_TO_STRING);
+
+        assertSame(first, second, "The same member should reuse its holder");
+        assertSame(PUBLIC_STATIC_METHOD, LazyHandleHolders.findStatic(DemoClass.class,
+                "publicStaticMethod", STRING_TO_STRING),
+                "Static members should reuse their holder too");
+        assertNotSame(first, LazyHandleHolders.findVirtual(DemoClass.class, "publicMethod",
+                STRING_TO_STRING), "Another member should get its own holder");
+
+        assertEquals("[DemoClass] - Private method once",
+                (String) first.invokeExact(new DemoClass(), "once"),
+                "The private method should be invoked through the shared holder");
+    }
+}
@@ -0,0 +1,158 @@
+package none.cvg.inject;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+
+import none.cvg.DemoClass;
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Inject constructors through compiled handle plans")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class ContainerTest {
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void demoClassWithSelectedConstructor() throws Throwable {
+
+        Container container = new Container()
+                .bindInstance(String.class, "Injected")
+                .constructor(DemoClass.class, String.class);
+
+        MethodHandle plan = container.plan(DemoClass.class);
+
+        assertEquals(MethodType.methodType(DemoClass.class),
+                plan.type(),
+                "The plan should take no arguments and return the requested type");
+
+        assertEquals("[Injected] - planned",
+                ((DemoClass) plan.invokeExact()).printStuff("planned"),
+                "The selected constructor should receive the bound String");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void prototypeGraphWithSingletonLeaf() {
+
+        Container container = new Container()
+                .bind(Repository.class, MemoryRepository.class)
+                .singleton(Clock.class);
+
+        Service first = container.get(Service.class);
+        Service second = container.get(Service.class);
+
+        assertNotSame(first, second,
+                "Prototype services should be created on every call");
+        assertNotSame(first.repository, second.repository,
+                "Prototype repositories should be created on every call");
+        assertSame(first.clock, second.clock,
+                "The singleton clock should be shared by every graph");
+        assertSame(first.clock, ((MemoryRepository) first.repository).clock,
+                "The singleton should be shared inside a graph too");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void cyclesAndMissingBindingsFail() {
+
+        Container container = new Container();
+
+        IllegalStateException cycle = assertThrows(IllegalStateException.class,
+                () -> container.get(Chicken.class));
+        assertEquals("Dependency cycle: Chicken -> Egg -> Chicken",
+                cycle.getMessage(),
+                "The cycle should be reported in planning order");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> container.get(Repository.class),
+                "An interface without binding cannot be built");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(4)
+    public void singletonIsSharedAcrossItsInterfaces() {
+
+        Container container = new Container()
+                .bind(Reader.class, FileStore.class)
+                .bind(Writer.class, FileStore.class)
+                .singleton(FileStore.class);
+
+        Reader reader = container.get(Reader.class);
+
+        assertSame(reader, container.get(Writer.class),
+                "Both interfaces should resolve to the one singleton");
+        assertSame(reader, container.get(FileStore.class),
+                "The implementation itself should resolve to it too");
+        assertSame(reader, container.get(Reader.class),
+                "The singleton should not be rebuilt");
+    }
+
+    interface Repository {
+    }
+
+    interface Reader {
+    }
+
+    interface Writer {
+    }
+
+    static class FileStore implements Reader, Writer {
+    }
+
+    static class Clock {
+    }
+
+    static class MemoryRepository implements Repository {
+
+        private final Clock clock;
+
+        MemoryRepository(Clock clock) {
+            this.clock = clock;
+        }
+    }
+
+    static class Service {
+
+        private final Repository repository;
+
+        private final Clock clock;
+
+        Service() {
+            this(null, null);
+        }
+
+        @Inject
+        Service(Repository repository, Clock clock) {
+            this.repository = repository;
+            this.clock = clock;
+        }
+    }
+
+    static class Chicken {
+
+        Chicken(Egg egg) {
+        }
+    }
+
+    static class Egg {
+
+        Egg(Chicken chicken) {
+        }
+    }
+}
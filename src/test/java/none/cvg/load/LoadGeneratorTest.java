@@ -0,0 +1,125 @@
+package none.cvg.load;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Generate open-loop load per access technique")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class LoadGeneratorTest {
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void percentilesKeepSignificantDigits() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1_000_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(1_000_000, histogram.totalCount(), "Every value should be counted");
+        assertEquals(1000, histogram.min(), "The minimum should be exact");
+        assertEquals(1_000_000_000L, histogram.max(), "The maximum should be exact");
+        assertWithin(500_000_000L, histogram.valueAtPercentile(50), "p50");
+        assertWithin(990_000_000L, histogram.valueAtPercentile(99), "p99");
+        assertWithin(999_000_000L, histogram.valueAtPercentile(99.9), "p99.9");
+        assertEquals(1_000_000_000L,
+                histogram.valueAtPercentile(100),
+                "p100 should be the maximum");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void correctCoordinatedOmission() {
+
+        // 99 calls of 1ms, then a stall of 100ms, with a call expected every 1ms
+        LatencyHistogram uncorrected = new LatencyHistogram();
+        LatencyHistogram corrected = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            uncorrected.record(1_000_000);
+            corrected.recordCorrected(1_000_000, 1_000_000);
+        }
+        uncorrected.record(100_000_000);
+        corrected.recordCorrected(100_000_000, 1_000_000);
+
+        assertEquals(100, uncorrected.totalCount(), "The stall should be a single sample");
+        assertWithin(1_000_000, uncorrected.valueAtPercentile(99), "Uncorrected p99");
+
+        assertEquals(199,
+                corrected.totalCount(),
+                "The calls that would have waited behind the stall should be added");
+        assertWithin(51_000_000, corrected.valueAtPercentile(75), "Corrected p75");
+        assertWithin(99_000_000, corrected.valueAtPercentile(99), "Corrected p99");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void parseMix() {
+
+        Map<Technique, Integer> expected = new EnumMap<>(Technique.class);
+        expected.put(Technique.REFLECTION, 1);
+        expected.put(Technique.INVOKE_EXACT, 3);
+
+        assertEquals(expected,
+                LoadGenerator.parseMix("reflection, invokeExact=3"),
+                "Techniques should be parsed by label with a default weight of 1");
+        assertThrows(IllegalArgumentException.class,
+                () -> LoadGenerator.parseMix("methodHandle"),
+                "An unknown technique should be rejected");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(4)
+    public void runEveryTechniqueInItsShare() {
+
+        Map<Technique, Integer> mix = new EnumMap<>(Technique.class);
+        mix.put(Technique.REFLECTION, 1);
+        mix.put(Technique.UNSAFE, 1);
+        mix.put(Technique.INVOKE, 1);
+        mix.put(Technique.INVOKE_EXACT, 2);
+
+        LoadReport report = new LoadGenerator(5_000, mix)
+                .run(Duration.ofMillis(50), Duration.ofMillis(200));
+
+        assertEquals(200, report.responseTimes().get(Technique.REFLECTION).totalCount(),
+                "A fifth of the 1000 calls should use reflection");
+        assertEquals(200, report.responseTimes().get(Technique.UNSAFE).totalCount(),
+                "A fifth of the 1000 calls should use Unsafe");
+        assertEquals(200, report.responseTimes().get(Technique.INVOKE).totalCount(),
+                "A fifth of the 1000 calls should use invoke");
+        assertEquals(400, report.responseTimes().get(Technique.INVOKE_EXACT).totalCount(),
+                "Two fifths of the 1000 calls should use invokeExact");
+
+        for (Technique technique : Technique.values()) {
+            assertTrue(report.responseTimes().get(technique).valueAtPercentile(99.9)
+                            >= report.serviceTimes().get(technique).valueAtPercentile(50),
+                    "Response times include the service time");
+        }
+        String table = report.toMarkdown();
+        assertTrue(table.contains("| invokeExact | 400 |"),
+                "The table should show a row per technique");
+    }
+
+    private static void assertWithin(long expected, long actual, String percentile) {
+        assertTrue(Math.abs(actual - expected) <= expected / 1000,
+                percentile + " should be within 0.1% of " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,160 @@
+package none.cvg.mapping;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import none.cvg.DemoClass;
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Map objects using precompiled field handles")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class HandleMapperTest {
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void privateFieldToMap() {
+
+        Map<String, Object> map = HandleMapper.of(DemoClass.class)
+                .toMap(new DemoClass("Mapped Demo"));
+
+        assertEquals(1,
+                map.size(),
+                "DemoClass has a single instance field");
+
+        assertEquals("Mapped Demo",
+                map.get("name"),
+                "The private name field should be mapped");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void mapToNewInstance() {
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", "From Map");
+
+        DemoClass demoClass = HandleMapper.of(DemoClass.class).fromMap(map);
+
+        assertEquals("[From Map] - via handles",
+                demoClass.printStuff("via handles"),
+                "The name should be populated from the map");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void batchReusesMapsAndInstances() {
+
+        HandleMapper<DemoClass> mapper = HandleMapper.of(DemoClass.class);
+
+        List<DemoClass> sources = List.of(new DemoClass("one"), new DemoClass("two"));
+
+        List<Map<String, Object>> maps = new ArrayList<>();
+        Map<String, Object> reused = new HashMap<>();
+        maps.add(reused);
+        maps.add(new HashMap<>());
+        maps.add(new HashMap<>());
+
+        mapper.toMaps(sources, maps);
+
+        assertEquals(2,
+                maps.size(),
+                "Surplus maps should be removed");
+
+        assertSame(reused,
+                maps.get(0),
+                "Existing maps should be reused");
+
+        assertEquals("two",
+                maps.get(1).get("name"),
+                "Each map should hold the matching source");
+
+        List<DemoClass> targets = new ArrayList<>();
+        DemoClass reusedInstance = new DemoClass();
+        targets.add(reusedInstance);
+
+        mapper.fromMaps(maps, targets);
+
+        assertSame(reusedInstance,
+                targets.get(0),
+                "Existing instances should be reused");
+
+        assertEquals("[two] - batch",
+                targets.get(1).printStuff("batch"),
+                "Missing instances should be created");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(4)
+    public void subclassFieldHidesSuperclassField() {
+
+        HandleMapper<Labelled> mapper = HandleMapper.of(Labelled.class);
+        Labelled labelled = new Labelled("own", "inherited");
+
+        Map<String, Object> map = mapper.toMap(labelled);
+
+        assertEquals(Map.of("label", "own", "size", 1),
+                map,
+                "The hidden superclass field should not overwrite the subclass one");
+
+        mapper.fromMap(Map.of("label", "changed"), labelled);
+        assertEquals("changed", labelled.label, "The subclass field should be populated");
+        assertEquals("inherited", ((Base) labelled).label,
+                "The hidden field should be left alone");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(5)
+    public void constructorIsOnlyNeededForNewInstances() {
+
+        HandleMapper<Labelled> mapper = HandleMapper.of(Labelled.class);
+        Labelled labelled = new Labelled("before", "base");
+
+        mapper.fromMap(Map.of("size", 7), labelled);
+        assertEquals(7, mapper.toMap(labelled).get("size"),
+                "Mapping in place should not need a no-arg constructor");
+
+        assertThrows(IllegalStateException.class,
+                () -> mapper.fromMap(Map.of("size", 3)),
+                "A new instance needs a no-arg constructor");
+    }
+
+    static class Base {
+
+        String label;
+
+        int size = 1;
+
+        Base(String label) {
+            this.label = label;
+        }
+    }
+
+    static final class Labelled extends Base {
+
+        String label;
+
+        Labelled(String label, String baseLabel) {
+            super(baseLabel);
+            this.label = label;
+        }
+    }
+}
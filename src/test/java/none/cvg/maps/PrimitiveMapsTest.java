@@ -0,0 +1,232 @@
+package none.cvg.maps;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Map primitive keys without boxing")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class PrimitiveMapsTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void intObjectOperations() {
+
+        IntObjectMap<String> map = new IntObjectMap<>();
+
+        assertNull(map.put(7, "seven"), "A new key should have no previous value");
+        assertEquals("seven", map.put(7, "SEVEN"), "The previous value should be returned");
+        assertEquals("SEVEN", map.putIfAbsent(7, "other"), "A present key should be kept");
+        assertNull(map.put(0, "zero"), "Key 0 should be accepted");
+        assertNull(map.put(-1, "minus one"), "Negative keys should be accepted");
+        assertEquals(3, map.size(), "Three keys were put");
+
+        assertEquals("zero", map.remove(0), "The removed value should be returned");
+        assertNull(map.remove(0), "A removed key should be absent");
+        assertNull(map.get(0), "A removed key should be absent");
+        assertNull(map.putIfAbsent(0, "back"), "A removed key should be put again");
+
+        String computed = map.computeIfAbsent(42, key -> "value " + key);
+        assertSame(computed, map.computeIfAbsent(42, key -> "other"),
+                "A computed value should be kept");
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+
+        Map<Integer, String> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(Map.of(0, "back", 7, "SEVEN", -1, "minus one", 42, "value 42"), visited,
+                "Every entry should be visited");
+        assertEquals(4, map.size(), "The size should follow puts and removes");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void intObjectResizesUnderConcurrentWrites() {
+
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        int perThread = 20_000;
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < perThread; i++) {
+                int key = i * THREADS + thread;
+                map.put(key, key);
+                if (i % 3 == 0) {
+                    map.remove(key);
+                }
+            }
+        });
+
+        int expected = 0;
+        for (int key = 0; key < perThread * THREADS; key++) {
+            boolean removed = key / THREADS % 3 == 0;
+            if (removed) {
+                assertNull(map.get(key), "Removed key " + key + " should be absent");
+            } else {
+                assertEquals(key, map.get(key), "Key " + key + " should be present");
+                expected++;
+            }
+        }
+        assertEquals(expected, map.size(), "The size should count every live key");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void intObjectKeepsOneWinnerPerKey() {
+
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        AtomicInteger[] wins = new AtomicInteger[THREADS];
+        for (int thread = 0; thread < THREADS; thread++) {
+            wins[thread] = new AtomicInteger();
+        }
+
+        runConcurrently(thread -> {
+            for (int key = 1; key <= 10_000; key++) {
+                if (map.putIfAbsent(key, thread) == null) {
+                    wins[thread].incrementAndGet();
+                }
+                Integer owner = map.get(key);
+                assertTrue(owner != null, "A key should never disappear once put");
+            }
+        });
+
+        int total = 0;
+        for (AtomicInteger win : wins) {
+            total += win.get();
+        }
+        assertEquals(10_000, total, "Every key should be put by exactly one thread");
+        assertEquals(10_000, map.size(), "Every key should be counted once");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(4)
+    public void longLongOperations() {
+
+        SeqLockLongLongMap map = new SeqLockLongLongMap(4, -1);
+
+        assertEquals(-1, map.get(5), "An absent key should map to the missing value");
+        assertEquals(-1, map.put(5, 50), "A new key should have no previous value");
+        assertEquals(50, map.put(5, 55), "The previous value should be returned");
+        assertEquals(55, map.putIfAbsent(5, 0), "A present key should be kept");
+        assertEquals(3, map.addAndGet(0, 3), "An absent key should count as 0");
+        assertEquals(5, map.addAndGet(0, 2), "Deltas should add up");
+        assertEquals(-1, map.put(Long.MIN_VALUE, -1), "The missing value can be stored");
+        assertTrue(map.containsKey(Long.MIN_VALUE), "A stored missing value is present");
+        assertEquals(3, map.size(), "Three keys were put");
+
+        assertEquals(5, map.remove(0), "The removed value should be returned");
+        assertFalse(map.containsKey(0), "A removed key should be absent");
+        assertEquals(7, map.getOrDefault(0, 7), "The default should be returned");
+
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(Map.of(5L, 55L, Long.MIN_VALUE, -1L), visited,
+                "Every entry should be visited");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(5)
+    public void longLongCountsAcrossResizes() {
+
+        SeqLockLongLongMap map = new SeqLockLongLongMap();
+        int keys = 5_000;
+
+        runConcurrently(thread -> {
+            for (int round = 0; round < 4; round++) {
+                for (int i = 0; i < keys; i++) {
+                    map.addAndGet((i - keys / 2) * 0x1_0000_0001L, 1);
+                }
+            }
+        });
+
+        for (int i = 0; i < keys; i++) {
+            assertEquals(4L * THREADS, map.get((i - keys / 2) * 0x1_0000_0001L),
+                    "No increment of key " + i + " should be lost");
+        }
+        assertEquals(keys, map.size(), "Every key should be counted once");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(6)
+    public void forEachVisitsChainedTables() {
+
+        // Twelve keys hashing to one slot of a 16-slot table overflow its reprobe limit of 11,
+        // so the last one is put in a chained table before the table is replaced
+        IntObjectMap<String> objects = new IntObjectMap<>(0);
+        SeqLockLongLongMap longs = new SeqLockLongLongMap(0, 0);
+        int colliding = 0;
+        for (int key = 1; colliding < 12; key++) {
+            if ((IntObjectMap.hash(key) & 15) == 0) {
+                objects.put(key, "v" + key);
+                colliding++;
+            }
+        }
+        colliding = 0;
+        for (long key = 1; colliding < 12; key++) {
+            if ((SeqLockLongLongMap.hash(key) & 15) == 0) {
+                longs.put(key, key * 10);
+                colliding++;
+            }
+        }
+
+        Map<Integer, String> visitedObjects = new HashMap<>();
+        objects.forEach((key, value) -> assertNull(visitedObjects.put(key, value),
+                "Key " + key + " should be visited once"));
+        assertEquals(12, visitedObjects.size(), "Keys in the chained table should be visited");
+        visitedObjects.forEach((key, value) -> assertEquals("v" + key, value,
+                "Each key should be visited with its value"));
+
+        Map<Long, Long> visitedLongs = new HashMap<>();
+        longs.forEach((key, value) -> assertNull(visitedLongs.put(key, value),
+                "Key " + key + " should be visited once"));
+        assertEquals(12, visitedLongs.size(), "Keys in the chained table should be visited");
+        visitedLongs.forEach((key, value) -> assertEquals(key * 10, (long) value,
+                "Each key should be visited with its value"));
+    }
+
+    private static void runConcurrently(ThreadBody body) {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int id = thread;
+                futures.add(CompletableFuture.runAsync(() -> body.run(id), executor));
+            }
+            futures.forEach(CompletableFuture::join);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int thread);
+    }
+}
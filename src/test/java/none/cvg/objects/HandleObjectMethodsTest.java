@@ -0,0 +1,130 @@
+package none.cvg.objects;
+
+import java.util.Objects;
+
+import none.cvg.DemoClass;
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Generate equals and hashCode from field handles")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class HandleObjectMethodsTest {
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void privateNameField() {
+
+        HandleObjectMethods<DemoClass> methods = HandleObjectMethods.of(DemoClass.class);
+
+        DemoClass demo = new DemoClass("Demo");
+
+        assertTrue(methods.equals(demo, new DemoClass("Demo")),
+                "Instances with the same name should be equal");
+
+        assertFalse(methods.equals(demo, new DemoClass("Other")),
+                "Instances with different names should not be equal");
+
+        assertFalse(methods.equals(demo, null),
+                "No instance should be equal to null");
+
+        assertFalse(methods.equals(demo, "Demo"),
+                "Instances of other classes should not be equal");
+
+        assertEquals("Demo".hashCode(),
+                methods.hashCode(demo),
+                "The hash of a single field should be 31 * 0 + the field hash");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void primitiveFieldsInGivenOrder() {
+
+        HandleObjectMethods<Entity> methods =
+                HandleObjectMethods.of(Entity.class, "id", "score", "label");
+
+        assertTrue(methods.equals(new Entity(7L, Double.NaN, "a"), new Entity(7L, Double.NaN, "a")),
+                "NaN scores should be equal, as with Double.equals");
+
+        assertFalse(methods.equals(new Entity(7L, 1.0, "a"), new Entity(8L, 1.0, "a")),
+                "Different ids should not be equal");
+
+        int expected = 31 * (31 * (31 * 0 + Long.hashCode(7L)) + Double.hashCode(1.5))
+                + Objects.hashCode(null);
+
+        assertEquals(expected,
+                methods.hashCode(new Entity(7L, 1.5, null)),
+                "The hash should fold the fields in the given order");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void inheritedFieldsTakePart() {
+
+        HandleObjectMethods<Employee> methods = HandleObjectMethods.of(Employee.class);
+
+        assertSame(methods, HandleObjectMethods.of(Employee.class),
+                "The methods of a class should be built once");
+
+        assertTrue(methods.equals(new Employee("Ada", 1), new Employee("Ada", 1)),
+                "Instances with the same own and inherited state should be equal");
+        assertFalse(methods.equals(new Employee("Ada", 1), new Employee("Bob", 1)),
+                "Instances differing only in inherited state should not be equal");
+
+        assertEquals(31 * (31 * 0 + Integer.hashCode(1)) + "Ada".hashCode(),
+                methods.hashCode(new Employee("Ada", 1)),
+                "The inherited field should be hashed after the declared one");
+
+        HandleObjectMethods<Employee> byName = HandleObjectMethods.of(Employee.class, "name");
+        assertTrue(byName.equals(new Employee("Ada", 1), new Employee("Ada", 2)),
+                "An inherited field should be selectable by name");
+    }
+
+    static class Person {
+
+        private final String name;
+
+        Person(String name) {
+            this.name = name;
+        }
+    }
+
+    static final class Employee extends Person {
+
+        private final int badge;
+
+        Employee(String name, int badge) {
+            super(name);
+            this.badge = badge;
+        }
+    }
+
+    static class Entity {
+
+        private final long id;
+
+        private final double score;
+
+        private final String label;
+
+        Entity(long id, double score, String label) {
+            this.id = id;
+            this.score = score;
+            this.label = label;
+        }
+    }
+}
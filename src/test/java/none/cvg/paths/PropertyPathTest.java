@@ -0,0 +1,114 @@
+package none.cvg.paths;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Compile property paths into handles")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class PropertyPathTest {
+
+    private int[][] privatePrimitive2DArrayVariable = {
+            {1, 2, 3},
+            {4, 5, 6},
+            {7, 8, 9}
+    };
+
+    private Node next;
+
+    private String name = "root";
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void privatePrimitive2DArrayElement() throws Throwable {
+
+        PropertyPath<PropertyPathTest> path = PropertyPath.compile(PropertyPathTest.class,
+                "privatePrimitive2DArrayVariable[2][2]");
+
+        MethodHandle exact = path.exact();
+        assertEquals(MethodType.methodType(int.class, PropertyPathTest.class),
+                exact.type(),
+                "The exact handle should return the primitive element type");
+
+        assertEquals(9,
+                (int) exact.invokeExact(this),
+                "The element at [2][2] should be read through the composed handle");
+
+        assertEquals(int[].class,
+                PropertyPath.compile(PropertyPathTest.class, "privatePrimitive2DArrayVariable[1]")
+                        .type(),
+                "A partial index should end at the row type");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void nestedFieldsNullSafe() {
+
+        PropertyPath<PropertyPathTest> path =
+                PropertyPath.compile(PropertyPathTest.class, "next.next.label");
+
+        next = new Node(new Node(null, "leaf"), "middle");
+        assertEquals("leaf",
+                path.get(this),
+                "The nested private fields should be followed");
+
+        next = new Node(null, "middle");
+        assertNull(path.getOrNull(this),
+                "A null step should yield null on the null-safe variant");
+        assertThrows(NullPointerException.class,
+                () -> path.get(this),
+                "A null step should throw on the exact variant");
+
+        assertEquals(0,
+                PropertyPath.compile(PropertyPathTest.class, "next.next.depth")
+                        .getOrNull(this),
+                "A null step should yield zero for a primitive result");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void invalidPathsFail() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PropertyPath.compile(PropertyPathTest.class, "name[0]"),
+                "A String should not be indexed");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PropertyPath.compile(PropertyPathTest.class, "next..label"),
+                "An empty segment should be rejected");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PropertyPath.compile(PropertyPathTest.class, "next.missing"),
+                "An unknown field should be rejected");
+    }
+
+    static class Node {
+
+        private final Node next;
+
+        private final String label;
+
+        private int depth = 1;
+
+        Node(Node next, String label) {
+            this.next = next;
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package none.cvg.perf;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Detect benchmark regressions against a baseline")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class RegressionDetectorTest {
+
+    private static final String BASELINE = "["
+            + run("invokeExact", "private", "avgt", 10.0, "[[10.1, 9.9, 10.0], [10.2, 9.8]]")
+            + "," + run("reflection", "private", "avgt", 20.0, "[[20.1, 19.9, 20.0], [20.2, 19.8]]")
+            + "," + run("invokeExact", "public", "thrpt", 100.0, "[[101, 99, 100], [102, 98]]")
+            + "]";
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void parseJmhJson() {
+
+        List<BenchmarkResult> results = BenchmarkResult.parse(BASELINE);
+
+        assertEquals(3,
+                results.size(),
+                "Every run of the JMH output should be parsed");
+
+        BenchmarkResult first = results.get(0);
+        assertEquals("invokeExact", first.method(), "The method should drop the class name");
+        assertEquals("private", first.params().get("accessLevel"), "Params should be kept");
+        assertEquals("ns/op", first.unit(), "The unit should be kept");
+        assertArrayEquals(new double[] {10.1, 9.9, 10.0, 10.2, 9.8},
+                first.samples(),
+                "The iterations of every fork should be flattened into samples");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void welchPValueOfKnownSamples() {
+
+        // Both sides have a variance of the mean of 1, so t = -1 with 2 degrees of freedom,
+        // for which the two-sided p-value is 1 - 1 / sqrt(3)
+        double offset = Math.sqrt(2);
+        double pValue = RegressionDetector.welchPValue(new double[] {-1, 1},
+                new double[] {offset - 1, offset + 1});
+
+        assertEquals(1 - 1 / Math.sqrt(3),
+                pValue,
+                1e-9,
+                "The p-value should follow the Student t distribution");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void flagRegressionsByMode() {
+
+        String current = "["
+                + run("invokeExact", "private", "avgt", 12.0, "[[12.1, 11.9, 12.0], [12.2, 11.8]]")
+                + "," + run("reflection", "private", "avgt", 20.1,
+                "[[20.3, 19.9, 20.1], [20.2, 20.0]]")
+                + "," + run("invokeExact", "public", "thrpt", 120.0,
+                "[[121, 119, 120], [122, 118]]")
+                + "," + run("invoke", "public", "avgt", 5.0, "[[5.0, 5.0]]")
+                + "]";
+
+        List<RegressionDetector.Change> changes = new RegressionDetector()
+                .compare(BenchmarkResult.parse(BASELINE), BenchmarkResult.parse(current));
+
+        assertEquals(RegressionDetector.Verdict.REGRESSION,
+                changes.get(0).verdict(),
+                "A slower average time should be a regression");
+        assertEquals(RegressionDetector.Verdict.UNCHANGED,
+                changes.get(1).verdict(),
+                "A change within the noise should not be flagged");
+        assertEquals(RegressionDetector.Verdict.IMPROVEMENT,
+                changes.get(2).verdict(),
+                "A higher throughput should be an improvement");
+        assertEquals(RegressionDetector.Verdict.NEW,
+                changes.get(3).verdict(),
+                "A benchmark without baseline should be new");
+        assertTrue(RegressionDetector.hasRegression(changes),
+                "The regression should fail the check");
+
+        String table = MarkdownTables.changes(changes);
+        assertTrue(table.contains("| invokeExact | accessLevel=private | avgt "
+                        + "| 10.000 &plusmn; 0.500 | 12.000 &plusmn; 0.500 | ns/op | +20.0% |"),
+                "The table should show both scores and the change");
+
+        assertFalse(RegressionDetector.hasRegression(new RegressionDetector()
+                        .compare(BenchmarkResult.parse(BASELINE), BenchmarkResult.parse(BASELINE))),
+                "A baseline should not regress against itself");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(4)
+    public void pivotPerAccessLevel() {
+
+        String table = MarkdownTables.pivot(BenchmarkResult.parse(BASELINE).subList(0, 2),
+                "accessLevel");
+
+        assertEquals("| accessLevel (ns/op) | invokeExact | reflection |\n"
+                        + "|---|---:|---:|\n"
+                        + "| private | 10.000 &plusmn; 0.500 | 20.000 &plusmn; 0.500 |\n",
+                table,
+                "Techniques should be columns and access levels rows");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(5)
+    public void jdkUpgradeFallsBackToPreviousRelease(@TempDir Path directory) throws IOException {
+
+        BaselineStore store = new BaselineStore(directory.resolve("baselines"));
+        assertEquals(Optional.empty(), store.jdkBaseline(21), "A missing directory has none");
+
+        Path results = Files.write(directory.resolve("jmh-result.json"), BASELINE.getBytes());
+        store.save("jdk-11", results);
+        store.save("jdk-17", results);
+        store.save("jdk-25", results);
+        store.save("nightly", results);
+
+        assertEquals(Optional.of("jdk-17"), store.jdkBaseline(17),
+                "A release with its own baseline should use it");
+        assertEquals(Optional.of("jdk-17"), store.jdkBaseline(21),
+                "An upgrade should be compared with the newest earlier release");
+        assertEquals(Optional.empty(), store.jdkBaseline(8),
+                "Baselines of later releases should not be used");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(6)
+    public void baselinesRecordTheirMachine(@TempDir Path directory) throws IOException {
+
+        BaselineStore store = new BaselineStore(directory);
+        Path results = Files.write(directory.resolve("jmh-result.json"), BASELINE.getBytes());
+        store.save("jdk-17", results);
+
+        Map<String, String> machine = store.machine("jdk-17").orElseThrow();
+        assertEquals(BaselineStore.currentMachine(), machine,
+                "The machine should be read back as it was saved");
+        assertEquals(String.valueOf(Runtime.getRuntime().availableProcessors()),
+                machine.get("processors"), "The processor count should be recorded");
+        assertEquals(Optional.of("jdk-17"), store.jdkBaseline(17),
+                "The description should not be taken for a baseline");
+
+        Map<String, String> other = new TreeMap<>(machine);
+        other.put("processors", "1024");
+        assertFalse(BaselineStore.sameHardware(other, machine),
+                "Another processor count is other hardware");
+        other.put("processors", machine.get("processors"));
+        other.put("jvm", "another JVM");
+        assertTrue(BaselineStore.sameHardware(other, machine),
+                "A JDK upgrade on the same hardware should still be compared");
+        assertEquals(Optional.empty(), store.machine("nightly"),
+                "A baseline saved elsewhere may have no description");
+    }
+
+    private static String run(String method, String accessLevel, String mode, double score,
+                              String rawData) {
+        return "{\"benchmark\": \"none.cvg.benchmarks.MethodInvocationBenchmark." + method + "\","
+                + " \"mode\": \"" + mode + "\", \"threads\": 1, \"forks\": 2,"
+                + " \"params\": {\"accessLevel\": \"" + accessLevel + "\"},"
+                + " \"primaryMetric\": {\"score\": " + score + ", \"scoreError\": 0.5,"
+                + " \"scoreConfidence\": [" + (score - 0.5) + ", " + (score + 0.5) + "],"
+                + " \"scoreUnit\": \"" + ("thrpt".equals(mode) ? "ops/us" : "ns/op") + "\","
+                + " \"rawData\": " + rawData + "},"
+                + " \"secondaryMetrics\": {}}";
+    }
+}
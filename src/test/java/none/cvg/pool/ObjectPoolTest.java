@@ -0,0 +1,249 @@
+package none.cvg.pool;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import none.cvg.AllocationBudget;
+import none.cvg.DemoClass;
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Recycle instances built by constructor handles")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class ObjectPoolTest {
+
+    private static final int THREADS = 8;
+
+    private static ObjectPool<Quote> steadyPool;
+
+    @BeforeAll
+    public static void warmUp() {
+        steadyPool = ObjectPool.of(Quote.class, MethodHandles.lookup(), 64, "levels");
+        for (int i = 0; i < 10_000; i++) {
+            steadyPool.release(steadyPool.acquire());
+        }
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void resetRestoresConstructorValues() {
+
+        FieldReset<Quote> reset = FieldReset.of(Quote.class, MethodHandles.lookup(),
+                new Quote(), "levels");
+        assertEquals(4, reset.fieldCount(), "Non-final fields up the hierarchy, less the kept one");
+
+        Quote quote = new Quote();
+        quote.sequence = 42;
+        quote.symbol = "ACME";
+        quote.price = 9.5;
+        quote.venue = 'X';
+        quote.levels[0] = 7;
+        int[] levels = quote.levels;
+
+        reset.reset(quote);
+
+        assertEquals(0, quote.sequence, "Inherited fields should be reset");
+        assertEquals("NONE", quote.symbol, "Initialized fields should get their initial value");
+        assertEquals(0.0, quote.price, "Primitive fields should be reset");
+        assertEquals('?', quote.venue, "Fields set by the constructor should be reset");
+        assertSame(levels, quote.levels, "Kept fields should be left as they are");
+        assertThrows(IllegalArgumentException.class,
+                () -> FieldReset.of(Quote.class, MethodHandles.lookup(), new Quote(), "bid"));
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void poolRecyclesAndCreatesOnDemand() {
+
+        ObjectPool<DemoClass> pool = ObjectPool.of(DemoClass.class, 2);
+        assertEquals(2, pool.available(), "The depot should be filled up front");
+
+        DemoClass first = pool.acquire();
+        DemoClass second = pool.acquire();
+        DemoClass third = pool.acquire();
+        assertEquals(0, pool.available(), "The magazine should have taken the depot");
+        assertEquals(1, pool.created(), "An empty pool should create an instance");
+        assertTrue(third.printStuff("x").startsWith("[No param DemoClass constructor]"),
+                "Instances should be built by the no-arg constructor");
+
+        pool.release(first);
+        assertSame(first, pool.acquire(), "The last released instance should come back first");
+        assertNotSame(first, second, "Pooled instances should be distinct");
+        assertThrows(NullPointerException.class, () -> pool.release(null));
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void instancesAreNeverSharedBetweenThreads() {
+
+        ObjectPool<Quote> pool = ObjectPool.of(Quote.class, MethodHandles.lookup(), 64, "levels");
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 50_000; i++) {
+                Quote quote = pool.acquire();
+                assertEquals(0, quote.sequence, "An acquired instance should be reset");
+                quote.sequence = thread + 1;
+                quote.symbol = "T" + thread;
+                Thread.onSpinWait();
+                assertEquals(thread + 1, quote.sequence, "No other thread should hold it");
+                pool.release(quote);
+            }
+        });
+
+        assertTrue(pool.created() <= THREADS * 33L,
+                "Misses should be bounded by the magazines, but " + pool.created()
+                        + " instances were created");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(4)
+    @AllocationBudget(bytes = 128 * 1024)
+    public void steadyStateDoesNotAllocate() {
+
+        for (int i = 0; i < 1_000_000; i++) {
+            Quote quote = steadyPool.acquire();
+            quote.sequence = i;
+            steadyPool.release(quote);
+        }
+        assertEquals(0, steadyPool.created(), "The pool should serve every acquire");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(5)
+    public void mutableFieldsNeedHooks() {
+
+        IllegalArgumentException shared = assertThrows(IllegalArgumentException.class,
+                () -> FieldReset.of(Basket.class, MethodHandles.lookup(), new Basket(), "note"));
+        assertTrue(shared.getMessage().contains("items"),
+                "A collection field should not be shared by resets: " + shared.getMessage());
+
+        Map<String, Consumer<?>> hooks = Map.of(
+                "items", (Consumer<List<String>>) List::clear,
+                "note", (Consumer<StringBuilder>) note -> note.setLength(0));
+        Basket prototype = new Basket();
+        FieldReset<Basket> reset = FieldReset.of(Basket.class, MethodHandles.lookup(),
+                prototype, hooks);
+        assertEquals(4, reset.fieldCount(), "Hooked fields should be counted");
+
+        Basket basket = new Basket();
+        List<String> items = basket.items;
+        basket.items.add("apple");
+        basket.note.append("gift");
+        basket.size = Size.LARGE;
+        basket.count = 5;
+
+        reset.reset(basket);
+
+        assertSame(items, basket.items, "A hooked field should keep its own object");
+        assertTrue(basket.items.isEmpty(), "The hook should clear the collection");
+        assertEquals(0, basket.note.length(), "The hook should clear the builder");
+        assertEquals(Size.SMALL, basket.size, "Enum fields should be bound");
+        assertEquals(1, (int) basket.count, "Boxed fields should be bound");
+        assertTrue(prototype.items.isEmpty(), "The prototype should not be touched");
+
+        ObjectPool<Basket> pool = ObjectPool.of(Basket.class, MethodHandles.lookup(), 2, hooks);
+        Basket first = pool.acquire();
+        Basket second = pool.acquire();
+        assertNotSame(first.items, second.items, "Pooled instances should own their lists");
+        first.items.add("pear");
+        pool.release(first);
+        assertTrue(pool.acquire().items.isEmpty(), "A released list should be cleared");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(6)
+    public void shortLivedThreadsTakeLittle() throws InterruptedException {
+
+        ObjectPool<DemoClass> pool = ObjectPool.of(DemoClass.class, 64);
+
+        Thread thread = new Thread(() -> pool.release(pool.acquire()));
+        thread.start();
+        thread.join();
+
+        assertEquals(63, pool.available(),
+                "A thread acquiring once should take a single instance from the depot");
+    }
+
+    private static void runConcurrently(ThreadBody body) {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int id = thread;
+                futures.add(CompletableFuture.runAsync(() -> body.run(id), executor));
+            }
+            futures.forEach(CompletableFuture::join);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int thread);
+    }
+
+    enum Size {
+        SMALL, LARGE
+    }
+
+    static final class Basket {
+
+        private final List<String> items = new ArrayList<>();
+
+        StringBuilder note = new StringBuilder();
+
+        Size size = Size.SMALL;
+
+        Integer count = 1;
+    }
+
+    static class Message {
+
+        long sequence;
+    }
+
+    static final class Quote extends Message {
+
+        private static final String DEFAULT_SYMBOL = "NONE";
+
+        private final long id = 1;
+
+        String symbol = DEFAULT_SYMBOL;
+
+        double price;
+
+        char venue;
+
+        int[] levels = new int[4];
+
+        Quote() {
+            this.venue = '?';
+        }
+    }
+}
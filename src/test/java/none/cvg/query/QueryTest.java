@@ -0,0 +1,208 @@
+package none.cvg.query;
+
+import java.util.ArrayList;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+
+import none.cvg.DemoClass;
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Query collections through compiled handles")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class QueryTest {
+
+    private static final int SIZE = 100_000;
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void demoClassByPrivateName() {
+
+        List<DemoClass> demos = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            demos.add(new DemoClass("demo-" + (i % 10)));
+        }
+
+        Query<DemoClass> query = Query.from(DemoClass.class)
+                .where("name", Comparison.EQ, "demo-3");
+
+        assertEquals(100,
+                query.count(demos),
+                "Only the instances with the private name should match");
+
+        assertEquals(900,
+                Query.from(DemoClass.class)
+                        .where("name", Comparison.NE, "demo-3")
+                        .count(demos),
+                "All other instances should match the negated condition");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void filterProjectAndGroup() {
+
+        List<Trade> trades = trades();
+
+        Query<Trade> large = Query.from(Trade.class)
+                .where("quantity", Comparison.GE, 50)
+                .where("price", Comparison.LT, 90);
+
+        long expected = trades.stream()
+                .filter(trade -> trade.quantity >= 50 && trade.price < 90)
+                .count();
+        assertEquals(expected,
+                large.count(trades),
+                "Both conditions should hold for every match");
+
+        Object[] first = large.select(trades, "book", "quantity").get(0);
+        assertArrayEquals(new Object[] {"book-0", 50},
+                first,
+                "Rows should project the fields in order, boxing primitives");
+
+        Map<Object, Long> counts = Query.from(Trade.class).countBy(trades, "book");
+        assertEquals(SIZE / 4,
+                counts.get("book-1"),
+                "Each book should count a quarter of the trades");
+
+        Map<Object, DoubleSummaryStatistics> byBook =
+                large.summarizeBy(trades, "book", "quantity");
+        DoubleSummaryStatistics expectedStatistics = trades.stream()
+                .filter(trade -> trade.quantity >= 50 && trade.price < 90)
+                .filter(trade -> trade.book.equals("book-2"))
+                .mapToDouble(trade -> trade.quantity)
+                .summaryStatistics();
+        assertEquals(expectedStatistics.getSum(),
+                byBook.get("book-2").getSum(),
+                "Sums per group should match a hand-written stream");
+        assertEquals(expectedStatistics.getMax(),
+                byBook.get("book-2").getMax(),
+                "Maxima per group should match a hand-written stream");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void invalidQueriesFail() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Query.from(Trade.class).where("missing", Comparison.EQ, 1),
+                "An unknown field should be rejected");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Query.from(Trade.class).where("tags", Comparison.LT, null),
+                "Ordering needs a Comparable field");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Query.from(Trade.class).summarizeBy(trades(), "quantity", "book"),
+                "Summaries need a numeric field");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Query.from(Trade.class).where("book", Comparison.EQ, 5),
+                "A constant of another type should be rejected for a reference field");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(4)
+    public void constantsAreWidenedNotTruncated() {
+
+        List<Trade> trades = trades();
+
+        assertEquals(trades.stream().filter(trade -> trade.quantity >= 50).count(),
+                Query.from(Trade.class).where("quantity", Comparison.GE, 49.5).count(trades),
+                "A fractional constant should not be truncated for an int field");
+
+        assertEquals(SIZE,
+                Query.from(Trade.class).where("quantity", Comparison.LT, 1L << 32).count(trades),
+                "A constant beyond the int range should not wrap");
+
+        assertEquals(0,
+                Query.from(Trade.class).where("quantity", Comparison.EQ, 50L + (1L << 32))
+                        .count(trades),
+                "Equality should hold only for the exact value");
+
+        assertEquals(SIZE / 2,
+                Query.from(Trade.class).where("side", Comparison.EQ, 'B').count(trades),
+                "A char field should compare with a Character constant");
+
+        assertEquals(SIZE / 2,
+                Query.from(Trade.class).where("side", Comparison.GT, (int) 'B').count(trades),
+                "A char field should compare with an int constant");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Query.from(Trade.class).where("price", Comparison.EQ, (1L << 53) + 1),
+                "A long a double cannot hold exactly should be rejected");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Query.from(Trade.class).where("quantity", Comparison.EQ, "50"),
+                "A non-numeric constant should be rejected for a numeric field");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(5)
+    public void nullKeysAreGrouped() {
+
+        List<DemoClass> demos = List.of(new DemoClass(null), new DemoClass("named"),
+                new DemoClass(null));
+
+        Map<Object, Long> counts = Query.from(DemoClass.class).countBy(demos, "name");
+        assertEquals(2L, counts.get(null), "Null keys should be counted together");
+        assertEquals(1L, counts.get("named"), "Other keys should be counted as before");
+
+        List<Trade> trades = List.of(new Trade(null, 10, 1.5), new Trade("book-1", 20, 2.0),
+                new Trade(null, 30, 2.5));
+        Map<Object, DoubleSummaryStatistics> byBook =
+                Query.from(Trade.class).summarizeBy(trades, "book", "price");
+        assertEquals(2, byBook.size(), "The null book should be one group");
+        assertEquals(4.0, byBook.get(null).getSum(),
+                "Trades without a book should be summarized together");
+
+        assertEquals(2, Query.from(Trade.class).where("book", Comparison.EQ, null)
+                        .count(trades),
+                "A null constant should match null fields");
+    }
+
+    private static List<Trade> trades() {
+        List<Trade> trades = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            trades.add(new Trade("book-" + (i % 4), i % 100 + 50 * (i % 2 == 0 ? 1 : 0),
+                    i % 97));
+        }
+        return trades;
+    }
+
+    static class Trade {
+
+        private final String book;
+
+        private final int quantity;
+
+        private final double price;
+
+        private final char side;
+
+        private final int[] tags = {};
+
+        Trade(String book, int quantity, double price) {
+            this.book = book;
+            this.quantity = quantity;
+            this.price = price;
+            this.side = quantity % 2 == 0 ? 'B' : 'S';
+        }
+    }
+}
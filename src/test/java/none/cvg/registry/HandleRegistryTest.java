@@ -0,0 +1,180 @@
+package none.cvg.registry;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import none.cvg.DemoClass;
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Resolve and cache handles")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class HandleRegistryTest {
+
+    private static final MethodType STRING_TO_STRING =
+            MethodType.methodType(String.class, String.class);
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void privateMethodAndField() throws Throwable {
+
+        HandleRegistry registry = new HandleRegistry();
+
+        MethodHandle privateMethod =
+                registry.findVirtual(DemoClass.class, "privateMethod", STRING_TO_STRING);
+
+        assertEquals("[DemoClass] - Private method via registry",
+                (String) privateMethod.invokeExact(new DemoClass(), "via registry"),
+                "Private methods should be resolved via a private lookup");
+
+        VarHandle name = registry.findVarHandle(DemoClass.class, "name", String.class);
+
+        assertEquals("Registry Demo",
+                name.get(new DemoClass("Registry Demo")),
+                "Private fields should be resolved via a private lookup");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void concurrentResolutionPublishesOneHandle() {
+
+        HandleRegistry registry = new HandleRegistry();
+
+        List<CompletableFuture<MethodHandle>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            futures.add(CompletableFuture.supplyAsync(() ->
+                    registry.findVirtual(DemoClass.class, "protectedMethod", STRING_TO_STRING)));
+        }
+
+        MethodHandle first = futures.get(0).join();
+        for (CompletableFuture<MethodHandle> future : futures) {
+            assertSame(first,
+                    future.join(),
+                    "Every caller should see the same published handle");
+        }
+
+        assertEquals(1,
+                registry.size(),
+                "Only one member should have been cached");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void missingMemberFails() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new HandleRegistry().findVirtual(DemoClass.class, "noSuchMethod",
+                        STRING_TO_STRING));
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(4)
+    public void parseManifest() {
+
+        List<MemberSpec> manifest = MemberSpec.parseManifest(List.of(
+                "# kind owner name descriptor access",
+                "virtual none.cvg.DemoClass privateMethod "
+                        + "(Ljava/lang/String;)Ljava/lang/String; private",
+                "",
+                "  field none.cvg.DemoClass name Ljava/lang/String;"));
+
+        assertEquals(2, manifest.size(), "Comments and blank lines should be skipped");
+        assertEquals(MemberSpec.virtual(DemoClass.class, "privateMethod", STRING_TO_STRING)
+                        .toString(),
+                manifest.get(0).toString(),
+                "A parsed line should match the member built from classes");
+        assertEquals("field none.cvg.DemoClass name Ljava/lang/String; private",
+                manifest.get(1).toString(),
+                "The access should default to private");
+        assertEquals("static none.cvg.DemoClass publicStaticMethod "
+                        + "(Ljava/lang/String;)Ljava/lang/String; public",
+                MemberSpec.staticMethod(DemoClass.class, "publicStaticMethod", STRING_TO_STRING)
+                        .toString(),
+                "Public members of public classes should use the public lookup");
+        assertThrows(IllegalArgumentException.class,
+                () -> MemberSpec.parse("method none.cvg.DemoClass publicMethod ()V"),
+                "An unknown kind should be rejected");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(5)
+    public void warmUpInParallel() throws Throwable {
+
+        List<MemberSpec> manifest = new ArrayList<>();
+        for (String accessLevel : new String[] {"public", "protected", "packageProtected",
+                "private"}) {
+            manifest.add(MemberSpec.virtual(DemoClass.class, accessLevel + "Method",
+                    STRING_TO_STRING));
+        }
+        manifest.add(MemberSpec.staticMethod(DemoClass.class, "publicStaticMethod",
+                STRING_TO_STRING));
+        manifest.add(MemberSpec.constructor(DemoClass.class,
+                MethodType.methodType(void.class, String.class)));
+        manifest.add(MemberSpec.field(DemoClass.class, "name", String.class));
+        manifest.add(MemberSpec.parse("virtual java.lang.String length ()I public"));
+
+        HandleRegistry registry = new HandleRegistry();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(8,
+                    registry.warmUp(manifest, pool),
+                    "Every member of the manifest should be resolved");
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(8, registry.size(), "Every member should be cached");
+        MethodHandle privateMethod =
+                registry.findVirtual(DemoClass.class, "privateMethod", STRING_TO_STRING);
+        assertEquals(8, registry.size(), "A warmed up member should be a cache hit");
+        assertEquals("[DemoClass] - Private method warm",
+                (String) privateMethod.invokeExact(new DemoClass(), "warm"),
+                "A warmed up handle should be invocable");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(6)
+    public void warmUpReportsEveryFailure() {
+
+        HandleRegistry registry = new HandleRegistry();
+        List<MemberSpec> manifest = MemberSpec.parseManifest(List.of(
+                "virtual none.cvg.DemoClass publicMethod (Ljava/lang/String;)Ljava/lang/String;",
+                "virtual none.cvg.DemoClass noSuchMethod ()V",
+                "virtual none.cvg.NoSuchClass anyMethod ()V"));
+
+        IllegalArgumentException failure = assertThrows(IllegalArgumentException.class,
+                () -> registry.warmUp(manifest, ForkJoinPool.commonPool()));
+
+        assertTrue(failure.getMessage().startsWith("2 of 3 members failed to resolve"),
+                "The failures should be counted: " + failure.getMessage());
+        assertEquals(1,
+                failure.getSuppressed().length,
+                "The failures after the first should be suppressed");
+        assertEquals(1,
+                registry.size(),
+                "The members that could be resolved should be cached");
+    }
+}
@@ -0,0 +1,128 @@
+package none.cvg.routing;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import none.cvg.DemoClass;
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Route commands by name through a perfect hash table")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class CommandRouterTest {
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void demoClassMethodsByName() throws Throwable {
+
+        CommandRouter router = CommandRouter.of(DemoClass.class);
+        DemoClass demo = new DemoClass();
+
+        assertEquals("[DemoClass] - Private method routed",
+                router.invoke("privateMethod", demo, "routed"),
+                "The private method should be routed by name");
+
+        assertEquals("DemoClass.class - Public static method routed",
+                router.invoke("publicStaticMethod", null, "routed"),
+                "Static methods should ignore the target");
+
+        MethodHandle protectedMethod = router.find("protectedMethod");
+        assertEquals("[DemoClass] - Protected method direct",
+                (String) protectedMethod.invokeExact(demo, "direct"),
+                "The direct handle should keep the method's own type");
+
+        assertNull(router.find("missingMethod"),
+                "Unknown commands should not be found");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> router.invoke("missingMethod", demo),
+                "Unknown commands should not be invoked");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void everyNameInItsOwnSlot() {
+
+        List<String> expected = new ArrayList<>();
+        for (Method method : Commands.class.getDeclaredMethods()) {
+            expected.add(method.getName());
+        }
+
+        CommandRouter router = CommandRouter.of(Commands.class, MethodHandles.lookup(),
+                method -> !Modifier.isStatic(method.getModifiers()));
+
+        assertEquals(expected.size(),
+                router.names().size(),
+                "Every selected method should be routed");
+        assertTrue(router.names().containsAll(expected),
+                "Names sharing a hash code should still be routed");
+
+        Commands commands = new Commands();
+        for (String name : Arrays.asList("Aa", "BB", "AaAa", "BBBB", "AaBB")) {
+            assertEquals(name,
+                    router.invoke(name, commands),
+                    "Each name should route to its own method");
+        }
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void overloadsMustBeSelected() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandRouter.of(Overloads.class),
+                "Overloaded names should be rejected");
+    }
+
+    static class Commands {
+
+        String Aa() {
+            return "Aa";
+        }
+
+        String BB() {
+            return "BB";
+        }
+
+        String AaAa() {
+            return "AaAa";
+        }
+
+        String BBBB() {
+            return "BBBB";
+        }
+
+        String AaBB() {
+            return "AaBB";
+        }
+    }
+
+    static class Overloads {
+
+        void run() {
+        }
+
+        void run(int times) {
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package none.cvg.sorting;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import none.cvg.HandlesKataDisplayNames;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Compare objects by compiled field handles")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class FieldComparatorTest {
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void threeKeysMatchHandWrittenComparator() {
+
+        Comparator<Row> expected = Comparator
+                .comparingInt((Row row) -> row.group)
+                .thenComparing(Comparator.comparingDouble((Row row) -> row.score).reversed())
+                .thenComparing(row -> row.privateVariable);
+
+        FieldComparator<Row> compiled =
+                FieldComparator.compile(Row.class, "group", "-score", "privateVariable");
+
+        Row[] rows = rows(100_000);
+        Row[] sorted = rows.clone();
+        Arrays.sort(rows, expected);
+        compiled.parallelSort(sorted);
+
+        assertArrayEquals(rows,
+                sorted,
+                "The compiled comparator should order like the hand-written one");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void nullReferenceKeysSortFirst() {
+
+        FieldComparator<Row> compiled = FieldComparator.compile(Row.class, "privateVariable");
+
+        Row withNull = new Row(0, 0, null);
+        Row withValue = new Row(0, 0, 1);
+
+        assertTrue(compiled.compare(withNull, withValue) < 0,
+                "A null key should sort before any value");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void nonComparableFieldFails() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> FieldComparator.compile(Row.class, "tags"));
+    }
+
+    private static Row[] rows(int count) {
+        Random random = new Random(42);
+        Row[] rows = new Row[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = new Row(random.nextInt(10), random.nextInt(100) / 4.0,
+                    random.nextInt(1_000));
+        }
+        return rows;
+    }
+
+    static class Row {
+
+        private final int group;
+
+        private final double score;
+
+        private final Integer privateVariable;
+
+        private final int[] tags = {};
+
+        Row(int group, double score, Integer privateVariable) {
+            this.group = group;
+            this.score = score;
+            this.privateVariable = privateVariable;
+        }
+    }
+}
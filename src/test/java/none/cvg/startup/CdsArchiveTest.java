@@ -0,0 +1,98 @@
+package none.cvg.startup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import none.cvg.HandlesKataDisplayNames;
+import none.cvg.registry.HandleRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("Archive the handles of a training run with dynamic CDS")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayNameGeneration(HandlesKataDisplayNames.class)
+public class CdsArchiveTest {
+
+    @Test
+    @Tag("PASSING")
+    @Order(1)
+    public void trainEveryKataHandle() {
+
+        HandleRegistry registry = new HandleRegistry();
+
+        assertEquals(14,
+                TrainingRun.run(registry),
+                "Constructors, methods, field and array element handles should be used");
+        assertEquals(12,
+                registry.size(),
+                "Every member handle should be resolved through the registry");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(2)
+    public void launchWithAndWithoutArchive(@TempDir Path directory) throws Exception {
+
+        CdsArchive cds = new CdsArchive("java",
+                classes() + File.pathSeparator + "lib.jar",
+                directory.resolve("handles.jsa"));
+
+        String classPath = directory.toAbsolutePath().resolve("handles.jsa.jar")
+                + File.pathSeparator + "lib.jar";
+        assertEquals(classPath,
+                cds.launchClassPath(),
+                "Directories should be replaced by the jar they are packed into");
+        assertEquals(List.of("java",
+                        "-XX:ArchiveClassesAtExit=" + directory.resolve("handles.jsa"),
+                        "-cp", classPath, TrainingRun.class.getName()),
+                cds.trainingCommand(),
+                "The training run should write the archive at exit");
+        assertEquals("-XX:SharedArchiveFile=" + directory.resolve("handles.jsa"),
+                cds.runCommand(true).get(1),
+                "The measured run should map the archive");
+        assertEquals("-Xshare:auto",
+                cds.runCommand(false).get(1),
+                "The baseline run should keep the default JDK archive");
+    }
+
+    @Test
+    @Tag("PASSING")
+    @Order(3)
+    public void trainAndCompare(@TempDir Path directory) throws Exception {
+
+        assumeTrue(Runtime.version().feature() >= 13, "Dynamic archives need JDK 13");
+
+        Path archive = directory.resolve("handles.jsa");
+        CdsArchive cds = new CdsArchive(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                classes().toString(), archive);
+
+        assertTrue(cds.train().startsWith("Trained 14 handles"),
+                "The training run should use every handle");
+        assertTrue(Files.size(archive) > 0, "The archive should be written");
+
+        CdsArchive.Comparison comparison = cds.compare(1);
+        assertTrue(comparison.medianWith() > 0 && comparison.medianWithout() > 0,
+                "Both launches should be timed");
+        assertTrue(comparison.toMarkdown().contains("| with archive | 1 |"),
+                "The table should show both launches");
+    }
+
+    private static Path classes() throws Exception {
+        return Paths.get(TrainingRun.class.getProtectionDomain().getCodeSource().getLocation()
+                .toURI());
+    }
+}